@@ -0,0 +1,21 @@
+package org.example.config;
+
+import org.example.util.SnowflakeIdGenerator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.EntityManagerFactoryDependsOnPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class IdGeneratorConfig {
+
+    @Bean
+    public SnowflakeIdGenerator snowflakeIdGenerator(@Value("${id.node-id}") int nodeId) {
+        return SnowflakeIdGenerator.configure(nodeId);
+    }
+
+    @Bean
+    public static EntityManagerFactoryDependsOnPostProcessor entityManagerFactoryDependsOnIdGenerator() {
+        return new EntityManagerFactoryDependsOnPostProcessor("snowflakeIdGenerator");
+    }
+}
@@ -0,0 +1,128 @@
+package org.example.config;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.example.util.TokenBucketRateLimiter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.core.env.Environment;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Limits the request rate of every client separately for every endpoint group from
+ * {@code rate-limit.groups}. The first group matching the method and path applies; requests that
+ * match no group are not limited. The API key header is not authenticated, so only the keys from
+ * {@code rate-limit.client-keys} get buckets of their own; any other caller is limited by remote
+ * address, and a made-up key per request does not get a fresh bucket. Callers sending one of the
+ * secret {@code rate-limit.exempt-keys}, supplied through the environment, are not limited.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 1)
+@ConditionalOnProperty(name = "rate-limit.enabled", havingValue = "true")
+public class RateLimitFilter extends OncePerRequestFilter {
+    public static final String LIMIT = "RateLimit-Limit";
+    public static final String REMAINING = "RateLimit-Remaining";
+    public static final String RESET = "RateLimit-Reset";
+
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+    private final List<Group> groups = new ArrayList<>();
+
+    @Autowired
+    private Environment environment;
+
+    @Value("${rate-limit.client-header}")
+    private String clientHeader;
+
+    @Value("${rate-limit.client-keys:}")
+    private Set<String> clientKeys;
+
+    @Value("${rate-limit.exempt-keys:}")
+    private Set<String> exemptKeys;
+
+    @Value("${rate-limit.max-clients}")
+    private int maxClients;
+
+    @Value("${rate-limit.stripes}")
+    private int stripes;
+
+    @PostConstruct
+    public void init() {
+        Map<String, GroupProperties> properties = Binder.get(environment)
+                .bind("rate-limit.groups", Bindable.mapOf(String.class, GroupProperties.class))
+                .orElse(Map.of());
+        properties.forEach((name, group) -> groups.add(new Group(name, group.methods(), group.paths(),
+                new TokenBucketRateLimiter(group.rate(), group.burst(), maxClients, stripes))));
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return request.getRequestURI().startsWith("/actuator");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        Group group = match(request);
+        String key = request.getHeader(clientHeader);
+        if (group == null || isKnown(exemptKeys, key)) {
+            chain.doFilter(request, response);
+            return;
+        }
+        String client = isKnown(clientKeys, key) ? "key:" + key : "address:" + request.getRemoteAddr();
+        TokenBucketRateLimiter.Decision decision = group.limiter().tryAcquire(client);
+        response.setHeader(LIMIT, String.valueOf(decision.limit()));
+        response.setHeader(REMAINING, String.valueOf(decision.remaining()));
+        response.setHeader(RESET, String.valueOf(seconds(decision.resetNanos())));
+        if (!decision.allowed()) {
+            response.setStatus(429);
+            response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1, seconds(decision.retryAfterNanos()))));
+            response.getOutputStream().write(("rate limit of " + group.name() + " exceeded").getBytes());
+            return;
+        }
+        chain.doFilter(request, response);
+    }
+
+    private Group match(HttpServletRequest request) {
+        for (Group group : groups) {
+            if (group.methods().contains(request.getMethod())) {
+                for (String path : group.paths()) {
+                    if (pathMatcher.match(path, request.getRequestURI())) {
+                        return group;
+                    }
+                }
+            }
+        }
+        return null;
+    }
+
+    private static boolean isKnown(Set<String> keys, String key) {
+        return key != null && !key.isBlank() && keys.contains(key);
+    }
+
+    private static long seconds(long nanos) {
+        return (nanos + 999_999_999) / 1_000_000_000;
+    }
+
+    public record GroupProperties(List<String> methods, List<String> paths, double rate, int burst) {
+    }
+
+    private record Group(String name, List<String> methods, List<String> paths, TokenBucketRateLimiter limiter) {
+    }
+}
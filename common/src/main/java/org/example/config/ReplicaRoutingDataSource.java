@@ -0,0 +1,191 @@
+package org.example.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Data source for read-only transactions. Hands out a connection to a healthy replica that has applied
+ * at least the position required by the caller and lags no more than max-lag, otherwise to the primary.
+ */
+@Slf4j
+public class ReplicaRoutingDataSource extends AbstractDataSource implements AutoCloseable {
+    private static final ThreadLocal<Long> REQUIRED_POSITION = new ThreadLocal<>();
+
+    private final DataSource primary;
+    private final List<Replica> replicas = new ArrayList<>();
+    private final Duration maxLag;
+    private final AtomicLong primaryPosition = new AtomicLong();
+    private final AtomicInteger next = new AtomicInteger();
+    private final Counter primaryRoutes;
+
+    public ReplicaRoutingDataSource(DataSource primary, Map<String, DataSource> replicas, Duration maxLag,
+                                    MeterRegistry meterRegistry) {
+        this.primary = primary;
+        this.maxLag = maxLag;
+        this.primaryRoutes = Counter.builder("datasource.routes").tag("route", "primary").register(meterRegistry);
+        replicas.forEach((name, dataSource) -> {
+            Replica replica = new Replica(name, dataSource,
+                    Counter.builder("datasource.routes").tag("route", name).register(meterRegistry));
+            Gauge.builder("datasource.replica.lag", replica, r -> getLag(r).toMillis() / 1000.0)
+                    .tag("replica", name)
+                    .baseUnit("seconds")
+                    .register(meterRegistry);
+            Gauge.builder("datasource.replica.healthy", replica, r -> r.healthy ? 1 : 0)
+                    .tag("replica", name)
+                    .register(meterRegistry);
+            this.replicas.add(replica);
+        });
+    }
+
+    public static void requirePosition(Long position) {
+        if (position == null) {
+            REQUIRED_POSITION.remove();
+        } else {
+            REQUIRED_POSITION.set(position);
+        }
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        long required = REQUIRED_POSITION.get() == null ? 0 : REQUIRED_POSITION.get();
+        int start = Math.floorMod(next.getAndIncrement(), Math.max(1, replicas.size()));
+        for (int i = 0; i < replicas.size(); i++) {
+            Replica replica = replicas.get((start + i) % replicas.size());
+            if (!isEligible(replica, required)) {
+                continue;
+            }
+            try {
+                Connection connection = replica.dataSource.getConnection();
+                replica.routes.increment();
+                return connection;
+            } catch (SQLException e) {
+                eject(replica, e.getMessage());
+            }
+        }
+        primaryRoutes.increment();
+        return primary.getConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return getConnection();
+    }
+
+    public long markWritten() {
+        return primaryPosition.incrementAndGet();
+    }
+
+    public long getPrimaryPosition() {
+        return primaryPosition.get();
+    }
+
+    public DataSource getPrimary() {
+        return primary;
+    }
+
+    public List<Replica> getReplicas() {
+        return replicas;
+    }
+
+    public Duration getLag(Replica replica) {
+        if (replica.appliedPosition >= primaryPosition.get()) {
+            return Duration.ZERO;
+        }
+        return replica.lastAppliedMillis == 0
+                ? maxLag.plusMillis(1)
+                : Duration.ofMillis(System.currentTimeMillis() - replica.lastAppliedMillis);
+    }
+
+    @Scheduled(fixedDelayString = "${datasource.replicas.health-check-interval}")
+    public void checkHealth() {
+        for (Replica replica : replicas) {
+            try (Connection connection = replica.dataSource.getConnection()) {
+                if (connection.isValid(1)) {
+                    if (!replica.healthy) {
+                        log.info("replica {} is healthy again", replica.name);
+                    }
+                    replica.healthy = true;
+                } else {
+                    eject(replica, "connection is not valid");
+                }
+            } catch (SQLException e) {
+                eject(replica, e.getMessage());
+            }
+        }
+    }
+
+    @Override
+    public void close() throws Exception {
+        for (Replica replica : replicas) {
+            if (replica.dataSource instanceof AutoCloseable closeable) {
+                closeable.close();
+            }
+        }
+        if (primary instanceof AutoCloseable closeable) {
+            closeable.close();
+        }
+    }
+
+    private boolean isEligible(Replica replica, long required) {
+        return replica.healthy
+                && replica.appliedPosition >= required
+                && getLag(replica).compareTo(maxLag) <= 0;
+    }
+
+    private void eject(Replica replica, String reason) {
+        if (replica.healthy) {
+            log.warn("replica {} is ejected from reads: {}", replica.name, reason);
+        }
+        replica.healthy = false;
+    }
+
+    public static class Replica {
+        private final String name;
+        private final DataSource dataSource;
+        private final Counter routes;
+        private volatile long appliedPosition = -1;
+        private volatile long lastAppliedMillis;
+        private volatile boolean healthy = true;
+
+        Replica(String name, DataSource dataSource, Counter routes) {
+            this.name = name;
+            this.dataSource = dataSource;
+            this.routes = routes;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public DataSource getDataSource() {
+            return dataSource;
+        }
+
+        public boolean isHealthy() {
+            return healthy;
+        }
+
+        public long getAppliedPosition() {
+            return appliedPosition;
+        }
+
+        public void applied(long position) {
+            appliedPosition = position;
+            lastAppliedMillis = System.currentTimeMillis();
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package org.example.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import org.example.util.RequestTrace;
+import org.example.util.TraceBuffer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.time.Duration;
+
+/**
+ * Starts a {@link RequestTrace} for every request, returns its timings in {@code Server-Timing}
+ * and keeps sampled and slow traces in the {@link TraceBuffer}.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class TracingFilter extends OncePerRequestFilter {
+    public static final String TRACEPARENT = "traceparent";
+    public static final String TRACE_ID = "X-Trace-Id";
+    public static final String SERVER_TIMING = "Server-Timing";
+
+    @Autowired
+    private TraceBuffer traces;
+
+    @Value("${tracing.sample-rate}")
+    private double sampleRate;
+
+    @Value("${tracing.slow-threshold}")
+    private Duration slowThreshold;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return request.getRequestURI().startsWith("/actuator");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        RequestTrace trace = RequestTrace.start(request.getHeader(TRACEPARENT), sampleRate);
+        response.setHeader(TRACE_ID, trace.getTraceId());
+        TimingResponse timingResponse = new TimingResponse(response, trace);
+        try {
+            chain.doFilter(request, timingResponse);
+        } finally {
+            trace.close("write response");
+            timingResponse.setTiming();
+            trace.finish(request.getMethod() + " " + request.getRequestURI(), response.getStatus());
+            RequestTrace.clear();
+            if (trace.isSampled() || trace.getDurationMicros() >= slowThreshold.toNanos() / 1000) {
+                traces.add(trace);
+            }
+        }
+    }
+
+    private static class TimingResponse extends HttpServletResponseWrapper {
+        private final RequestTrace trace;
+        private boolean timingSet;
+
+        TimingResponse(HttpServletResponse response, RequestTrace trace) {
+            super(response);
+            this.trace = trace;
+        }
+
+        void setTiming() {
+            if (!timingSet && !isCommitted()) {
+                setHeader(SERVER_TIMING, trace.serverTiming());
+                timingSet = true;
+            }
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            setTiming();
+            return super.getOutputStream();
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            setTiming();
+            return super.getWriter();
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            setTiming();
+            super.flushBuffer();
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package org.example.controllers;
+
+import org.example.util.RequestTrace;
+import org.example.util.TraceBuffer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@Component
+@Endpoint(id = "traces")
+public class TracesEndpoint {
+
+    @Autowired
+    private TraceBuffer traces;
+
+    @ReadOperation
+    public List<Map<String, Object>> traces() {
+        return traces.recent().stream().map(this::toMap).toList();
+    }
+
+    @ReadOperation
+    public List<Map<String, Object>> trace(@Selector String traceId) {
+        return traces.recent().stream()
+                .filter(trace -> trace.getTraceId().equals(traceId))
+                .map(this::toMap)
+                .toList();
+    }
+
+    private Map<String, Object> toMap(RequestTrace trace) {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("traceId", trace.getTraceId());
+        map.put("spanId", trace.getSpanId());
+        map.put("parentSpanId", trace.getParentSpanId());
+        map.put("request", trace.getRequest());
+        map.put("status", trace.getStatus());
+        map.put("timestamp", trace.getStartMillis());
+        map.put("durationMicros", trace.getDurationMicros());
+        map.put("timings", trace.getTimings());
+        map.put("spans", trace.getSpans());
+        return map;
+    }
+}
@@ -0,0 +1,17 @@
+package org.example.model;
+
+import java.util.Map;
+
+/**
+ * @param settled    whether the JIT share of the last round fell to the threshold before {@code max-duration}
+ * @param operations latencies of every operation in the first (cold) and the last round
+ */
+public record WarmUpReport(long durationMillis, int rounds, long cycles, long compilationMillis, boolean settled,
+                           Map<String, Operation> operations) {
+
+    public record Operation(Latency before, Latency after) {
+    }
+
+    public record Latency(long p50Micros, long p99Micros, long maxMicros) {
+    }
+}
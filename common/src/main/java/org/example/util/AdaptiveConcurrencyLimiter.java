@@ -0,0 +1,141 @@
+package org.example.util;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * AIMD limit on the number of calls in flight. The limit grows by one after a limit's worth of calls
+ * finish within the target latency while the limiter is busy, and is multiplied by the backoff ratio,
+ * at most once per target latency, when a call is slower or fails with an overload. Reads may only use
+ * a share of the limit, so they are rejected first and writes keep going.
+ */
+public class AdaptiveConcurrencyLimiter {
+    private static final double BACKOFF_RATIO = 0.9;
+
+    public enum Priority {
+        READ, WRITE
+    }
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final long targetNanos;
+    private final double readShare;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final Map<Priority, Counter> rejected = new EnumMap<>(Priority.class);
+    private volatile double limit;
+    private long lastDecrease;
+
+    public AdaptiveConcurrencyLimiter(String name, int initialLimit, int minLimit, int maxLimit,
+                                      Duration targetLatency, double readShare, MeterRegistry meterRegistry) {
+        if (minLimit < 1 || minLimit > initialLimit || initialLimit > maxLimit) {
+            throw new IllegalArgumentException("expected 1 <= min-limit <= initial-limit <= max-limit");
+        }
+        if (readShare <= 0 || readShare > 1) {
+            throw new IllegalArgumentException("read-share must be in (0, 1]");
+        }
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.targetNanos = targetLatency.toNanos();
+        this.readShare = readShare;
+        this.limit = initialLimit;
+        this.lastDecrease = System.nanoTime() - targetNanos;
+        Gauge.builder("concurrency.limit", this, AdaptiveConcurrencyLimiter::getLimit)
+                .tag("limiter", name)
+                .register(meterRegistry);
+        Gauge.builder("concurrency.in-flight", inFlight, AtomicInteger::get)
+                .tag("limiter", name)
+                .register(meterRegistry);
+        for (Priority priority : Priority.values()) {
+            rejected.put(priority, Counter.builder("concurrency.rejected")
+                    .tag("limiter", name)
+                    .tag("priority", priority.name().toLowerCase())
+                    .register(meterRegistry));
+        }
+    }
+
+    /**
+     * Takes a slot for one call, or returns {@code null} if the limit for this priority is reached.
+     * The permit must be released exactly once.
+     */
+    public Permit tryAcquire(Priority priority) {
+        int allowed = allowed(priority);
+        while (true) {
+            int current = inFlight.get();
+            if (current >= allowed) {
+                rejected.get(priority).increment();
+                return null;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return new Permit(current + 1);
+            }
+        }
+    }
+
+    public int getLimit() {
+        return (int) limit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    public long getRejected(Priority priority) {
+        return (long) rejected.get(priority).count();
+    }
+
+    private int allowed(Priority priority) {
+        int current = getLimit();
+        return priority == Priority.WRITE ? current : Math.max(1, (int) (current * readShare));
+    }
+
+    private synchronized void onSample(long start, long end, int inFlightAtStart, boolean overloaded) {
+        double current = limit;
+        if (overloaded || end - start > targetNanos) {
+            if (end - lastDecrease >= targetNanos) {
+                limit = Math.max(minLimit, current * BACKOFF_RATIO);
+                lastDecrease = end;
+            }
+        } else if (inFlightAtStart * 2 >= current && start > lastDecrease) {
+            limit = Math.min(maxLimit, current + 1 / current);
+        }
+    }
+
+    public final class Permit {
+        private final long start = System.nanoTime();
+        private final int inFlightAtStart;
+        private boolean released;
+
+        private Permit(int inFlightAtStart) {
+            this.inFlightAtStart = inFlightAtStart;
+        }
+
+        /**
+         * Releases the slot after a call that was handled, successfully or not.
+         */
+        public void release() {
+            release(false);
+        }
+
+        /**
+         * Releases the slot after a call that timed out or was rejected because something was overloaded.
+         */
+        public void drop() {
+            release(true);
+        }
+
+        private void release(boolean overloaded) {
+            if (released) {
+                return;
+            }
+            released = true;
+            inFlight.decrementAndGet();
+            onSample(start, System.nanoTime(), inFlightAtStart, overloaded);
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package org.example.util;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+import org.example.model.InvalidParametersException;
+
+import java.util.*;
+import java.util.function.Function;
+
+/**
+ * Fields of an entity that can be requested with {@code fields=}. Projections keep the order in which
+ * the fields are declared here, whatever the order in the request.
+ */
+public class FieldSelection<T> {
+    private final Class<T> type;
+    private final Map<String, Function<T, Object>> getters = new LinkedHashMap<>();
+
+    public FieldSelection(Class<T> type) {
+        this.type = type;
+    }
+
+    public FieldSelection<T> field(String name, Function<T, Object> getter) {
+        getters.put(name, getter);
+        return this;
+    }
+
+    public List<String> parse(String fields) {
+        if (fields == null || fields.isBlank()) {
+            throw new InvalidParametersException("fields can't be empty");
+        }
+        Set<String> requested = new HashSet<>();
+        for (String field : fields.split(",")) {
+            String name = field.trim();
+            if (!getters.containsKey(name)) {
+                throw new InvalidParametersException("unknown field " + name + ", expected one of " + getters.keySet());
+            }
+            requested.add(name);
+        }
+        return getters.keySet().stream().filter(requested::contains).toList();
+    }
+
+    public Map<String, Object> project(T entity, List<String> fields) {
+        Map<String, Object> projection = new LinkedHashMap<>(fields.size() * 2);
+        for (String field : fields) {
+            projection.put(field, getters.get(field).apply(entity));
+        }
+        return projection;
+    }
+
+    /**
+     * Selects only the requested columns, optionally filtered by one attribute and ordered by id.
+     * The rows are plain values, nothing is loaded into the persistence context.
+     */
+    public List<Map<String, Object>> select(EntityManager entityManager, List<String> fields,
+                                            String attribute, Object value) {
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = builder.createTupleQuery();
+        Root<T> root = query.from(type);
+        List<Selection<?>> selections = new ArrayList<>(fields.size());
+        for (String field : fields) {
+            selections.add(root.get(field).alias(field));
+        }
+        query.multiselect(selections);
+        if (attribute != null) {
+            query.where(builder.equal(root.get(attribute), value));
+        }
+        query.orderBy(builder.asc(root.get("id")));
+        List<Map<String, Object>> rows = new ArrayList<>();
+        for (Tuple tuple : entityManager.createQuery(query).getResultList()) {
+            Map<String, Object> row = new LinkedHashMap<>(fields.size() * 2);
+            for (String field : fields) {
+                row.put(field, tuple.get(field));
+            }
+            rows.add(row);
+        }
+        return rows;
+    }
+}
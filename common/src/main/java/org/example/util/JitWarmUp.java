@@ -0,0 +1,130 @@
+package org.example.util;
+
+import org.example.model.WarmUpReport;
+
+import java.lang.management.CompilationMXBean;
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.StringJoiner;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Runs a cycle of operations in rounds of {@code roundSize} until the JIT has settled: a round in which
+ * compilation took at most {@code settleThreshold} of its wall time (compiler threads run next to the
+ * caller), or until {@code maxDuration} passes. Every operation of a cycle is timed, and the report
+ * compares the first round, run in cold code, with the last one. {@link #isRunning()} tells code on
+ * the calling thread that it is serving the warm-up, so that it can skip effects visible outside.
+ */
+public class JitWarmUp {
+    private static final ThreadLocal<Boolean> RUNNING = new ThreadLocal<>();
+
+    private final int roundSize;
+    private final Duration maxDuration;
+    private final double settleThreshold;
+
+    public JitWarmUp(int roundSize, Duration maxDuration, double settleThreshold) {
+        if (roundSize < 1) {
+            throw new IllegalArgumentException("round size must be positive");
+        }
+        this.roundSize = roundSize;
+        this.maxDuration = maxDuration;
+        this.settleThreshold = settleThreshold;
+    }
+
+    public static boolean isRunning() {
+        return RUNNING.get() != null;
+    }
+
+    public WarmUpReport run(Consumer<Recorder> cycle) {
+        CompilationMXBean jit = ManagementFactory.getCompilationMXBean();
+        boolean monitored = jit != null && jit.isCompilationTimeMonitoringSupported();
+        long started = System.nanoTime();
+        long compilationStarted = monitored ? jit.getTotalCompilationTime() : 0;
+        RUNNING.set(true);
+        try {
+            Recorder first = round(cycle);
+            Recorder last = first;
+            int rounds = 1;
+            boolean settled = false;
+            while (!settled && System.nanoTime() - started < maxDuration.toNanos()) {
+                long roundStarted = System.nanoTime();
+                long compilation = monitored ? jit.getTotalCompilationTime() : 0;
+                last = round(cycle);
+                rounds++;
+                long roundMillis = Math.max((System.nanoTime() - roundStarted) / 1_000_000, 1);
+                settled = monitored && jit.getTotalCompilationTime() - compilation <= settleThreshold * roundMillis;
+            }
+            Map<String, WarmUpReport.Operation> operations = new LinkedHashMap<>();
+            for (String operation : first.latencies.keySet()) {
+                operations.put(operation, new WarmUpReport.Operation(first.latency(operation), last.latency(operation)));
+            }
+            return new WarmUpReport((System.nanoTime() - started) / 1_000_000, rounds, (long) rounds * roundSize,
+                    monitored ? jit.getTotalCompilationTime() - compilationStarted : -1, settled, operations);
+        } finally {
+            RUNNING.remove();
+        }
+    }
+
+    /**
+     * @return p99 latencies of the first and the last round as {@code operation=before/after, ...}
+     */
+    public static String summary(WarmUpReport report) {
+        StringJoiner summary = new StringJoiner(", ");
+        report.operations().forEach((name, operation) ->
+                summary.add(name + "=" + operation.before().p99Micros() + "/" + operation.after().p99Micros()));
+        return summary.toString();
+    }
+
+    private Recorder round(Consumer<Recorder> cycle) {
+        Recorder recorder = new Recorder();
+        for (int i = 0; i < roundSize; i++) {
+            cycle.accept(recorder);
+        }
+        return recorder;
+    }
+
+    public static class Recorder {
+        private final Map<String, long[]> latencies = new LinkedHashMap<>();
+        private final Map<String, Integer> counts = new LinkedHashMap<>();
+
+        public <T> T time(String operation, Supplier<T> action) {
+            long started = System.nanoTime();
+            T result = action.get();
+            record(operation, System.nanoTime() - started);
+            return result;
+        }
+
+        public void time(String operation, Runnable action) {
+            time(operation, () -> {
+                action.run();
+                return null;
+            });
+        }
+
+        private void record(String operation, long nanos) {
+            int count = counts.getOrDefault(operation, 0);
+            long[] samples = latencies.computeIfAbsent(operation, key -> new long[64]);
+            if (count == samples.length) {
+                samples = Arrays.copyOf(samples, count * 2);
+                latencies.put(operation, samples);
+            }
+            samples[count] = nanos;
+            counts.put(operation, count + 1);
+        }
+
+        private WarmUpReport.Latency latency(String operation) {
+            int count = counts.getOrDefault(operation, 0);
+            if (count == 0) {
+                return new WarmUpReport.Latency(0, 0, 0);
+            }
+            long[] samples = Arrays.copyOf(latencies.get(operation), count);
+            Arrays.sort(samples);
+            return new WarmUpReport.Latency(samples[(count - 1) / 2] / 1000,
+                    samples[(int) Math.ceil(count * 0.99) - 1] / 1000, samples[count - 1] / 1000);
+        }
+    }
+}
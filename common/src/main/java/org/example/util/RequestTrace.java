@@ -0,0 +1,205 @@
+package org.example.util;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.StringJoiner;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Timings of the request handled by the current thread. Every request keeps the total time per
+ * category of the outermost calls; sampled requests also keep every span.
+ */
+public class RequestTrace {
+    public static final String CONTROLLER = "controller";
+    public static final String SERVICE = "service";
+    public static final String REPOSITORY = "db";
+    public static final String USER_CLIENT = "user-client";
+    public static final String SERIALIZATION = "serialization";
+
+    private static final ThreadLocal<RequestTrace> CURRENT = new ThreadLocal<>();
+
+    private final String traceId;
+    private final String spanId;
+    private final String parentSpanId;
+    private final boolean sampled;
+    private final long startMillis = System.currentTimeMillis();
+    private final long startNanos = System.nanoTime();
+    private final Map<String, Category> categories = new LinkedHashMap<>();
+    private final List<Span> spans;
+    private long durationNanos = -1;
+    private String request;
+    private int status;
+    private String openCategory;
+    private long openStart;
+
+    private RequestTrace(String traceId, String parentSpanId, boolean sampled) {
+        this.traceId = traceId;
+        this.spanId = randomHex(16);
+        this.parentSpanId = parentSpanId;
+        this.sampled = sampled;
+        this.spans = sampled ? new ArrayList<>() : null;
+    }
+
+    /**
+     * Starts a trace on this thread. Continues the trace from a W3C {@code traceparent} header if it
+     * is valid, otherwise starts a new one sampled with the given probability.
+     */
+    public static RequestTrace start(String traceparent, double sampleRate) {
+        String[] parts = traceparent == null ? new String[0] : traceparent.trim().split("-");
+        RequestTrace trace;
+        if (parts.length == 4 && parts[1].length() == 32 && parts[2].length() == 16 && parts[3].length() == 2
+                && isHex(parts[1]) && isHex(parts[2]) && isHex(parts[3])) {
+            trace = new RequestTrace(parts[1], parts[2], (Integer.parseInt(parts[3], 16) & 1) == 1);
+        } else {
+            trace = new RequestTrace(randomHex(32), null, ThreadLocalRandom.current().nextDouble() < sampleRate);
+        }
+        CURRENT.set(trace);
+        return trace;
+    }
+
+    public static RequestTrace current() {
+        return CURRENT.get();
+    }
+
+    public static void clear() {
+        CURRENT.remove();
+    }
+
+    public long enter(String category) {
+        categories.computeIfAbsent(category, key -> new Category()).depth++;
+        return System.nanoTime();
+    }
+
+    public void exit(String category, String name, long start) {
+        long end = System.nanoTime();
+        Category total = categories.get(category);
+        if (--total.depth == 0) {
+            total.nanos += end - start;
+        }
+        if (spans != null) {
+            spans.add(new Span(category, name, (start - startNanos) / 1000, (end - start) / 1000));
+        }
+    }
+
+    /**
+     * Starts a span that is not bound to a method call, for example writing the response body.
+     */
+    public void open(String category) {
+        if (openCategory == null) {
+            openCategory = category;
+            openStart = enter(category);
+        }
+    }
+
+    public void close(String name) {
+        if (openCategory != null) {
+            exit(openCategory, name, openStart);
+            openCategory = null;
+        }
+    }
+
+    public void finish(String request, int status) {
+        this.durationNanos = System.nanoTime() - startNanos;
+        this.request = request;
+        this.status = status;
+    }
+
+    public String getTraceId() {
+        return traceId;
+    }
+
+    public String getSpanId() {
+        return spanId;
+    }
+
+    public String getParentSpanId() {
+        return parentSpanId;
+    }
+
+    public boolean isSampled() {
+        return sampled;
+    }
+
+    public long getStartMillis() {
+        return startMillis;
+    }
+
+    public String getRequest() {
+        return request;
+    }
+
+    public int getStatus() {
+        return status;
+    }
+
+    public long getDurationMicros() {
+        return (durationNanos < 0 ? System.nanoTime() - startNanos : durationNanos) / 1000;
+    }
+
+    /**
+     * Milliseconds spent in every category whose outermost calls have all returned.
+     */
+    public Map<String, Double> getTimings() {
+        Map<String, Double> timings = new LinkedHashMap<>();
+        categories.forEach((category, total) -> {
+            if (total.depth == 0) {
+                timings.put(category, millis(total.nanos));
+            }
+        });
+        return timings;
+    }
+
+    public List<Span> getSpans() {
+        return spans == null ? List.of() : spans;
+    }
+
+    /**
+     * {@code traceparent} for outgoing calls made within this request.
+     */
+    public String traceparent() {
+        return "00-" + traceId + "-" + spanId + "-" + (sampled ? "01" : "00");
+    }
+
+    /**
+     * {@code Server-Timing} value with the time spent so far in finished categories and in the whole request.
+     */
+    public String serverTiming() {
+        StringJoiner timing = new StringJoiner(", ");
+        getTimings().forEach((category, millis) -> timing.add(category + ";dur=" + millis));
+        timing.add("total;dur=" + millis(getDurationMicros() * 1000));
+        return timing.toString();
+    }
+
+    private static double millis(long nanos) {
+        return Math.round(nanos / 10_000.0) / 100.0;
+    }
+
+    private static boolean isHex(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            if (Character.digit(value.charAt(i), 16) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static String randomHex(int length) {
+        StringBuilder hex = new StringBuilder(length);
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        while (hex.length() < length) {
+            String part = Long.toHexString(random.nextLong());
+            hex.append("0".repeat(16 - part.length())).append(part);
+        }
+        return hex.substring(0, length);
+    }
+
+    public record Span(String category, String name, long startMicros, long durationMicros) {
+    }
+
+    private static class Category {
+        private int depth;
+        private long nanos;
+    }
+}
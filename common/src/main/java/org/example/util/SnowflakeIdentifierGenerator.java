@@ -0,0 +1,12 @@
+package org.example.util;
+
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.id.IdentifierGenerator;
+
+public class SnowflakeIdentifierGenerator implements IdentifierGenerator {
+
+    @Override
+    public Object generate(SharedSessionContractImplementor session, Object object) {
+        return SnowflakeIdGenerator.shared().nextId();
+    }
+}
@@ -0,0 +1,116 @@
+package org.example.util;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Token bucket per client. A bucket is a single theoretical arrival time (GCRA) updated with CAS:
+ * a request takes one token if the time does not run further ahead of now than {@code burst} tokens.
+ * Buckets live in striped maps with at most {@code maxClients} keys. A new client in a full stripe
+ * looks at a bounded sample of its buckets: full (idle) ones are evicted, since a new bucket would
+ * behave exactly the same, and if there are none, the sampled bucket with the least debt is. The
+ * cost per new client stays constant and new clients are never rejected only for lack of room.
+ */
+public class TokenBucketRateLimiter {
+    private static final int EVICTION_SAMPLE = 16;
+
+    private final int burst;
+    private final long intervalNanos;
+    private final long capacityNanos;
+    private final int stripeCapacity;
+    private final ConcurrentHashMap<String, Bucket>[] stripes;
+
+    @SuppressWarnings("unchecked")
+    public TokenBucketRateLimiter(double ratePerSecond, int burst, int maxClients, int stripes) {
+        if (ratePerSecond <= 0 || burst < 1) {
+            throw new IllegalArgumentException("rate and burst must be positive");
+        }
+        if (Integer.bitCount(stripes) != 1 || maxClients < stripes) {
+            throw new IllegalArgumentException("stripes must be a power of two not greater than max-clients");
+        }
+        this.burst = burst;
+        this.intervalNanos = (long) (1_000_000_000L / ratePerSecond);
+        this.capacityNanos = intervalNanos * burst;
+        this.stripeCapacity = maxClients / stripes;
+        this.stripes = new ConcurrentHashMap[stripes];
+        for (int i = 0; i < stripes; i++) {
+            this.stripes[i] = new ConcurrentHashMap<>();
+        }
+    }
+
+    public Decision tryAcquire(String client) {
+        return tryAcquire(client, System.nanoTime());
+    }
+
+    public Decision tryAcquire(String client, long now) {
+        Bucket bucket = bucket(client, now);
+        while (true) {
+            long tat = bucket.get();
+            long next = Math.max(tat, now) + intervalNanos;
+            long ahead = next - now;
+            if (ahead > capacityNanos) {
+                return new Decision(false, burst, 0, tat - now, ahead - capacityNanos);
+            }
+            if (bucket.compareAndSet(tat, next)) {
+                return new Decision(true, burst, (int) ((capacityNanos - ahead) / intervalNanos), ahead, 0);
+            }
+        }
+    }
+
+    public int size() {
+        int size = 0;
+        for (ConcurrentHashMap<String, Bucket> stripe : stripes) {
+            size += stripe.size();
+        }
+        return size;
+    }
+
+    private Bucket bucket(String client, long now) {
+        int hash = client.hashCode();
+        ConcurrentHashMap<String, Bucket> stripe = stripes[(hash ^ hash >>> 16) & (stripes.length - 1)];
+        Bucket bucket = stripe.get(client);
+        if (bucket != null) {
+            return bucket;
+        }
+        if (stripe.size() >= stripeCapacity) {
+            evict(stripe, now);
+        }
+        bucket = new Bucket(now);
+        Bucket existing = stripe.putIfAbsent(client, bucket);
+        return existing != null ? existing : bucket;
+    }
+
+    private static void evict(ConcurrentHashMap<String, Bucket> stripe, long now) {
+        Iterator<Map.Entry<String, Bucket>> entries = stripe.entrySet().iterator();
+        Map.Entry<String, Bucket> leastDebt = null;
+        boolean evicted = false;
+        for (int sampled = 0; sampled < EVICTION_SAMPLE && entries.hasNext(); sampled++) {
+            Map.Entry<String, Bucket> entry = entries.next();
+            long tat = entry.getValue().get();
+            if (tat <= now) {
+                entries.remove();
+                evicted = true;
+            } else if (leastDebt == null || tat < leastDebt.getValue().get()) {
+                leastDebt = entry;
+            }
+        }
+        if (!evicted && leastDebt != null) {
+            stripe.remove(leastDebt.getKey(), leastDebt.getValue());
+        }
+    }
+
+    /**
+     * @param resetNanos      time until the bucket is full again
+     * @param retryAfterNanos time until the next token for a rejected request
+     */
+    public record Decision(boolean allowed, int limit, int remaining, long resetNanos, long retryAfterNanos) {
+    }
+
+    private static class Bucket extends AtomicLong {
+        Bucket(long tat) {
+            super(tat);
+        }
+    }
+}
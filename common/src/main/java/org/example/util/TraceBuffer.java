@@ -0,0 +1,44 @@
+package org.example.util;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Last finished traces. Adding never blocks, the oldest trace is overwritten.
+ */
+public class TraceBuffer {
+    private final AtomicReferenceArray<RequestTrace> slots;
+    private final AtomicLong next = new AtomicLong();
+
+    public TraceBuffer(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity must be positive");
+        }
+        slots = new AtomicReferenceArray<>(capacity);
+    }
+
+    public void add(RequestTrace trace) {
+        slots.set((int) (next.getAndIncrement() % slots.length()), trace);
+    }
+
+    /**
+     * Traces from the newest to the oldest.
+     */
+    public List<RequestTrace> recent() {
+        long last = next.get();
+        // a slot may be overwritten while it is read, so the same trace can be seen twice;
+        // RequestTrace keeps identity equality
+        Set<RequestTrace> traces = new LinkedHashSet<>();
+        for (long i = last - 1; i >= 0 && i >= last - slots.length(); i--) {
+            RequestTrace trace = slots.get((int) (i % slots.length()));
+            if (trace != null) {
+                traces.add(trace);
+            }
+        }
+        return new ArrayList<>(traces);
+    }
+}
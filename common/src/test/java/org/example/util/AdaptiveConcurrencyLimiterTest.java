@@ -0,0 +1,81 @@
+package org.example.util;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.util.AdaptiveConcurrencyLimiter.Permit;
+import org.example.util.AdaptiveConcurrencyLimiter.Priority;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AdaptiveConcurrencyLimiterTest {
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void tryAcquire_RejectsReadsBeforeWrites() {
+        AdaptiveConcurrencyLimiter limiter = limiter(10, 1, Duration.ofMinutes(1), 0.5);
+        for (int i = 0; i < 5; i++) {
+            assertNotNull(limiter.tryAcquire(Priority.READ));
+        }
+        assertNull(limiter.tryAcquire(Priority.READ));
+        for (int i = 0; i < 5; i++) {
+            assertNotNull(limiter.tryAcquire(Priority.WRITE));
+        }
+        assertNull(limiter.tryAcquire(Priority.WRITE));
+
+        assertEquals(10, limiter.getInFlight());
+        assertEquals(1, limiter.getRejected(Priority.READ));
+        assertEquals(1, limiter.getRejected(Priority.WRITE));
+        assertEquals(10, meterRegistry.get("concurrency.in-flight").gauge().value());
+        assertEquals(1, meterRegistry.get("concurrency.rejected").tag("priority", "read").counter().count());
+    }
+
+    @Test
+    void release_FreesSlotOnce() {
+        AdaptiveConcurrencyLimiter limiter = limiter(1, 1, Duration.ofMinutes(1), 1);
+        Permit permit = limiter.tryAcquire(Priority.WRITE);
+        assertNull(limiter.tryAcquire(Priority.WRITE));
+        permit.release();
+        permit.release();
+        assertEquals(0, limiter.getInFlight());
+        assertNotNull(limiter.tryAcquire(Priority.WRITE));
+        assertEquals(1, limiter.getInFlight());
+    }
+
+    @Test
+    void drop_ShrinksLimitDownToMinimum() {
+        AdaptiveConcurrencyLimiter limiter = limiter(20, 10, Duration.ofNanos(1), 1);
+        limiter.tryAcquire(Priority.WRITE).drop();
+        assertEquals(18, limiter.getLimit());
+        for (int i = 0; i < 20; i++) {
+            limiter.tryAcquire(Priority.WRITE).drop();
+        }
+        assertEquals(10, limiter.getLimit());
+        assertEquals(10, meterRegistry.get("concurrency.limit").gauge().value());
+    }
+
+    @Test
+    void release_GrowsLimitOnlyWhileBusy() {
+        AdaptiveConcurrencyLimiter limiter = limiter(4, 1, Duration.ofMinutes(1), 1);
+        for (int i = 0; i < 100; i++) {
+            limiter.tryAcquire(Priority.WRITE).release();
+        }
+        assertEquals(4, limiter.getLimit());
+
+        for (int round = 0; round < 10; round++) {
+            List<Permit> permits = new ArrayList<>();
+            for (int i = 0; i < limiter.getLimit(); i++) {
+                permits.add(limiter.tryAcquire(Priority.WRITE));
+            }
+            permits.forEach(Permit::release);
+        }
+        assertTrue(limiter.getLimit() > 6, "limit " + limiter.getLimit());
+    }
+
+    private AdaptiveConcurrencyLimiter limiter(int limit, int minLimit, Duration targetLatency, double readShare) {
+        return new AdaptiveConcurrencyLimiter("test", limit, minLimit, 100, targetLatency, readShare, meterRegistry);
+    }
+}
@@ -0,0 +1,146 @@
+package org.example.util;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SnowflakeIdGeneratorTest {
+
+    private static final long NOW = SnowflakeIdGenerator.EPOCH + 1_000_000L;
+
+    @Test
+    void nextId_EncodesTimestampAndNode() {
+        SnowflakeIdGenerator generator = new SnowflakeIdGenerator(21, () -> NOW);
+
+        long id = generator.nextId();
+
+        assertTrue(id > 0);
+        assertEquals(NOW, SnowflakeIdGenerator.timestampOf(id));
+        assertEquals(21, SnowflakeIdGenerator.nodeIdOf(id));
+    }
+
+    @Test
+    void nextId_JavaScriptSafeInteger() {
+        SnowflakeIdGenerator generator = new SnowflakeIdGenerator(SnowflakeIdGenerator.MAX_NODE_ID,
+                () -> SnowflakeIdGenerator.EPOCH + (1L << 41) - 1);
+
+        assertTrue(generator.nextId() <= (1L << 53) - 1);
+    }
+
+    @Test
+    void nextId_IncreasingWithinAndAcrossMilliseconds() {
+        AtomicLong clock = new AtomicLong(NOW);
+        SnowflakeIdGenerator generator = new SnowflakeIdGenerator(1, clock::get);
+
+        long first = generator.nextId();
+        long second = generator.nextId();
+        clock.addAndGet(5);
+        long third = generator.nextId();
+
+        assertTrue(first < second);
+        assertTrue(second < third);
+        assertEquals(NOW + 5, SnowflakeIdGenerator.timestampOf(third));
+    }
+
+    @Test
+    void nextId_SequenceOverflowBorrowsNextMillisecond() {
+        SnowflakeIdGenerator generator = new SnowflakeIdGenerator(1, () -> NOW);
+
+        long last = 0;
+        for (int i = 0; i <= 1 << SnowflakeIdGenerator.SEQUENCE_BITS; i++) {
+            long id = generator.nextId();
+            assertTrue(id > last);
+            last = id;
+        }
+
+        assertEquals(NOW + 1, SnowflakeIdGenerator.timestampOf(last));
+        assertEquals(1, SnowflakeIdGenerator.nodeIdOf(last));
+    }
+
+    @Test
+    void nextId_ClockRegressionKeepsIdsIncreasing() {
+        AtomicLong clock = new AtomicLong(NOW);
+        SnowflakeIdGenerator generator = new SnowflakeIdGenerator(1, clock::get);
+
+        long before = generator.nextId();
+        clock.addAndGet(-10_000);
+        long after = generator.nextId();
+
+        assertTrue(after > before);
+        assertEquals(NOW, SnowflakeIdGenerator.timestampOf(after));
+    }
+
+    @Test
+    void nextId_UniqueAcrossThreads() {
+        SnowflakeIdGenerator generator = new SnowflakeIdGenerator(7);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<CompletableFuture<long[]>> results = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                results.add(CompletableFuture.supplyAsync(() -> {
+                    long[] ids = new long[50_000];
+                    for (int i = 0; i < ids.length; i++) {
+                        ids[i] = generator.nextId();
+                    }
+                    return ids;
+                }, executor));
+            }
+            Set<Long> unique = new HashSet<>();
+            for (CompletableFuture<long[]> result : results) {
+                long[] ids = result.join();
+                for (int i = 0; i < ids.length; i++) {
+                    if (i > 0) {
+                        assertTrue(ids[i] > ids[i - 1]);
+                    }
+                    assertTrue(unique.add(ids[i]));
+                }
+            }
+            assertEquals(400_000, unique.size());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void shared_NotConfigured() {
+        Object configured = ReflectionTestUtils.getField(SnowflakeIdGenerator.class, "shared");
+        ReflectionTestUtils.setField(SnowflakeIdGenerator.class, "shared", null);
+        try {
+            assertThrows(IllegalStateException.class, SnowflakeIdGenerator::shared);
+        } finally {
+            ReflectionTestUtils.setField(SnowflakeIdGenerator.class, "shared", configured);
+        }
+    }
+
+    @Test
+    void configure_KeepsLastIssuedId() {
+        Object configured = ReflectionTestUtils.getField(SnowflakeIdGenerator.class, "shared");
+        ReflectionTestUtils.setField(SnowflakeIdGenerator.class, "shared", null);
+        try {
+            long first = SnowflakeIdGenerator.configure(1).nextId();
+            SnowflakeIdGenerator.configure(2).nextId();
+            long second = SnowflakeIdGenerator.configure(1).nextId();
+
+            assertTrue(second > first);
+            assertEquals(1, SnowflakeIdGenerator.shared().getNodeId());
+        } finally {
+            ReflectionTestUtils.setField(SnowflakeIdGenerator.class, "shared", configured);
+        }
+    }
+
+    @Test
+    void constructor_InvalidNodeId() {
+        assertThrows(IllegalArgumentException.class, () -> new SnowflakeIdGenerator(-1));
+        assertThrows(IllegalArgumentException.class, () -> new SnowflakeIdGenerator(SnowflakeIdGenerator.MAX_NODE_ID + 1));
+    }
+}
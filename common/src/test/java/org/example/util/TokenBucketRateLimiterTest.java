@@ -0,0 +1,48 @@
+package org.example.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TokenBucketRateLimiterTest {
+    private static final long SECOND = 1_000_000_000L;
+
+    @Test
+    void tryAcquire_AllowsBurstThenRefills() {
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(2, 3, 16, 4);
+        for (int remaining = 2; remaining >= 0; remaining--) {
+            TokenBucketRateLimiter.Decision decision = limiter.tryAcquire("client", 0);
+            assertTrue(decision.allowed());
+            assertEquals(remaining, decision.remaining());
+        }
+        TokenBucketRateLimiter.Decision rejected = limiter.tryAcquire("client", 0);
+        assertFalse(rejected.allowed());
+        assertEquals(SECOND / 2, rejected.retryAfterNanos());
+        assertEquals(3 * SECOND / 2, rejected.resetNanos());
+
+        assertTrue(limiter.tryAcquire("other", 0).allowed());
+        assertTrue(limiter.tryAcquire("client", SECOND / 2).allowed());
+        assertFalse(limiter.tryAcquire("client", SECOND / 2).allowed());
+        assertEquals(2, limiter.tryAcquire("client", 10 * SECOND).remaining());
+    }
+
+    @Test
+    void tryAcquire_EvictsFromBoundedSample() {
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(1, 2, 64, 1);
+        limiter.tryAcquire("busy", 0);
+        limiter.tryAcquire("busy", 0);
+        for (int i = 1; i < 64; i++) {
+            limiter.tryAcquire("idle-" + i, 0);
+        }
+
+        // no idle bucket yet: the sampled bucket with the least debt makes room, the busy one stays
+        assertTrue(limiter.tryAcquire("new-0", SECOND / 2).allowed());
+        assertEquals(64, limiter.size());
+        assertFalse(limiter.tryAcquire("busy", SECOND / 2).allowed());
+
+        for (int i = 1; i <= 100; i++) {
+            assertTrue(limiter.tryAcquire("new-" + i, 3 * SECOND / 2).allowed());
+        }
+        assertTrue(limiter.size() <= 64);
+    }
+}
@@ -0,0 +1,35 @@
+package org.example.config;
+
+import io.grpc.ManagedChannel;
+import io.grpc.netty.shaded.io.grpc.netty.NettyChannelBuilder;
+import org.example.model.GrpcUserClient;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+@Configuration
+@ConditionalOnProperty(name = "user.client.mode", havingValue = "grpc")
+public class GrpcClientConfig {
+
+    @Bean(destroyMethod = "shutdownNow")
+    public ManagedChannel userServiceChannel(@Value("${user.service.grpc.host}") String host,
+                                             @Value("${user.service.grpc.port}") int port) {
+        return NettyChannelBuilder.forAddress(host, port)
+                .usePlaintext()
+                .keepAliveTime(30, TimeUnit.SECONDS)
+                .build();
+    }
+
+    @Bean(destroyMethod = "close")
+    @Primary
+    public GrpcUserClient grpcUserClient(ManagedChannel userServiceChannel,
+                                         @Value("${user.client.grpc.streaming}") boolean streaming,
+                                         @Value("${user.client.grpc.timeout}") Duration timeout) {
+        return new GrpcUserClient(userServiceChannel, streaming, timeout);
+    }
+}
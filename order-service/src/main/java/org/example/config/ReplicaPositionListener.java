@@ -0,0 +1,22 @@
+package org.example.config;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.TransactionExecution;
+import org.springframework.transaction.TransactionExecutionListener;
+
+@Component
+@ConditionalOnExpression("${datasource.replicas.enabled:false} and !${orders.sharding.enabled:false}")
+public class ReplicaPositionListener implements TransactionExecutionListener {
+
+    @Autowired
+    private ReplicaRoutingDataSource dataSource;
+
+    @Override
+    public void afterCommit(TransactionExecution transaction, Throwable commitFailure) {
+        if (commitFailure == null && !transaction.isReadOnly()) {
+            dataSource.markWritten();
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package org.example.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+@Configuration
+@ConditionalOnProperty(name = "orders.sharding.enabled", havingValue = "true")
+public class ShardingConfig {
+
+    @Bean
+    @Primary
+    public ShardRoutingDataSource dataSource(@Value("${orders.sharding.shards}") List<String> urls) {
+        List<DataSource> shards = new ArrayList<>();
+        for (int i = 0; i < urls.size(); i++) {
+            HikariDataSource shard = DataSourceBuilder.create()
+                    .type(HikariDataSource.class)
+                    .url(urls.get(i).trim())
+                    .build();
+            shard.setPoolName("orders-shard-" + i);
+            shards.add(shard);
+        }
+        return new ShardRoutingDataSource(shards);
+    }
+}
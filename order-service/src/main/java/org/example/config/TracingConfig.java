@@ -0,0 +1,27 @@
+package org.example.config;
+
+import feign.RequestInterceptor;
+import org.example.util.RequestTrace;
+import org.example.util.TraceBuffer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class TracingConfig {
+
+    @Bean
+    public TraceBuffer traceBuffer(@Value("${tracing.buffer-size}") int bufferSize) {
+        return new TraceBuffer(bufferSize);
+    }
+
+    @Bean
+    public RequestInterceptor traceparentInterceptor() {
+        return template -> {
+            RequestTrace trace = RequestTrace.current();
+            if (trace != null) {
+                template.header(TracingFilter.TRACEPARENT, trace.traceparent());
+            }
+        };
+    }
+}
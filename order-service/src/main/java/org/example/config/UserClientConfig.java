@@ -0,0 +1,20 @@
+package org.example.config;
+
+import feign.RequestInterceptor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class UserClientConfig {
+
+    @Bean
+    public RequestInterceptor apiKeyInterceptor(@Value("${rate-limit.client-header}") String clientHeader,
+                                                @Value("${user.service.api-key}") String apiKey) {
+        return template -> {
+            if (!apiKey.isBlank()) {
+                template.header(clientHeader, apiKey);
+            }
+        };
+    }
+}
@@ -0,0 +1,151 @@
+package org.example.config;
+
+import feign.Client;
+import feign.Request;
+import feign.Response;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.example.util.LoadBalancer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Feign client of the user-service clients that sends every call to one of several user-service
+ * instances chosen by {@link LoadBalancer}, instead of {@code user.service.url}: the path and query
+ * of the request are kept, the scheme, host and port are the instance's. Instances come from
+ * {@code user.service.instances} or, when set, from {@code user.service.discovery-file} (one base URL
+ * per line, {@code #} starts a comment), which is read again every discovery interval. A call that
+ * could not connect is retried once on another instance; responses with a 5xx status and I/O errors
+ * count as failures of the instance.
+ */
+@Slf4j
+@Component
+@ConditionalOnExpression("!'${user.service.instances:}'.isEmpty() or !'${user.service.discovery-file:}'.isEmpty()")
+public class UserServiceLoadBalancer implements Client {
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${user.service.instances:}")
+    private List<String> instances;
+
+    @Value("${user.service.discovery-file:}")
+    private String discoveryFile;
+
+    @Value("${user.client.balancer.decay}")
+    private Duration decay;
+
+    @Value("${user.client.balancer.ejection-failures}")
+    private int ejectionFailures;
+
+    @Value("${user.client.balancer.ejection-time}")
+    private Duration ejectionTime;
+
+    @Value("${user.client.balancer.max-ejected-share}")
+    private double maxEjectedShare;
+
+    private final Client delegate = new Client.Default(null, null);
+    private LoadBalancer balancer;
+    private List<String> discovered = List.of();
+
+    @PostConstruct
+    void init() {
+        balancer = new LoadBalancer("user-service", decay, ejectionFailures, ejectionTime, maxEjectedShare, meterRegistry);
+        if (discoveryFile.isEmpty()) {
+            balancer.setInstances(normalize(instances));
+        } else if (!readDiscoveryFile()) {
+            throw new IllegalStateException("no user-service instances in " + discoveryFile);
+        }
+    }
+
+    public LoadBalancer getBalancer() {
+        return balancer;
+    }
+
+    @Override
+    public Response execute(Request request, Request.Options options) throws IOException {
+        LoadBalancer.Instance instance = balancer.choose(null);
+        try {
+            return execute(instance, request, options);
+        } catch (ConnectException e) {
+            LoadBalancer.Instance other = balancer.choose(instance);
+            if (other == instance) {
+                throw e;
+            }
+            return execute(other, request, options);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${user.client.balancer.discovery-interval}")
+    public void refreshDiscovery() {
+        if (!discoveryFile.isEmpty()) {
+            readDiscoveryFile();
+        }
+    }
+
+    /**
+     * @return whether the file listed at least one instance (otherwise the previous list is kept)
+     */
+    private boolean readDiscoveryFile() {
+        List<String> urls;
+        try {
+            urls = new ArrayList<>();
+            for (String line : Files.readAllLines(Path.of(discoveryFile))) {
+                int comment = line.indexOf('#');
+                urls.add(comment < 0 ? line : line.substring(0, comment));
+            }
+            urls = normalize(urls);
+        } catch (IOException e) {
+            log.warn("user-service discovery file {} could not be read: {}", discoveryFile, e.getMessage());
+            return false;
+        }
+        if (urls.isEmpty()) {
+            log.warn("user-service discovery file {} lists no instances, keeping {}", discoveryFile, discovered);
+            return false;
+        }
+        if (!urls.equals(discovered)) {
+            log.info("user-service instances: {}", urls);
+            balancer.setInstances(urls);
+            discovered = urls;
+        }
+        return true;
+    }
+
+    private Response execute(LoadBalancer.Instance instance, Request request, Request.Options options) throws IOException {
+        URI uri = URI.create(request.url());
+        String url = instance.getUrl() + uri.getRawPath() + (uri.getRawQuery() == null ? "" : "?" + uri.getRawQuery());
+        Request routed = Request.create(request.httpMethod(), url, request.headers(), request.body(),
+                request.charset(), request.requestTemplate());
+        long started = instance.start();
+        boolean success = false;
+        try {
+            Response response = delegate.execute(routed, options);
+            success = response.status() < 500;
+            return response;
+        } finally {
+            instance.complete(started, success);
+        }
+    }
+
+    private static List<String> normalize(List<String> urls) {
+        return urls.stream()
+                .map(String::trim)
+                .filter(url -> !url.isEmpty())
+                .map(url -> url.endsWith("/") ? url.substring(0, url.length() - 1) : url)
+                .distinct()
+                .toList();
+    }
+}
@@ -0,0 +1,50 @@
+package org.example.config;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.example.model.UserClient;
+import org.example.util.JitWarmUp;
+import org.springframework.aop.framework.Advised;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.util.ClassUtils;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Puts a stub in front of every {@link UserClient}: while {@link JitWarmUp#isRunning()} on the calling
+ * thread, calls of the client interface answer that the users exist without reaching user-service, so
+ * the warm-up runs the whole order path for synthetic users. Calls from other threads are not affected.
+ */
+@Component
+@ConditionalOnProperty(name = "orders.warm-up.enabled", havingValue = "true")
+public class WarmUpUserClientPostProcessor implements BeanPostProcessor {
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (!(bean instanceof UserClient)) {
+            return bean;
+        }
+        MethodInterceptor interceptor = invocation -> {
+            Method method = invocation.getMethod();
+            if (JitWarmUp.isRunning() && ClassUtils.hasMethod(UserClient.class, method.getName(), method.getParameterTypes())) {
+                return method.getName().equals("getExistingUserIds")
+                        ? List.copyOf((Collection<?>) invocation.getArguments()[0])
+                        : null;
+            }
+            return invocation.proceed();
+        };
+        if (bean instanceof Advised advised && !advised.isFrozen()) {
+            advised.addAdvice(0, interceptor);
+            return bean;
+        }
+        ProxyFactory proxyFactory = new ProxyFactory(bean);
+        proxyFactory.setProxyTargetClass(!Proxy.isProxyClass(bean.getClass()));
+        proxyFactory.addAdvice(interceptor);
+        return proxyFactory.getProxy(bean.getClass().getClassLoader());
+    }
+}
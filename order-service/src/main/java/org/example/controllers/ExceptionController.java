@@ -3,14 +3,21 @@ package org.example.controllers;
 import jakarta.servlet.http.HttpServletResponse;
 import org.example.model.InvalidParametersException;
 import org.example.model.NotFoundException;
+import org.example.model.ServiceUnavailableException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 
 import java.io.BufferedWriter;
 import java.io.IOException;
 import java.io.OutputStreamWriter;
+import java.time.Duration;
 
 public class ExceptionController {
 
+    @Value("${concurrency.retry-after}")
+    private Duration retryAfter;
+
     @ExceptionHandler(InvalidParametersException.class)
     void handleInvalidParameters(HttpServletResponse response, Exception exception) throws IOException {
         setResponse(response, HttpServletResponse.SC_BAD_REQUEST, exception);
@@ -21,6 +28,12 @@ public class ExceptionController {
         setResponse(response, HttpServletResponse.SC_NOT_FOUND, exception);
     }
 
+    @ExceptionHandler(ServiceUnavailableException.class)
+    void handleServiceUnavailable(HttpServletResponse response, Exception exception) throws IOException {
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1, retryAfter.toSeconds())));
+        setResponse(response, HttpServletResponse.SC_SERVICE_UNAVAILABLE, exception);
+    }
+
     private void setResponse(HttpServletResponse response, int status, Exception exception) throws IOException {
         response.setStatus(status);
         try (BufferedWriter bw = new BufferedWriter(new OutputStreamWriter(response.getOutputStream()))) {
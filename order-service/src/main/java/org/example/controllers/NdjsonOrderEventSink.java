@@ -0,0 +1,54 @@
+package org.example.controllers;
+
+import org.example.model.OrderEvent;
+import org.example.services.OrderEventSink;
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+
+import java.io.IOException;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+public class NdjsonOrderEventSink implements OrderEventSink {
+
+    private final ResponseBodyEmitter emitter;
+
+    public NdjsonOrderEventSink(ResponseBodyEmitter emitter) {
+        this.emitter = emitter;
+    }
+
+    @Override
+    public void send(List<OrderEvent> events) throws IOException {
+        Set<ResponseBodyEmitter.DataWithMediaType> items = new LinkedHashSet<>();
+        for (OrderEvent event : events) {
+            items.add(new ResponseBodyEmitter.DataWithMediaType(event, MediaType.APPLICATION_JSON));
+            items.add(new ResponseBodyEmitter.DataWithMediaType("\n", MediaType.TEXT_PLAIN));
+        }
+        emitter.send(items);
+    }
+
+    @Override
+    public void dropped(long count, String lastDroppedId) throws IOException {
+        emitter.send(Map.of("type", "EVENTS_DROPPED", "id", lastDroppedId, "dropped", count),
+                MediaType.APPLICATION_JSON);
+        emitter.send("\n", MediaType.TEXT_PLAIN);
+    }
+
+    @Override
+    public void reset(String resetId) throws IOException {
+        emitter.send(Map.of("type", "EVENTS_RESET", "id", resetId), MediaType.APPLICATION_JSON);
+        emitter.send("\n", MediaType.TEXT_PLAIN);
+    }
+
+    @Override
+    public void heartbeat() throws IOException {
+        emitter.send("\n", MediaType.TEXT_PLAIN);
+    }
+
+    @Override
+    public void close() {
+        emitter.complete();
+    }
+}
@@ -1,12 +1,31 @@
 package org.example.controllers;
 
+import jakarta.servlet.http.HttpServletResponse;
 import org.example.model.Order;
+import org.example.model.OrderAnalyticsReport;
 import org.example.model.OrderDTO;
+import org.example.services.OrderEventBus;
+import org.example.services.OrderEventSink;
+import org.example.services.OrderExporter;
 import org.example.services.OrderService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
 
 @RestController
 @RequestMapping("/orders")
@@ -15,6 +34,15 @@ public class OrderController extends ExceptionController {
     @Autowired
     private OrderService service;
 
+    @Autowired
+    private OrderEventBus eventBus;
+
+    @Autowired
+    private OrderExporter exporter;
+
+    @Value("${orders.events.timeout}")
+    private Duration eventsTimeout;
+
     @GetMapping("/order/{orderId}")
     public Order getOrderByOrderId(@PathVariable Long orderId) {
         return service.getOrderByOrderId(orderId);
@@ -25,15 +53,133 @@ public class OrderController extends ExceptionController {
         return service.getAllOrdersByUserId(userId);
     }
 
+    @GetMapping(value = "/order/{orderId}", params = "fields")
+    public Map<String, Object> getOrderByOrderId(@PathVariable Long orderId, @RequestParam String fields) {
+        return service.getOrderByOrderId(orderId, fields);
+    }
+
+    @GetMapping(value = "/all/{userId}", params = "fields")
+    public List<Map<String, Object>> getAllOrdersByUserId(@PathVariable Long userId, @RequestParam String fields) {
+        return service.getAllOrdersByUserId(userId, fields);
+    }
+
     @DeleteMapping("/{orderId}")
     public void deleteOrderByOrderId(@PathVariable Long orderId) {
         service.deleteOrderByOrderId(orderId);
     }
 
+    @DeleteMapping(params = "ids")
+    public Map<String, Long> deleteOrdersByIds(@RequestParam List<Long> ids) {
+        return Map.of("deleted", service.deleteOrdersByIds(ids));
+    }
+
+    @DeleteMapping("/all/{userId}")
+    public Map<String, Long> deleteAllOrdersByUserId(@PathVariable Long userId) {
+        return Map.of("deleted", service.deleteAllOrdersByUserId(userId));
+    }
+
+    @DeleteMapping(params = "createdBefore")
+    public Map<String, Long> deleteOrdersCreatedBefore(@RequestParam Instant createdBefore) {
+        return Map.of("deleted", service.deleteOrdersCreatedBefore(Date.from(createdBefore)));
+    }
+
+    @GetMapping("/analytics")
+    public OrderAnalyticsReport getAnalytics(@RequestParam(defaultValue = "hour") String window,
+                                             @RequestParam(defaultValue = "24") Integer last,
+                                             @RequestParam(defaultValue = "10") Integer top) {
+        return service.getAnalytics(window, last, top);
+    }
+
+    @PostMapping("/analytics/recompute")
+    public Map<String, Long> recomputeAnalytics(@RequestParam Instant from, @RequestParam Instant to) {
+        return Map.of("orders", service.recomputeAnalytics(from, to));
+    }
+
+    @GetMapping("/export")
+    public void exportOrders(@RequestParam(required = false) Instant from,
+                             @RequestParam(required = false) Instant to,
+                             @RequestParam(defaultValue = "ndjson") String format,
+                             @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+                             HttpServletResponse response) throws IOException {
+        boolean gzip = acceptsGzip(acceptEncoding);
+        GZIPOutputStream[] compressed = new GZIPOutputStream[1];
+        exporter.export(from, to, format, exportFormat -> {
+            response.setContentType(exportFormat.getContentType());
+            response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+            if (!gzip) {
+                return response.getOutputStream();
+            }
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+            compressed[0] = new GZIPOutputStream(response.getOutputStream(), 64 * 1024);
+            return compressed[0];
+        });
+        if (compressed[0] != null) {
+            compressed[0].finish();
+        }
+    }
+
     @PostMapping("/{userId}")
     public Order createOrder(@PathVariable Long userId,
                              @RequestBody OrderDTO orderDTO) {
         return service.createOrder(userId, orderDTO);
     }
 
+    @GetMapping(value = "/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamEvents(@RequestHeader(value = "Last-Event-ID", required = false) String lastEventIdHeader,
+                                   @RequestParam(required = false) String lastEventId,
+                                   @RequestParam(required = false) String overflow) {
+        SseEmitter emitter = new SseEmitter(eventsTimeout.toMillis());
+        subscribe(emitter, new SseOrderEventSink(emitter), lastEventIdHeader != null ? lastEventIdHeader : lastEventId, overflow);
+        return emitter;
+    }
+
+    @GetMapping(value = "/events", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<ResponseBodyEmitter> streamEventsNdjson(@RequestHeader(value = "Last-Event-ID", required = false) String lastEventIdHeader,
+                                                                  @RequestParam(required = false) String lastEventId,
+                                                                  @RequestParam(required = false) String overflow) {
+        ResponseBodyEmitter emitter = new ResponseBodyEmitter(eventsTimeout.toMillis());
+        subscribe(emitter, new NdjsonOrderEventSink(emitter), lastEventIdHeader != null ? lastEventIdHeader : lastEventId, overflow);
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(emitter);
+    }
+
+    /**
+     * Parses the Accept-Encoding tokens: gzip is used when it is listed, or covered by {@code *}, with a
+     * non-zero q-value.
+     */
+    private static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        Double gzip = null;
+        Double any = null;
+        for (String token : acceptEncoding.split(",")) {
+            String[] parts = token.split(";");
+            String coding = parts[0].trim().toLowerCase(Locale.ROOT);
+            double q = 1;
+            for (int i = 1; i < parts.length; i++) {
+                String parameter = parts[i].trim();
+                if (parameter.regionMatches(true, 0, "q=", 0, 2)) {
+                    try {
+                        q = Double.parseDouble(parameter.substring(2).trim());
+                    } catch (NumberFormatException e) {
+                        q = 0;
+                    }
+                }
+            }
+            if (coding.equals("gzip") || coding.equals("x-gzip")) {
+                gzip = q;
+            } else if (coding.equals("*")) {
+                any = q;
+            }
+        }
+        return gzip != null ? gzip > 0 : any != null && any > 0;
+    }
+
+    private void subscribe(ResponseBodyEmitter emitter, OrderEventSink sink, String lastEventId, String overflow) {
+        emitter.onCompletion(() -> eventBus.unsubscribe(sink));
+        emitter.onTimeout(() -> eventBus.unsubscribe(sink));
+        emitter.onError(e -> eventBus.unsubscribe(sink));
+        eventBus.subscribe(lastEventId, overflow, sink);
+    }
+
 }
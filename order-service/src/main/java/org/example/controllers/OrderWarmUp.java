@@ -0,0 +1,119 @@
+package org.example.controllers;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.example.config.ShardRoutingDataSource;
+import org.example.model.Order;
+import org.example.model.OrderDTO;
+import org.example.model.ShardedOrderRepository;
+import org.example.model.WarmUpReport;
+import org.example.util.JitWarmUp;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Warms up the order endpoints before the service accepts traffic. Application runners finish before
+ * the readiness state becomes ACCEPTING_TRAFFIC, so {@code /actuator/health/readiness} stays DOWN
+ * while the cycles run. Every cycle calls {@link OrderController} the way a request would (JSON body in,
+ * JSON out) for a synthetic order in a transaction that is always rolled back; it also deletes the
+ * order it created, for storages outside the transaction. With sharding the transaction begins on the
+ * shard of the synthetic user, so the sharded repository writes inside it. User checks are answered by the stub of
+ * {@link org.example.config.WarmUpUserClientPostProcessor}, and events of the rolled-back orders are
+ * never published, since {@code OrderService} publishes them after commit.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "orders.warm-up.enabled", havingValue = "true")
+public class OrderWarmUp implements ApplicationRunner {
+
+    @Autowired
+    private OrderController controller;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired(required = false)
+    private ShardedOrderRepository shardedRepository;
+
+    @Value("${orders.warm-up.round-size}")
+    private int roundSize;
+
+    @Value("${orders.warm-up.max-duration}")
+    private Duration maxDuration;
+
+    @Value("${orders.warm-up.settle-threshold}")
+    private double settleThreshold;
+
+    private volatile WarmUpReport report;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        try {
+            report = new JitWarmUp(roundSize, maxDuration, settleThreshold).run(recorder -> {
+                long userId = ThreadLocalRandom.current().nextLong(1, 1000);
+                int shard = shardedRepository != null ? shardedRepository.shardFor(userId) : 0;
+                ShardRoutingDataSource.onShard(shard, () -> transaction.execute(status -> {
+                    status.setRollbackOnly();
+                    cycle(recorder, userId);
+                    return null;
+                }));
+            });
+            log.info("warm-up finished in {} ms, {} rounds, settled: {}, p99 before/after (us): {}", report.durationMillis(),
+                    report.rounds(), report.settled(), JitWarmUp.summary(report));
+        } catch (RuntimeException e) {
+            log.warn("warm-up failed, accepting traffic with cold code", e);
+        }
+    }
+
+    public WarmUpReport getReport() {
+        return report;
+    }
+
+    private void cycle(JitWarmUp.Recorder recorder, long userId) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        byte[] body = write(new OrderDTO("Warm-up " + random.nextInt(100), random.nextLong(1, 10)));
+
+        Order order = recorder.time("create", () -> {
+            Order created = controller.createOrder(userId, read(body));
+            write(created);
+            return created;
+        });
+        recorder.time("get", () -> write(controller.getOrderByOrderId(order.getId())));
+        recorder.time("get-fields", () -> write(controller.getOrderByOrderId(order.getId(), "id,name,count")));
+        recorder.time("list", () -> write(controller.getAllOrdersByUserId(userId)));
+        recorder.time("list-fields", () -> write(controller.getAllOrdersByUserId(userId, "id,creationDate")));
+        recorder.time("delete", () -> controller.deleteOrderByOrderId(order.getId()));
+    }
+
+    private OrderDTO read(byte[] body) {
+        try {
+            return objectMapper.readValue(body, OrderDTO.class);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private byte[] write(Object value) {
+        try {
+            return objectMapper.writeValueAsBytes(value);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package org.example.controllers;
+
+import org.example.model.InvalidParametersException;
+import org.example.model.ShardedOrderRepository;
+import org.example.services.OrderShardRebalancer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+@Component
+@Endpoint(id = "sharding")
+@ConditionalOnProperty(name = "orders.sharding.enabled", havingValue = "true")
+public class ShardingEndpoint {
+
+    @Autowired
+    private ShardedOrderRepository repository;
+
+    @Autowired
+    private OrderShardRebalancer rebalancer;
+
+    @ReadOperation
+    public Map<String, Object> shards() {
+        return Map.of(
+                "activeShards", repository.getRing().getShards(),
+                "rebalancing", repository.isRebalancing(),
+                "orders", repository.countPerShard());
+    }
+
+    @WriteOperation
+    public Map<String, Object> rebalance(String shards) {
+        List<Integer> target;
+        try {
+            target = Arrays.stream(shards.split(",")).map(String::trim).map(Integer::valueOf).toList();
+        } catch (NumberFormatException e) {
+            throw new InvalidParametersException("shards must be a comma-separated list of shard numbers");
+        }
+        long moved = rebalancer.rebalance(target);
+        return Map.of("activeShards", repository.getRing().getShards(), "moved", moved);
+    }
+}
@@ -0,0 +1,61 @@
+package org.example.controllers;
+
+import org.example.model.OrderEvent;
+import org.example.services.OrderEventSink;
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+public class SseOrderEventSink implements OrderEventSink {
+
+    private final SseEmitter emitter;
+
+    public SseOrderEventSink(SseEmitter emitter) {
+        this.emitter = emitter;
+    }
+
+    @Override
+    public void send(List<OrderEvent> events) throws IOException {
+        Set<ResponseBodyEmitter.DataWithMediaType> items = new LinkedHashSet<>();
+        for (OrderEvent event : events) {
+            items.addAll(SseEmitter.event()
+                    .id(event.getId())
+                    .name(event.getType().name())
+                    .data(event, MediaType.APPLICATION_JSON)
+                    .build());
+        }
+        emitter.send(items);
+    }
+
+    @Override
+    public void dropped(long count, String lastDroppedId) throws IOException {
+        emitter.send(SseEmitter.event()
+                .id(lastDroppedId)
+                .name("EVENTS_DROPPED")
+                .data(Map.of("dropped", count), MediaType.APPLICATION_JSON));
+    }
+
+    @Override
+    public void reset(String resetId) throws IOException {
+        emitter.send(SseEmitter.event()
+                .id(resetId)
+                .name("EVENTS_RESET")
+                .data(Map.of(), MediaType.APPLICATION_JSON));
+    }
+
+    @Override
+    public void heartbeat() throws IOException {
+        emitter.send(SseEmitter.event().comment("keepalive"));
+    }
+
+    @Override
+    public void close() {
+        emitter.complete();
+    }
+}
@@ -0,0 +1,20 @@
+package org.example.controllers;
+
+import org.example.model.WarmUpReport;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+@Component
+@Endpoint(id = "warmup")
+public class WarmUpEndpoint {
+
+    @Autowired(required = false)
+    private OrderWarmUp warmUp;
+
+    @ReadOperation
+    public WarmUpReport report() {
+        return warmUp == null ? null : warmUp.getReport();
+    }
+}
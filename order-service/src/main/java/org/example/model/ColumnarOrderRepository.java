@@ -0,0 +1,669 @@
+package org.example.model;
+
+import jakarta.annotation.PostConstruct;
+import org.example.util.LongIntHashMap;
+import org.example.util.SnowflakeIdGenerator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Repository;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Consumer;
+import java.util.function.IntFunction;
+import java.util.function.Supplier;
+import java.util.stream.StreamSupport;
+
+/**
+ * Keeps orders in memory as primitive columns instead of entities. Orders are striped by userId,
+ * each stripe has its own write lock and is read optimistically without locking. Names are interned
+ * into a shared dictionary and stored as int codes.
+ */
+@Repository
+@Primary
+@ConditionalOnExpression("'${orders.storage.engine:jpa}' == 'columnar' and !${orders.sharding.enabled:false}")
+public class ColumnarOrderRepository implements OrderRepository {
+    private static final long NULL = Long.MIN_VALUE;
+    private static final OrderStatus[] STATUSES = OrderStatus.values();
+
+    @Value("${orders.storage.columnar.stripes:16}")
+    private int stripeCount;
+
+    @Value("${orders.export.fetch-size:1000}")
+    private int exportPageSize;
+
+    private final NameDictionary names = new NameDictionary();
+    private Stripe[] stripes;
+
+    @PostConstruct
+    void init() {
+        if (Integer.bitCount(stripeCount) != 1) {
+            throw new IllegalStateException("orders.storage.columnar.stripes must be a power of two");
+        }
+        stripes = new Stripe[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            stripes[i] = new Stripe();
+        }
+    }
+
+    @Override
+    public <S extends Order> S save(S order) {
+        boolean generated = assignId(order);
+        Stripe stripe = stripeFor(order.getUserId());
+        int name = names.intern(order.getName());
+        long stamp = stripe.lock.writeLock();
+        try {
+            stripe.put(order, name);
+        } finally {
+            stripe.lock.unlockWrite(stamp);
+        }
+        if (!generated) {
+            removeExcept(order.getId(), stripe);
+        }
+        return order;
+    }
+
+    @Override
+    public <S extends Order> List<S> saveAll(Iterable<S> orders) {
+        Map<Stripe, List<S>> byStripe = new IdentityHashMap<>();
+        List<S> saved = new ArrayList<>();
+        List<S> updated = new ArrayList<>();
+        for (S order : orders) {
+            if (!assignId(order)) {
+                updated.add(order);
+            }
+            byStripe.computeIfAbsent(stripeFor(order.getUserId()), stripe -> new ArrayList<>()).add(order);
+            saved.add(order);
+        }
+        byStripe.forEach((stripe, batch) -> {
+            int[] codes = new int[batch.size()];
+            for (int i = 0; i < codes.length; i++) {
+                codes[i] = names.intern(batch.get(i).getName());
+            }
+            long stamp = stripe.lock.writeLock();
+            try {
+                for (int i = 0; i < codes.length; i++) {
+                    stripe.put(batch.get(i), codes[i]);
+                }
+            } finally {
+                stripe.lock.unlockWrite(stamp);
+            }
+        });
+        updated.forEach(order -> removeExcept(order.getId(), stripeFor(order.getUserId())));
+        return saved;
+    }
+
+    @Override
+    public Optional<Order> findById(Long id) {
+        if (id == null) {
+            throw new IllegalArgumentException("id must not be null");
+        }
+        for (Stripe stripe : stripes) {
+            Order order = stripe.read(() -> stripe.find(id));
+            if (order != null) {
+                return Optional.of(order);
+            }
+        }
+        return Optional.empty();
+    }
+
+    @Override
+    public boolean existsById(Long id) {
+        return findById(id).isPresent();
+    }
+
+    @Override
+    public List<Order> findAllByUserId(Long userId) {
+        Stripe stripe = stripeFor(userId);
+        long key = toColumn(userId);
+        return stripe.read(() -> stripe.findByUser(key, stripe::toOrder));
+    }
+
+    @Override
+    public Optional<Map<String, Object>> findProjectedById(Long id, List<String> fields) {
+        for (Stripe stripe : stripes) {
+            Map<String, Object> projection = stripe.read(() -> {
+                int row = stripe.rowOf(id);
+                return row == LongIntHashMap.MISSING ? null : stripe.project(row, fields);
+            });
+            if (projection != null) {
+                return Optional.of(projection);
+            }
+        }
+        return Optional.empty();
+    }
+
+    @Override
+    public List<Map<String, Object>> findAllProjectedByUserId(Long userId, List<String> fields) {
+        Stripe stripe = stripeFor(userId);
+        long key = toColumn(userId);
+        return stripe.read(() -> stripe.findByUser(key, row -> stripe.project(row, fields)));
+    }
+
+    @Override
+    public List<Order> findAll() {
+        List<Order> orders = new ArrayList<>();
+        for (Stripe stripe : stripes) {
+            orders.addAll(stripe.read(stripe::findAll));
+        }
+        return orders;
+    }
+
+    @Override
+    public List<Order> findAllByStatus(OrderStatus status) {
+        byte column = toColumn(status);
+        List<Order> orders = new ArrayList<>();
+        for (Stripe stripe : stripes) {
+            orders.addAll(stripe.read(() -> stripe.findByStatus(column)));
+        }
+        return orders;
+    }
+
+    @Override
+    public List<Order> findAllById(Iterable<Long> ids) {
+        List<Order> orders = new ArrayList<>();
+        for (Long id : ids) {
+            findById(id).ifPresent(orders::add);
+        }
+        return orders;
+    }
+
+    @Override
+    public long count() {
+        long count = 0;
+        for (Stripe stripe : stripes) {
+            count += stripe.read(() -> stripe.size);
+        }
+        return count;
+    }
+
+    @Override
+    public void deleteById(Long id) {
+        if (id == null) {
+            throw new IllegalArgumentException("id must not be null");
+        }
+        removeExcept(id, null);
+    }
+
+    @Override
+    public int deleteOrderById(Long id) {
+        if (id == null) {
+            throw new IllegalArgumentException("id must not be null");
+        }
+        return removeExcept(id, null) ? 1 : 0;
+    }
+
+    @Override
+    public int updateStatus(Long id, OrderStatus expected, OrderStatus status) {
+        if (id == null) {
+            throw new IllegalArgumentException("id must not be null");
+        }
+        for (Stripe stripe : stripes) {
+            if (stripe.read(() -> stripe.rowOf(id)) == LongIntHashMap.MISSING) {
+                continue;
+            }
+            long stamp = stripe.lock.writeLock();
+            try {
+                if (stripe.updateStatus(id, toColumn(expected), toColumn(status))) {
+                    return 1;
+                }
+            } finally {
+                stripe.lock.unlockWrite(stamp);
+            }
+        }
+        return 0;
+    }
+
+    @Override
+    public void delete(Order order) {
+        deleteById(order.getId());
+    }
+
+    @Override
+    public void deleteAllById(Iterable<? extends Long> ids) {
+        ids.forEach(this::deleteById);
+    }
+
+    @Override
+    public void deleteAll(Iterable<? extends Order> orders) {
+        deleteAllById(StreamSupport.stream(orders.spliterator(), false).map(Order::getId).toList());
+    }
+
+    @Override
+    public void deleteAll() {
+        for (Stripe stripe : stripes) {
+            long stamp = stripe.lock.writeLock();
+            try {
+                stripe.clear();
+            } finally {
+                stripe.lock.unlockWrite(stamp);
+            }
+        }
+    }
+
+    @Override
+    public long bulkDeleteByIds(Collection<Long> ids, Consumer<List<Order>> listener) {
+        Set<Long> distinct = new LinkedHashSet<>(ids);
+        long deleted = 0;
+        for (Stripe stripe : stripes) {
+            deleted += deleteRows(stripe, () -> {
+                List<Integer> found = new ArrayList<>();
+                for (Long id : distinct) {
+                    int row = stripe.rowOf(id);
+                    if (row != LongIntHashMap.MISSING) {
+                        found.add(row);
+                    }
+                }
+                return found;
+            }, listener);
+        }
+        return deleted;
+    }
+
+    @Override
+    public long bulkDeleteByUserId(Long userId, Consumer<List<Order>> listener) {
+        Stripe stripe = stripeFor(userId);
+        long key = toColumn(userId);
+        return deleteRows(stripe, () -> stripe.findByUser(key, row -> row), listener);
+    }
+
+    @Override
+    public long bulkDeleteCreatedBefore(Date cutoff, Consumer<List<Order>> listener) {
+        long time = cutoff.getTime();
+        long deleted = 0;
+        for (Stripe stripe : stripes) {
+            deleted += deleteRows(stripe, () -> {
+                List<Integer> found = new ArrayList<>();
+                for (int row = 0; row < stripe.rows; row++) {
+                    if (stripe.ids[row] != 0 && stripe.creationDates[row] != NULL && stripe.creationDates[row] < time) {
+                        found.add(row);
+                    }
+                }
+                return found;
+            }, listener);
+        }
+        return deleted;
+    }
+
+    /**
+     * Copies up to a page of rows of one stripe at a time and passes them to the consumer outside the
+     * stripe lock, so writers wait for one page at most. Rows written during the export may be missed.
+     */
+    @Override
+    public long exportCreatedBetween(Date from, Date to, Consumer<Order> consumer) {
+        long fromTime = from == null ? Long.MIN_VALUE : from.getTime();
+        long toTime = to == null ? Long.MAX_VALUE : to.getTime();
+        boolean unbounded = from == null && to == null;
+        long exported = 0;
+        for (Stripe stripe : stripes) {
+            for (int start = 0; ; start += exportPageSize) {
+                int first = start;
+                List<Order> page = stripe.read(() -> {
+                    if (first >= stripe.rows) {
+                        return null;
+                    }
+                    List<Order> orders = new ArrayList<>(exportPageSize);
+                    for (int row = first; row < Math.min(first + exportPageSize, stripe.rows); row++) {
+                        long creationDate = stripe.creationDates[row];
+                        if (stripe.ids[row] != 0 && (unbounded
+                                || creationDate != NULL && creationDate >= fromTime && creationDate < toTime)) {
+                            orders.add(stripe.toOrder(row));
+                        }
+                    }
+                    return orders;
+                });
+                if (page == null) {
+                    break;
+                }
+                page.forEach(consumer);
+                exported += page.size();
+            }
+        }
+        return exported;
+    }
+
+    public long memoryBytes() {
+        long bytes = names.memoryBytes();
+        for (Stripe stripe : stripes) {
+            bytes += stripe.read(stripe::memoryBytes);
+        }
+        return bytes;
+    }
+
+    private boolean assignId(Order order) {
+        if (order.getId() != null) {
+            return false;
+        }
+        order.setId(SnowflakeIdGenerator.shared().nextId());
+        return true;
+    }
+
+    /**
+     * Finds and removes the rows under one write lock of the stripe; other stripes stay available.
+     */
+    private int deleteRows(Stripe stripe, Supplier<List<Integer>> finder, Consumer<List<Order>> listener) {
+        List<Order> orders = new ArrayList<>();
+        long stamp = stripe.lock.writeLock();
+        try {
+            for (int row : finder.get()) {
+                orders.add(stripe.toOrder(row));
+            }
+            orders.forEach(order -> stripe.remove(order.getId()));
+        } finally {
+            stripe.lock.unlockWrite(stamp);
+        }
+        if (!orders.isEmpty()) {
+            listener.accept(orders);
+        }
+        return orders.size();
+    }
+
+    private boolean removeExcept(long id, Stripe keep) {
+        boolean removed = false;
+        for (Stripe stripe : stripes) {
+            if (stripe == keep || stripe.read(() -> stripe.rowOf(id)) == LongIntHashMap.MISSING) {
+                continue;
+            }
+            long stamp = stripe.lock.writeLock();
+            try {
+                removed |= stripe.remove(id);
+            } finally {
+                stripe.lock.unlockWrite(stamp);
+            }
+        }
+        return removed;
+    }
+
+    private Stripe stripeFor(Long userId) {
+        long h = (userId == null ? NULL : userId) * 0x9E3779B97F4A7C15L;
+        return stripes[(int) (h ^ (h >>> 32)) & (stripes.length - 1)];
+    }
+
+    private static long toColumn(Long value) {
+        return value == null ? NULL : value;
+    }
+
+    private static Long fromColumn(long value) {
+        return value == NULL ? null : value;
+    }
+
+    private static byte toColumn(OrderStatus status) {
+        return status == null ? -1 : (byte) status.ordinal();
+    }
+
+    private static OrderStatus fromColumn(byte status) {
+        return status < 0 ? null : STATUSES[status];
+    }
+
+    /**
+     * Rows of one stripe. Free rows have id 0 and are chained through nextRows, rows of one user are
+     * chained the same way starting from userIndex.
+     */
+    private final class Stripe {
+        private final StampedLock lock = new StampedLock();
+        private final LongIntHashMap idIndex = new LongIntHashMap();
+        private final LongIntHashMap userIndex = new LongIntHashMap();
+        private long[] ids = new long[16];
+        private long[] userIds = new long[16];
+        private long[] counts = new long[16];
+        private long[] creationDates = new long[16];
+        private int[] nameCodes = new int[16];
+        private byte[] statuses = new byte[16];
+        private int[] nextRows = new int[16];
+        private int rows;
+        private int size;
+        private int freeRow = -1;
+
+        <T> T read(Supplier<T> reader) {
+            long stamp = lock.tryOptimisticRead();
+            if (stamp != 0) {
+                try {
+                    T result = reader.get();
+                    if (lock.validate(stamp)) {
+                        return result;
+                    }
+                } catch (RuntimeException e) {
+                    // torn read during a concurrent write, repeat under the lock
+                }
+            }
+            stamp = lock.readLock();
+            try {
+                return reader.get();
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+
+        int rowOf(long id) {
+            return idIndex.get(id);
+        }
+
+        Order find(long id) {
+            int row = idIndex.get(id);
+            return row == LongIntHashMap.MISSING ? null : toOrder(row);
+        }
+
+        <T> List<T> findByUser(long userId, IntFunction<T> mapper) {
+            int[] next = nextRows;
+            long[] ids = this.ids;
+            List<Integer> userRows = new ArrayList<>();
+            int row = userIndex.get(userId);
+            for (int steps = 0; row != LongIntHashMap.MISSING && steps <= rows; steps++) {
+                userRows.add(row);
+                row = next[row];
+            }
+            userRows.sort(Comparator.comparingLong(r -> ids[r]));
+            List<T> result = new ArrayList<>(userRows.size());
+            for (int userRow : userRows) {
+                result.add(mapper.apply(userRow));
+            }
+            return result;
+        }
+
+        List<Order> findAll() {
+            List<Order> orders = new ArrayList<>(size);
+            long[] ids = this.ids;
+            for (int row = 0; row < rows; row++) {
+                if (ids[row] != 0) {
+                    orders.add(toOrder(row));
+                }
+            }
+            return orders;
+        }
+
+        List<Order> findByStatus(byte status) {
+            List<Order> orders = new ArrayList<>();
+            long[] ids = this.ids;
+            byte[] statuses = this.statuses;
+            for (int row = 0; row < rows; row++) {
+                if (ids[row] != 0 && statuses[row] == status) {
+                    orders.add(toOrder(row));
+                }
+            }
+            return orders;
+        }
+
+        void put(Order order, int name) {
+            long id = order.getId();
+            long userId = toColumn(order.getUserId());
+            int row = idIndex.get(id);
+            if (row == LongIntHashMap.MISSING) {
+                row = allocateRow();
+                ids[row] = id;
+                userIds[row] = userId;
+                idIndex.put(id, row);
+                linkUser(row);
+                size++;
+            } else if (userIds[row] != userId) {
+                unlinkUser(row);
+                userIds[row] = userId;
+                linkUser(row);
+            }
+            counts[row] = toColumn(order.getCount());
+            creationDates[row] = order.getCreationDate() == null ? NULL : order.getCreationDate().getTime();
+            nameCodes[row] = name;
+            statuses[row] = toColumn(order.getStatus());
+        }
+
+        boolean updateStatus(long id, byte expected, byte status) {
+            int row = idIndex.get(id);
+            if (row == LongIntHashMap.MISSING || statuses[row] != expected) {
+                return false;
+            }
+            statuses[row] = status;
+            return true;
+        }
+
+        boolean remove(long id) {
+            int row = idIndex.remove(id);
+            if (row == LongIntHashMap.MISSING) {
+                return false;
+            }
+            unlinkUser(row);
+            ids[row] = 0;
+            nextRows[row] = freeRow;
+            freeRow = row;
+            size--;
+            return true;
+        }
+
+        void clear() {
+            idIndex.clear();
+            userIndex.clear();
+            ids = new long[16];
+            userIds = new long[16];
+            counts = new long[16];
+            creationDates = new long[16];
+            nameCodes = new int[16];
+            statuses = new byte[16];
+            nextRows = new int[16];
+            rows = 0;
+            size = 0;
+            freeRow = -1;
+        }
+
+        long memoryBytes() {
+            return idIndex.memoryBytes() + userIndex.memoryBytes()
+                    + (long) ids.length * (4 * Long.BYTES + 2 * Integer.BYTES + Byte.BYTES);
+        }
+
+        Map<String, Object> project(int row, List<String> fields) {
+            Map<String, Object> projection = new LinkedHashMap<>(fields.size() * 2);
+            for (String field : fields) {
+                projection.put(field, switch (field) {
+                    case "id" -> ids[row];
+                    case "name" -> names.get(nameCodes[row]);
+                    case "count" -> fromColumn(counts[row]);
+                    case "userId" -> fromColumn(userIds[row]);
+                    case "creationDate" -> creationDates[row] == NULL ? null : new Date(creationDates[row]);
+                    case "status" -> fromColumn(statuses[row]);
+                    default -> throw new IllegalArgumentException("unknown field " + field);
+                });
+            }
+            return projection;
+        }
+
+        Order toOrder(int row) {
+            Order order = new Order();
+            order.setId(ids[row]);
+            order.setUserId(fromColumn(userIds[row]));
+            order.setCount(fromColumn(counts[row]));
+            order.setName(names.get(nameCodes[row]));
+            long creationDate = creationDates[row];
+            order.setCreationDate(creationDate == NULL ? null : new Date(creationDate));
+            order.setStatus(fromColumn(statuses[row]));
+            return order;
+        }
+
+        private int allocateRow() {
+            if (freeRow >= 0) {
+                int row = freeRow;
+                freeRow = nextRows[row];
+                return row;
+            }
+            if (rows == ids.length) {
+                int capacity = ids.length * 2;
+                ids = Arrays.copyOf(ids, capacity);
+                userIds = Arrays.copyOf(userIds, capacity);
+                counts = Arrays.copyOf(counts, capacity);
+                creationDates = Arrays.copyOf(creationDates, capacity);
+                nameCodes = Arrays.copyOf(nameCodes, capacity);
+                statuses = Arrays.copyOf(statuses, capacity);
+                nextRows = Arrays.copyOf(nextRows, capacity);
+            }
+            return rows++;
+        }
+
+        private void linkUser(int row) {
+            nextRows[row] = userIndex.get(userIds[row]);
+            userIndex.put(userIds[row], row);
+        }
+
+        private void unlinkUser(int row) {
+            long userId = userIds[row];
+            int head = userIndex.get(userId);
+            if (head == row) {
+                if (nextRows[row] == LongIntHashMap.MISSING) {
+                    userIndex.remove(userId);
+                } else {
+                    userIndex.put(userId, nextRows[row]);
+                }
+                return;
+            }
+            for (int previous = head; previous != LongIntHashMap.MISSING; previous = nextRows[previous]) {
+                if (nextRows[previous] == row) {
+                    nextRows[previous] = nextRows[row];
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Interned order names. Codes are only appended, so a code read from a stripe always resolves.
+     */
+    private static final class NameDictionary {
+        private final Map<String, Integer> codes = new ConcurrentHashMap<>();
+        private volatile String[] values = new String[16];
+
+        int intern(String name) {
+            if (name == null) {
+                return -1;
+            }
+            Integer code = codes.get(name);
+            if (code != null) {
+                return code;
+            }
+            synchronized (this) {
+                code = codes.get(name);
+                if (code != null) {
+                    return code;
+                }
+                String[] current = values;
+                int next = codes.size();
+                if (next == current.length) {
+                    current = Arrays.copyOf(current, next * 2);
+                }
+                current[next] = name;
+                values = current;
+                codes.put(name, next);
+                return next;
+            }
+        }
+
+        String get(int code) {
+            return code < 0 ? null : values[code];
+        }
+
+        long memoryBytes() {
+            long bytes = 16L + (long) values.length * 4;
+            for (String name : codes.keySet()) {
+                // String with its Latin-1 byte array, map node and boxed code
+                bytes += 88 + name.length();
+            }
+            return bytes;
+        }
+    }
+}
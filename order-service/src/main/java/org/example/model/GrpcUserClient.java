@@ -0,0 +1,124 @@
+package org.example.model;
+
+import io.grpc.Channel;
+import io.grpc.Status;
+import io.grpc.stub.StreamObserver;
+import org.example.grpc.UserExistsReply;
+import org.example.grpc.UserIdRequest;
+import org.example.grpc.UserIdsRequest;
+import org.example.grpc.UserLookupGrpc;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+public class GrpcUserClient implements UserClient {
+
+    private final UserLookupGrpc.UserLookupBlockingStub blockingStub;
+    private final UserLookupGrpc.UserLookupStub asyncStub;
+    private final boolean streaming;
+    private final long timeoutMillis;
+
+    private final Map<Long, CompletableFuture<Boolean>> pending = new ConcurrentHashMap<>();
+    private long lastRequestId;
+    private StreamObserver<UserIdRequest> requests;
+
+    public GrpcUserClient(Channel channel, boolean streaming, Duration timeout) {
+        this.blockingStub = UserLookupGrpc.newBlockingStub(channel);
+        this.asyncStub = UserLookupGrpc.newStub(channel);
+        this.streaming = streaming;
+        this.timeoutMillis = timeout.toMillis();
+    }
+
+    @Override
+    public void getUserById(Long id) {
+        boolean exists = streaming ? existsStreaming(id) : existsUnary(id);
+        if (!exists) {
+            throw new NotFoundException("user not found");
+        }
+    }
+
+    @Override
+    public List<Long> getExistingUserIds(Collection<Long> ids) {
+        return blockingStub.withDeadlineAfter(timeoutMillis, TimeUnit.MILLISECONDS)
+                .existingIds(UserIdsRequest.newBuilder().addAllUserIds(ids).build())
+                .getUserIdsList();
+    }
+
+    public synchronized void close() {
+        if (requests != null) {
+            requests.onCompleted();
+            requests = null;
+        }
+    }
+
+    private boolean existsUnary(long userId) {
+        return blockingStub.withDeadlineAfter(timeoutMillis, TimeUnit.MILLISECONDS)
+                .exists(UserIdRequest.newBuilder().setUserId(userId).build())
+                .getExists();
+    }
+
+    private boolean existsStreaming(long userId) {
+        CompletableFuture<Boolean> reply = new CompletableFuture<>();
+        long requestId = send(userId, reply);
+        try {
+            return reply.get(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            throw Status.DEADLINE_EXCEEDED.withDescription("user lookup timed out").asRuntimeException();
+        } catch (ExecutionException e) {
+            throw Status.fromThrowable(e.getCause()).asRuntimeException();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw Status.CANCELLED.withDescription("user lookup interrupted").asRuntimeException();
+        } finally {
+            pending.remove(requestId);
+        }
+    }
+
+    private synchronized long send(long userId, CompletableFuture<Boolean> reply) {
+        if (requests == null) {
+            requests = asyncStub.existsStream(new ReplyObserver());
+        }
+        long requestId = ++lastRequestId;
+        pending.put(requestId, reply);
+        requests.onNext(UserIdRequest.newBuilder().setRequestId(requestId).setUserId(userId).build());
+        return requestId;
+    }
+
+    private synchronized void reset(Throwable cause) {
+        requests = null;
+        pending.values().forEach(reply -> reply.completeExceptionally(cause));
+        pending.clear();
+    }
+
+    private class ReplyObserver implements StreamObserver<UserExistsReply> {
+        @Override
+        public void onNext(UserExistsReply reply) {
+            CompletableFuture<Boolean> future = pending.remove(reply.getRequestId());
+            if (future == null) {
+                return;
+            }
+            if (reply.getError().isEmpty()) {
+                future.complete(reply.getExists());
+            } else {
+                future.completeExceptionally(Status.UNAVAILABLE.withDescription(reply.getError()).asRuntimeException());
+            }
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            reset(t);
+        }
+
+        @Override
+        public void onCompleted() {
+            reset(Status.UNAVAILABLE.withDescription("user lookup stream closed").asRuntimeException());
+        }
+    }
+}
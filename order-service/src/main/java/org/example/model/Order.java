@@ -3,16 +3,20 @@ package org.example.model;
 import jakarta.persistence.*;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.example.util.SnowflakeId;
 
 import java.util.Date;
 
 @Data
 @Entity
-@Table(name = "orders")
+@Table(name = "orders", indexes = {
+        @Index(name = "orders_user_id", columnList = "user_id"),
+        @Index(name = "orders_creation_date", columnList = "creation_date")
+})
 @NoArgsConstructor
 public class Order {
     @Id
-    @GeneratedValue
+    @SnowflakeId
     private Long id;
 
     private String name;
@@ -22,10 +26,14 @@ public class Order {
     private Long userId;
     private Date creationDate;
 
+    @Enumerated(EnumType.STRING)
+    private OrderStatus status;
+
     public Order(String name, Long count, Long userId) {
         this.name = name;
         this.count = count;
         this.userId = userId;
         this.creationDate = new Date();
+        this.status = OrderStatus.CONFIRMED;
     }
 }
@@ -0,0 +1,20 @@
+package org.example.model;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * @param top     most ordered names over all returned windows, by number of orders (count-min estimates)
+ * @param windows the requested windows, newest first
+ */
+public record OrderAnalyticsReport(String window, List<Product> top, List<Window> windows) {
+
+    public record Product(String name, long orders) {
+    }
+
+    /**
+     * @param units sum of {@code count} of the orders in the window
+     */
+    public record Window(Instant start, Instant end, long orders, long units) {
+    }
+}
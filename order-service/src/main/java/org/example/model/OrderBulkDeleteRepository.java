@@ -0,0 +1,20 @@
+package org.example.model;
+
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Set-based deletes that never load the orders as entities. Large deletes are split into chunks that
+ * commit separately, so no transaction holds its locks for the whole delete; every deleted chunk is
+ * passed to the listener after it is committed, as detached orders read together with their ids.
+ */
+public interface OrderBulkDeleteRepository {
+
+    long bulkDeleteByIds(Collection<Long> ids, Consumer<List<Order>> listener);
+
+    long bulkDeleteByUserId(Long userId, Consumer<List<Order>> listener);
+
+    long bulkDeleteCreatedBefore(Date cutoff, Consumer<List<Order>> listener);
+}
@@ -0,0 +1,104 @@
+package org.example.model;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.*;
+import java.util.function.Consumer;
+
+public class OrderBulkDeleteRepositoryImpl implements OrderBulkDeleteRepository {
+    private static final String SELECT =
+            "SELECT o.id, o.name, o.count, o.userId, o.creationDate, o.status FROM Order o ";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${orders.bulk-delete.chunk-size}")
+    private int chunkSize;
+
+    private TransactionTemplate chunkTransaction;
+
+    @PostConstruct
+    void init() {
+        chunkTransaction = new TransactionTemplate(transactionManager);
+        chunkTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    @Override
+    public long bulkDeleteByIds(Collection<Long> ids, Consumer<List<Order>> listener) {
+        List<Long> distinct = new ArrayList<>(new LinkedHashSet<>(ids));
+        long deleted = 0;
+        for (int from = 0; from < distinct.size(); from += chunkSize) {
+            List<Long> chunk = distinct.subList(from, Math.min(from + chunkSize, distinct.size()));
+            deleted += deleteChunk(SELECT + "WHERE o.id IN :value", chunk, listener);
+        }
+        return deleted;
+    }
+
+    @Override
+    public long bulkDeleteByUserId(Long userId, Consumer<List<Order>> listener) {
+        return deleteAll(SELECT + "WHERE o.userId = :value ORDER BY o.id", userId, listener);
+    }
+
+    @Override
+    public long bulkDeleteCreatedBefore(Date cutoff, Consumer<List<Order>> listener) {
+        return deleteAll(SELECT + "WHERE o.creationDate < :value ORDER BY o.id", cutoff, listener);
+    }
+
+    private long deleteAll(String select, Object value, Consumer<List<Order>> listener) {
+        long deleted = 0;
+        while (true) {
+            int chunk = deleteChunk(select, value, listener);
+            deleted += chunk;
+            if (chunk < chunkSize) {
+                return deleted;
+            }
+        }
+    }
+
+    /**
+     * Selects the columns of up to a chunk of matching orders and deletes them by primary key in one
+     * transaction.
+     */
+    private int deleteChunk(String select, Object value, Consumer<List<Order>> listener) {
+        List<Order> orders = chunkTransaction.execute(status -> {
+            List<Order> chunk = entityManager.createQuery(select, Object[].class)
+                    .setParameter("value", value)
+                    .setMaxResults(chunkSize)
+                    .getResultList()
+                    .stream()
+                    .map(OrderBulkDeleteRepositoryImpl::toOrder)
+                    .toList();
+            if (!chunk.isEmpty()) {
+                entityManager.createQuery("DELETE FROM Order o WHERE o.id IN :ids")
+                        .setParameter("ids", chunk.stream().map(Order::getId).toList())
+                        .executeUpdate();
+            }
+            return chunk;
+        });
+        if (!orders.isEmpty()) {
+            listener.accept(orders);
+        }
+        return orders.size();
+    }
+
+    private static Order toOrder(Object[] row) {
+        Order order = new Order();
+        order.setId((Long) row[0]);
+        order.setName((String) row[1]);
+        order.setCount((Long) row[2]);
+        order.setUserId((Long) row[3]);
+        order.setCreationDate((Date) row[4]);
+        order.setStatus((OrderStatus) row[5]);
+        return order;
+    }
+}
@@ -0,0 +1,56 @@
+package org.example.model;
+
+import lombok.Value;
+
+import java.util.Date;
+
+@Value
+public class OrderEvent {
+
+    long epoch;
+
+    long sequence;
+
+    OrderEventType type;
+
+    Long orderId;
+
+    Long userId;
+
+    String name;
+
+    Long count;
+
+    Date creationDate;
+
+    OrderStatus status;
+
+    /**
+     * @return the id clients resume from, {@code <epoch>-<sequence>}; sequences restart with every epoch
+     */
+    public String getId() {
+        return id(epoch, sequence);
+    }
+
+    public static String id(long epoch, long sequence) {
+        return epoch + "-" + sequence;
+    }
+
+    public static OrderEvent created(long epoch, long sequence, Order order) {
+        return of(epoch, sequence, OrderEventType.ORDER_CREATED, order);
+    }
+
+    public static OrderEvent deleted(long epoch, long sequence, Long orderId) {
+        return new OrderEvent(epoch, sequence, OrderEventType.ORDER_DELETED, orderId, null, null, null, new Date(), null);
+    }
+
+    public static OrderEvent validated(long epoch, long sequence, Order order) {
+        return of(epoch, sequence, order.getStatus() == OrderStatus.REJECTED
+                ? OrderEventType.ORDER_REJECTED : OrderEventType.ORDER_CONFIRMED, order);
+    }
+
+    private static OrderEvent of(long epoch, long sequence, OrderEventType type, Order order) {
+        return new OrderEvent(epoch, sequence, type, order.getId(), order.getUserId(),
+                order.getName(), order.getCount(), order.getCreationDate(), order.getStatus());
+    }
+}
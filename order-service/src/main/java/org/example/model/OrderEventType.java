@@ -0,0 +1,8 @@
+package org.example.model;
+
+public enum OrderEventType {
+    ORDER_CREATED,
+    ORDER_DELETED,
+    ORDER_CONFIRMED,
+    ORDER_REJECTED
+}
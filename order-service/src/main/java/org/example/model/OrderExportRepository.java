@@ -0,0 +1,19 @@
+package org.example.model;
+
+import java.util.Date;
+import java.util.function.Consumer;
+
+/**
+ * Streams orders to a consumer page by page instead of collecting them, so the memory used does not
+ * depend on the number of orders. The consumer may get the same {@link Order} instance for every
+ * row and must not keep it.
+ */
+public interface OrderExportRepository {
+
+    /**
+     * @param from inclusive lower bound of {@code creationDate}, or null
+     * @param to   exclusive upper bound of {@code creationDate}, or null
+     * @return the number of exported orders
+     */
+    long exportCreatedBetween(Date from, Date to, Consumer<Order> consumer);
+}
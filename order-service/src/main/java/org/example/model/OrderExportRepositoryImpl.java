@@ -0,0 +1,87 @@
+package org.example.model;
+
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Reads the orders through one forward-only, read-only cursor with a fixed fetch size, in id order,
+ * mapping every row into the same {@link Order}. The read-only transaction keeps the cursor on one
+ * connection (and routes it to a replica when replicas are enabled). Embedded H2 materializes a whole
+ * result before returning it unless lazy execution is on, so it is switched on for the export only.
+ */
+public class OrderExportRepositoryImpl implements OrderExportRepository {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${orders.export.fetch-size}")
+    private int fetchSize;
+
+    private TransactionTemplate readTransaction;
+
+    @PostConstruct
+    void init() {
+        readTransaction = new TransactionTemplate(transactionManager);
+        readTransaction.setReadOnly(true);
+    }
+
+    @Override
+    public long exportCreatedBetween(Date from, Date to, Consumer<Order> consumer) {
+        StringBuilder sql = new StringBuilder("SELECT ").append(OrderJdbcRepository.COLUMNS).append(" FROM orders");
+        List<Object> parameters = new ArrayList<>(2);
+        if (from != null) {
+            sql.append(" WHERE creation_date >= ?");
+            parameters.add(new Timestamp(from.getTime()));
+        }
+        if (to != null) {
+            sql.append(from != null ? " AND" : " WHERE").append(" creation_date < ?");
+            parameters.add(new Timestamp(to.getTime()));
+        }
+        sql.append(" ORDER BY id");
+
+        Order order = new Order();
+        long[] exported = new long[1];
+        readTransaction.executeWithoutResult(status -> {
+            boolean lazy = jdbcTemplate.execute((ConnectionCallback<Boolean>) connection ->
+                    "H2".equals(connection.getMetaData().getDatabaseProductName()));
+            if (lazy) {
+                jdbcTemplate.execute("SET LAZY_QUERY_EXECUTION TRUE");
+            }
+            try {
+                jdbcTemplate.query(connection -> {
+                    PreparedStatement statement = connection.prepareStatement(sql.toString(),
+                            ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                    statement.setFetchSize(fetchSize);
+                    for (int i = 0; i < parameters.size(); i++) {
+                        statement.setObject(i + 1, parameters.get(i));
+                    }
+                    return statement;
+                }, rs -> {
+                    consumer.accept(OrderJdbcRepository.mapRow(rs, order));
+                    exported[0]++;
+                });
+            } finally {
+                if (lazy) {
+                    jdbcTemplate.execute("SET LAZY_QUERY_EXECUTION FALSE");
+                }
+            }
+        });
+        return exported[0];
+    }
+}
@@ -0,0 +1,68 @@
+package org.example.model;
+
+import org.example.util.SnowflakeIdGenerator;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.stereotype.Repository;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.Optional;
+
+/**
+ * Single-row operations on {@code orders} in plain JDBC: rows are mapped straight into detached
+ * {@link Order} objects, without the persistence context, snapshots or dirty checking. The template
+ * works on the same data source as JPA, so inside a {@code @Transactional} method it uses the
+ * connection of the current JPA transaction; writes must run in one, since an autocommitted write
+ * does not advance the replica position. The statements are constant strings, so H2 reuses
+ * the parsed command from its per-session statement cache instead of parsing the SQL again.
+ */
+@Repository
+@ConditionalOnExpression("'${orders.storage.engine:jpa}' == 'jpa' and !${orders.sharding.enabled:false}")
+public class OrderJdbcRepository {
+    static final String COLUMNS = "id, name, count, user_id, creation_date, status";
+
+    private static final String FIND_BY_ID = "SELECT " + COLUMNS + " FROM orders WHERE id = ?";
+    private static final String INSERT = "INSERT INTO orders (" + COLUMNS + ") VALUES (?, ?, ?, ?, ?, ?)";
+    private static final String DELETE_BY_ID = "DELETE FROM orders WHERE id = ?";
+
+    private static final ResultSetExtractor<Order> FIRST_ROW = rs -> rs.next() ? mapRow(rs, new Order()) : null;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    public Optional<Order> findById(long id) {
+        return Optional.ofNullable(jdbcTemplate.query(FIND_BY_ID, FIRST_ROW, id));
+    }
+
+    public Order insert(Order order) {
+        if (order.getId() == null) {
+            order.setId(SnowflakeIdGenerator.shared().nextId());
+        }
+        jdbcTemplate.update(INSERT, order.getId(), order.getName(), order.getCount(), order.getUserId(),
+                order.getCreationDate() == null ? null : new Timestamp(order.getCreationDate().getTime()),
+                order.getStatus() == null ? null : order.getStatus().name());
+        return order;
+    }
+
+    public boolean deleteById(long id) {
+        return jdbcTemplate.update(DELETE_BY_ID, id) > 0;
+    }
+
+    /**
+     * Maps the current row of a result set selecting {@link #COLUMNS} into the given order.
+     */
+    static Order mapRow(ResultSet rs, Order order) throws SQLException {
+        order.setId(rs.getLong(1));
+        order.setName(rs.getString(2));
+        order.setCount(rs.getObject(3, Long.class));
+        order.setUserId(rs.getObject(4, Long.class));
+        order.setCreationDate(rs.getTimestamp(5));
+        String status = rs.getString(6);
+        order.setStatus(status == null ? null : OrderStatus.valueOf(status));
+        return order;
+    }
+}
@@ -0,0 +1,21 @@
+package org.example.model;
+
+import org.example.util.FieldSelection;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+public interface OrderProjectionRepository {
+    FieldSelection<Order> FIELDS = new FieldSelection<>(Order.class)
+            .field("id", Order::getId)
+            .field("name", Order::getName)
+            .field("count", Order::getCount)
+            .field("userId", Order::getUserId)
+            .field("creationDate", Order::getCreationDate)
+            .field("status", Order::getStatus);
+
+    Optional<Map<String, Object>> findProjectedById(Long id, List<String> fields);
+
+    List<Map<String, Object>> findAllProjectedByUserId(Long userId, List<String> fields);
+}
@@ -0,0 +1,24 @@
+package org.example.model;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+public class OrderProjectionRepositoryImpl implements OrderProjectionRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Optional<Map<String, Object>> findProjectedById(Long id, List<String> fields) {
+        return FIELDS.select(entityManager, fields, "id", id).stream().findFirst();
+    }
+
+    @Override
+    public List<Map<String, Object>> findAllProjectedByUserId(Long userId, List<String> fields) {
+        return FIELDS.select(entityManager, fields, "userId", userId);
+    }
+}
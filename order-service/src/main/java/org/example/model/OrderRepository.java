@@ -1,11 +1,37 @@
 package org.example.model;
 
-import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.ListCrudRepository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.Optional;
 
-public interface OrderRepository extends JpaRepository<Order, Long> {
+public interface OrderRepository extends ListCrudRepository<Order, Long>, OrderProjectionRepository,
+        OrderBulkDeleteRepository, OrderExportRepository {
     Optional<Order> findById(Long id);
     List<Order> findAllByUserId(Long userId);
-}
\ No newline at end of file
+    List<Order> findAllByStatus(OrderStatus status);
+
+    /**
+     * Unlike {@link #deleteById}, tells whether the order existed.
+     *
+     * @return the number of deleted orders, 0 or 1
+     */
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM Order o WHERE o.id = :id")
+    int deleteOrderById(Long id);
+
+    /**
+     * Changes the status only while the order still has the {@code expected} one, so a deleted or
+     * already updated order is left alone.
+     *
+     * @return the number of updated orders, 0 or 1
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE Order o SET o.status = :status WHERE o.id = :id AND o.status = :expected")
+    int updateStatus(Long id, OrderStatus expected, OrderStatus status);
+}
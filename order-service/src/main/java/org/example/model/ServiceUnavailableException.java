@@ -0,0 +1,7 @@
+package org.example.model;
+
+public class ServiceUnavailableException extends ModelException {
+    public ServiceUnavailableException(String message) {
+        super(message);
+    }
+}
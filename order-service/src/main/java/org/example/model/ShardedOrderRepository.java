@@ -0,0 +1,406 @@
+package org.example.model;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManagerFactory;
+import org.example.config.ShardRoutingDataSource;
+import org.example.util.ConsistentHashRing;
+import org.hibernate.SessionFactory;
+import org.hibernate.relational.SchemaManager;
+import org.hibernate.tool.schema.spi.SchemaManagementException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+import java.util.function.IntFunction;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Routes orders to shards by userId. Without a transaction of the caller every shard is read or written
+ * in a transaction of its own. A transaction of the caller holds a connection to the shard that was
+ * bound by {@link ShardRoutingDataSource#onShard} when it began (shard 0 if none): that shard is read and
+ * written inside it, so its changes commit or roll back with the caller, other shards are read in
+ * transactions of their own, and writing to them fails, since they can't join the caller's transaction.
+ */
+@Repository
+@Primary
+@ConditionalOnProperty(name = "orders.sharding.enabled", havingValue = "true")
+public class ShardedOrderRepository implements OrderRepository {
+
+    @Autowired
+    @Qualifier("orderRepository")
+    private OrderRepository shardRepository;
+
+    @Autowired
+    private ShardRoutingDataSource dataSource;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Value("${orders.sharding.active-shards}")
+    private List<Integer> activeShards;
+
+    @Value("${orders.sharding.virtual-nodes}")
+    private int virtualNodes;
+
+    private volatile ConsistentHashRing ring;
+    private volatile ConsistentHashRing previousRing;
+    private TransactionTemplate writeTransaction;
+    private TransactionTemplate readTransaction;
+    private ExecutorService executor;
+
+    @PostConstruct
+    void init() {
+        writeTransaction = new TransactionTemplate(transactionManager);
+        readTransaction = new TransactionTemplate(transactionManager);
+        readTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        readTransaction.setReadOnly(true);
+
+        ring = createRing(activeShards.isEmpty() ? allShards() : activeShards);
+        executor = Executors.newFixedThreadPool(getShardCount(), runnable -> {
+            Thread thread = new Thread(runnable, "orders-shard-scatter");
+            thread.setDaemon(true);
+            return thread;
+        });
+        createSchema();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @Override
+    public <S extends Order> S save(S order) {
+        return write(shardForSave(order), () -> shardRepository.save(order));
+    }
+
+    @Override
+    public <S extends Order> List<S> saveAll(Iterable<S> orders) {
+        Map<Integer, List<S>> byShard = new TreeMap<>();
+        for (S order : orders) {
+            byShard.computeIfAbsent(shardForSave(order), shard -> new ArrayList<>()).add(order);
+        }
+        List<S> saved = new ArrayList<>();
+        byShard.forEach((shard, batch) -> saved.addAll(write(shard, () -> shardRepository.saveAll(batch))));
+        return saved;
+    }
+
+    @Override
+    public Optional<Order> findById(Long id) {
+        return scatter(true, shard -> shardRepository.findById(id)).stream()
+                .flatMap(Optional::stream)
+                .findFirst();
+    }
+
+    @Override
+    public boolean existsById(Long id) {
+        return scatter(true, shard -> shardRepository.existsById(id)).contains(true);
+    }
+
+    @Override
+    public List<Order> findAllByUserId(Long userId) {
+        int shard = ring.shardFor(userId);
+        ConsistentHashRing previous = previousRing;
+        if (previous == null || previous.shardFor(userId) == shard) {
+            return read(shard, () -> shardRepository.findAllByUserId(userId));
+        }
+        Map<Long, Order> orders = new TreeMap<>();
+        read(previous.shardFor(userId), () -> shardRepository.findAllByUserId(userId))
+                .forEach(order -> orders.put(order.getId(), order));
+        read(shard, () -> shardRepository.findAllByUserId(userId))
+                .forEach(order -> orders.put(order.getId(), order));
+        return new ArrayList<>(orders.values());
+    }
+
+    @Override
+    public Optional<Map<String, Object>> findProjectedById(Long id, List<String> fields) {
+        return scatter(true, shard -> shardRepository.findProjectedById(id, fields)).stream()
+                .flatMap(Optional::stream)
+                .findFirst();
+    }
+
+    @Override
+    public List<Map<String, Object>> findAllProjectedByUserId(Long userId, List<String> fields) {
+        int shard = ring.shardFor(userId);
+        ConsistentHashRing previous = previousRing;
+        if (previous == null || previous.shardFor(userId) == shard) {
+            return read(shard, () -> shardRepository.findAllProjectedByUserId(userId, fields));
+        }
+        return findAllByUserId(userId).stream().map(order -> FIELDS.project(order, fields)).toList();
+    }
+
+    @Override
+    public List<Order> findAll() {
+        return scatter(true, shard -> shardRepository.findAll()).stream()
+                .flatMap(List::stream)
+                .toList();
+    }
+
+    @Override
+    public List<Order> findAllByStatus(OrderStatus status) {
+        return scatter(true, shard -> shardRepository.findAllByStatus(status)).stream()
+                .flatMap(List::stream)
+                .toList();
+    }
+
+    @Override
+    public List<Order> findAllById(Iterable<Long> ids) {
+        List<Long> idList = StreamSupport.stream(ids.spliterator(), false).toList();
+        Map<Long, Order> orders = new LinkedHashMap<>();
+        scatter(true, shard -> shardRepository.findAllById(idList))
+                .forEach(batch -> batch.forEach(order -> orders.putIfAbsent(order.getId(), order)));
+        return new ArrayList<>(orders.values());
+    }
+
+    @Override
+    public long count() {
+        return countPerShard().stream().mapToLong(Long::longValue).sum();
+    }
+
+    @Override
+    public void deleteById(Long id) {
+        scatter(false, shard -> {
+            shardRepository.deleteById(id);
+            return null;
+        });
+    }
+
+    @Override
+    public int deleteOrderById(Long id) {
+        return scatter(false, shard -> shardRepository.deleteOrderById(id)).stream().mapToInt(Integer::intValue).sum();
+    }
+
+    @Override
+    public int updateStatus(Long id, OrderStatus expected, OrderStatus status) {
+        return scatter(false, shard -> shardRepository.updateStatus(id, expected, status)).stream().mapToInt(Integer::intValue).sum();
+    }
+
+    @Override
+    public void delete(Order order) {
+        deleteById(order.getId());
+    }
+
+    @Override
+    public void deleteAllById(Iterable<? extends Long> ids) {
+        List<Long> idList = StreamSupport.stream(ids.spliterator(), false).map(Long.class::cast).toList();
+        scatter(false, shard -> {
+            shardRepository.deleteAllById(idList);
+            return null;
+        });
+    }
+
+    @Override
+    public void deleteAll(Iterable<? extends Order> orders) {
+        deleteAllById(StreamSupport.stream(orders.spliterator(), false).map(Order::getId).toList());
+    }
+
+    @Override
+    public void deleteAll() {
+        scatter(false, shard -> {
+            shardRepository.deleteAll();
+            return null;
+        });
+    }
+
+    @Override
+    public long bulkDeleteByIds(Collection<Long> ids, Consumer<List<Order>> listener) {
+        return onEveryShard(shard -> shardRepository.bulkDeleteByIds(ids, listener));
+    }
+
+    @Override
+    public long bulkDeleteByUserId(Long userId, Consumer<List<Order>> listener) {
+        int shard = ring.shardFor(userId);
+        ConsistentHashRing previous = previousRing;
+        long deleted = ShardRoutingDataSource.onShard(shard, () -> shardRepository.bulkDeleteByUserId(userId, listener));
+        if (previous != null && previous.shardFor(userId) != shard) {
+            deleted += ShardRoutingDataSource.onShard(previous.shardFor(userId),
+                    () -> shardRepository.bulkDeleteByUserId(userId, listener));
+        }
+        return deleted;
+    }
+
+    @Override
+    public long bulkDeleteCreatedBefore(Date cutoff, Consumer<List<Order>> listener) {
+        return onEveryShard(shard -> shardRepository.bulkDeleteCreatedBefore(cutoff, listener));
+    }
+
+    /**
+     * Exports the shards one after another, since the consumer writes to a single stream. An order
+     * that a rebalance is moving at the same time may be exported twice.
+     */
+    @Override
+    public long exportCreatedBetween(Date from, Date to, Consumer<Order> consumer) {
+        long exported = 0;
+        for (int shard = 0; shard < getShardCount(); shard++) {
+            exported += ShardRoutingDataSource.onShard(shard, () -> shardRepository.exportCreatedBetween(from, to, consumer));
+        }
+        return exported;
+    }
+
+    public List<Long> countPerShard() {
+        return scatter(true, shard -> shardRepository.count());
+    }
+
+    public int shardFor(long userId) {
+        return ring.shardFor(userId);
+    }
+
+    public int getShardCount() {
+        return dataSource.getShardCount();
+    }
+
+    public ConsistentHashRing getRing() {
+        return ring;
+    }
+
+    public boolean isRebalancing() {
+        return previousRing != null;
+    }
+
+    public synchronized ConsistentHashRing beginRebalance(Collection<Integer> shards) {
+        for (int shard : shards) {
+            if (shard < 0 || shard >= getShardCount()) {
+                throw new InvalidParametersException("unknown shard " + shard);
+            }
+        }
+        ConsistentHashRing target = createRing(shards);
+        if (previousRing == null) {
+            previousRing = ring;
+        }
+        ring = target;
+        return target;
+    }
+
+    public synchronized void finishRebalance() {
+        previousRing = null;
+    }
+
+    private int shardForSave(Order order) {
+        int shard = ring.shardFor(order.getUserId());
+        ConsistentHashRing previous = previousRing;
+        if (order.getId() != null && previous != null) {
+            int previousShard = previous.shardFor(order.getUserId());
+            if (previousShard != shard && read(previousShard, () -> shardRepository.existsById(order.getId()))) {
+                return previousShard;
+            }
+        }
+        return shard;
+    }
+
+    private ConsistentHashRing createRing(Collection<Integer> shards) {
+        if (shards.isEmpty()) {
+            throw new InvalidParametersException("at least one shard is required");
+        }
+        return new ConsistentHashRing(shards, virtualNodes);
+    }
+
+    private List<Integer> allShards() {
+        return IntStream.range(0, getShardCount()).boxed().toList();
+    }
+
+    private void createSchema() {
+        SchemaManager schemaManager = entityManagerFactory.unwrap(SessionFactory.class).getSchemaManager();
+        for (int shard = 1; shard < getShardCount(); shard++) {
+            ShardRoutingDataSource.onShard(shard, () -> {
+                try {
+                    schemaManager.validateMappedObjects();
+                } catch (SchemaManagementException e) {
+                    schemaManager.exportMappedObjects(true);
+                }
+                return null;
+            });
+        }
+    }
+
+    private <T> T read(int shard, Supplier<T> action) {
+        if (Objects.equals(joinedShard(), shard)) {
+            return action.get();
+        }
+        return ShardRoutingDataSource.onShard(shard, () -> readTransaction.execute(status -> action.get()));
+    }
+
+    private <T> T write(int shard, Supplier<T> action) {
+        Integer joined = joinedShard();
+        if (joined == null) {
+            return ShardRoutingDataSource.onShard(shard, () -> writeTransaction.execute(status -> action.get()));
+        }
+        if (joined != shard) {
+            throw new IllegalStateException("shard " + shard + " can't be written in a transaction on shard " + joined
+                    + ", bind the shard with ShardRoutingDataSource.onShard before the transaction begins");
+        }
+        return action.get();
+    }
+
+    /**
+     * @return the shard of the caller's transaction, null without one
+     */
+    private static Integer joinedShard() {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            return null;
+        }
+        Integer shard = ShardRoutingDataSource.currentShard();
+        return shard == null ? 0 : shard;
+    }
+
+    /**
+     * Runs a bulk delete on every shard in parallel without a surrounding transaction, the shard
+     * repository commits every chunk on its own.
+     */
+    private long onEveryShard(IntFunction<Long> action) {
+        List<CompletableFuture<Long>> results = IntStream.range(0, getShardCount())
+                .mapToObj(shard -> CompletableFuture.supplyAsync(
+                        () -> ShardRoutingDataSource.onShard(shard, () -> action.apply(shard)), executor))
+                .toList();
+        try {
+            return results.stream().mapToLong(CompletableFuture::join).sum();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Runs the action on every shard in parallel; the shard of the caller's transaction runs on the
+     * calling thread inside that transaction.
+     */
+    private <T> List<T> scatter(boolean readOnly, IntFunction<T> action) {
+        Integer joined = joinedShard();
+        List<CompletableFuture<T>> results = new ArrayList<>(IntStream.range(0, getShardCount())
+                .mapToObj(shard -> Objects.equals(joined, shard) ? null : CompletableFuture.supplyAsync(() -> readOnly
+                        ? read(shard, () -> action.apply(shard))
+                        : write(shard, () -> action.apply(shard)), executor))
+                .toList());
+        if (joined != null) {
+            results.set(joined, CompletableFuture.completedFuture(action.apply(joined)));
+        }
+        try {
+            return results.stream().map(CompletableFuture::join).toList();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+}
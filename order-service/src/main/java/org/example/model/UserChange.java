@@ -0,0 +1,17 @@
+package org.example.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class UserChange {
+
+    private Long sequence;
+
+    private Long userId;
+
+    private String type;
+}
@@ -0,0 +1,13 @@
+package org.example.model;
+
+import org.springframework.cloud.openfeign.FeignClient;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+
+import java.util.List;
+
+@FeignClient(name = "user-service", contextId = "userChangesClient", url = "${user.service.url}")
+public interface UserChangesClient {
+    @GetMapping("/users/changes")
+    List<UserChange> getChanges(@RequestParam("after") long after, @RequestParam("limit") int limit);
+}
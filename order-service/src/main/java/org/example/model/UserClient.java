@@ -3,9 +3,19 @@ package org.example.model;
 import org.springframework.cloud.openfeign.FeignClient;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestParam;
+
+import java.util.Collection;
+import java.util.List;
 
 @FeignClient(name = "user-service", url = "${user.service.url}")
 public interface UserClient {
     @GetMapping("/users/{id}")
     void getUserById(@PathVariable Long id);
+
+    /**
+     * @return the given ids that belong to existing users
+     */
+    @GetMapping("/users/exists")
+    List<Long> getExistingUserIds(@RequestParam("ids") Collection<Long> ids);
 }
@@ -0,0 +1,346 @@
+package org.example.services;
+
+import jakarta.annotation.PostConstruct;
+import org.example.model.InvalidParametersException;
+import org.example.model.Order;
+import org.example.model.OrderAnalyticsReport;
+import org.example.model.OrderRepository;
+import org.example.model.OrderStatus;
+import org.example.util.CountMinSketch;
+import org.example.util.HeavyHitters;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Tumbling-window aggregates of orders (number of orders, sum of {@code count} and the most ordered
+ * names) for every window from {@code orders.analytics.windows}. Each window keeps a ring of its last
+ * {@code retention} buckets; a bucket is reused once its slot comes round again. Orders are added on
+ * creation and removed on deletion (bulk deletes included) or rejection, so a report costs the same
+ * for any table size. {@link #recompute} rebuilds the buckets of a range from the table; on startup it
+ * rebuilds every retained bucket. Each window is guarded by its own monitor.
+ */
+@Service
+@ConditionalOnProperty(name = "orders.analytics.enabled", havingValue = "true")
+public class OrderAnalytics {
+
+    @Autowired
+    private OrderRepository repository;
+
+    @Autowired
+    private Environment environment;
+
+    @Value("${orders.analytics.top-k}")
+    private int topK;
+
+    @Value("${orders.analytics.sketch-depth}")
+    private int sketchDepth;
+
+    @Value("${orders.analytics.sketch-width}")
+    private int sketchWidth;
+
+    @Value("${orders.analytics.recompute-threshold}")
+    private int recomputeThreshold;
+
+    @Value("${orders.analytics.recompute-page-size}")
+    private int recomputePageSize;
+
+    private final Map<String, Window> windows = new LinkedHashMap<>();
+
+    @PostConstruct
+    public void init() {
+        Map<String, WindowProperties> properties = Binder.get(environment)
+                .bind("orders.analytics.windows", Bindable.mapOf(String.class, WindowProperties.class))
+                .orElse(Map.of());
+        properties.forEach((name, window) -> {
+            if (window.size().toMillis() < 1 || window.retention() < 1) {
+                throw new IllegalStateException("window " + name + " must have a positive size and retention");
+            }
+            windows.put(name, new Window(window.size().toMillis(), new Bucket[window.retention()]));
+        });
+        long now = System.currentTimeMillis();
+        long retained = windows.values().stream().mapToLong(window -> window.size * window.ring.length).max().orElse(0);
+        if (retained > 0) {
+            recompute(Instant.ofEpochMilli(now - retained), Instant.ofEpochMilli(now + 1));
+        }
+    }
+
+    public void orderAdded(Order order) {
+        update(order, 1);
+    }
+
+    public void orderRemoved(Order order) {
+        update(order, -1);
+    }
+
+    public OrderAnalyticsReport report(String name, int last, int top) {
+        Window window = windows.get(name);
+        if (window == null) {
+            throw new InvalidParametersException("window must be one of " + windows.keySet());
+        }
+        if (last < 1 || last > window.ring.length) {
+            throw new InvalidParametersException("last must be from 1 to " + window.ring.length);
+        }
+        if (top < 1 || top > topK) {
+            throw new InvalidParametersException("top must be from 1 to " + topK);
+        }
+        synchronized (window) {
+            return report(name, window, last, top);
+        }
+    }
+
+    private OrderAnalyticsReport report(String name, Window window, int last, int top) {
+        long current = window.start(System.currentTimeMillis());
+        List<Bucket> buckets = new ArrayList<>(last);
+        List<OrderAnalyticsReport.Window> aggregates = new ArrayList<>(last);
+        Set<String> candidates = new HashSet<>();
+        for (int i = 0; i < last; i++) {
+            long start = current - i * window.size;
+            Bucket bucket = window.get(start);
+            aggregates.add(new OrderAnalyticsReport.Window(Instant.ofEpochMilli(start),
+                    Instant.ofEpochMilli(start + window.size), bucket == null ? 0 : bucket.orders, bucket == null ? 0 : bucket.units));
+            if (bucket != null) {
+                buckets.add(bucket);
+                bucket.names.forEachCandidate(candidates::add);
+            }
+        }
+        List<OrderAnalyticsReport.Product> products = new ArrayList<>(candidates.size());
+        for (String candidate : candidates) {
+            long hash = CountMinSketch.hash(candidate);
+            long orders = 0;
+            for (Bucket bucket : buckets) {
+                orders += bucket.names.estimate(hash);
+            }
+            products.add(new OrderAnalyticsReport.Product(candidate, orders));
+        }
+        products.sort(Comparator.comparingLong(OrderAnalyticsReport.Product::orders).reversed()
+                .thenComparing(OrderAnalyticsReport.Product::name));
+        return new OrderAnalyticsReport(name, products.subList(0, Math.min(top, products.size())), aggregates);
+    }
+
+    /**
+     * Rebuilds the buckets that overlap {@code [from, to)} and are still retained from the orders
+     * created within those buckets. The orders are streamed from the table and aggregated page by page
+     * in parallel on the common fork-join pool, so memory is bounded by the page size. Orders created
+     * while the table is being read may be missed, so ranges that still receive orders are better left alone.
+     *
+     * @return the number of orders aggregated into at least one bucket
+     */
+    public long recompute(Instant from, Instant to) {
+        if (from == null || to == null || !from.isBefore(to)) {
+            throw new InvalidParametersException("from must be before to");
+        }
+        long now = System.currentTimeMillis();
+        List<Window> targets = new ArrayList<>(windows.values());
+        long[][] ranges = new long[targets.size()][];
+        long readFrom = Long.MAX_VALUE;
+        long readTo = Long.MIN_VALUE;
+        for (int i = 0; i < targets.size(); i++) {
+            Window window = targets.get(i);
+            long oldest = window.start(now) - (window.ring.length - 1) * window.size;
+            long first = Math.max(window.start(from.toEpochMilli()), oldest);
+            long end = Math.min(window.start(to.toEpochMilli() - 1), window.start(now)) + window.size;
+            ranges[i] = new long[]{first, end};
+            if (first < end) {
+                readFrom = Math.min(readFrom, first);
+                readTo = Math.max(readTo, end);
+            }
+        }
+
+        Aggregate aggregate = aggregate(List.of(), targets, ranges);
+        if (readFrom < readTo) {
+            List<Order> page = new ArrayList<>(recomputePageSize);
+            repository.exportCreatedBetween(new Date(readFrom), new Date(readTo), order -> {
+                page.add(copy(order));
+                if (page.size() == recomputePageSize) {
+                    aggregate.merge(aggregate(page, targets, ranges));
+                    page.clear();
+                }
+            });
+            aggregate.merge(aggregate(page, targets, ranges));
+        }
+
+        for (int i = 0; i < targets.size(); i++) {
+            Window window = targets.get(i);
+            synchronized (window) {
+                for (long start = ranges[i][0]; start < ranges[i][1]; start += window.size) {
+                    Bucket bucket = aggregate.buckets.get(i).get(start);
+                    window.put(bucket != null ? bucket : new Bucket(start, newSketch()));
+                }
+            }
+        }
+        return aggregate.aggregated;
+    }
+
+    private Aggregate aggregate(List<Order> orders, List<Window> targets, long[][] ranges) {
+        return ForkJoinPool.commonPool().invoke(new Aggregate(orders, 0, orders.size(), targets, ranges));
+    }
+
+    // the export reuses one instance for every row
+    private static Order copy(Order order) {
+        Order copy = new Order();
+        copy.setName(order.getName());
+        copy.setCount(order.getCount());
+        copy.setCreationDate(order.getCreationDate());
+        copy.setStatus(order.getStatus());
+        return copy;
+    }
+
+    private void update(Order order, int sign) {
+        if (order.getCreationDate() == null) {
+            return;
+        }
+        long time = order.getCreationDate().getTime();
+        for (Window window : windows.values()) {
+            long start = window.start(time);
+            synchronized (window) {
+                Bucket bucket = window.get(start);
+                if (bucket == null && sign > 0 && window.isNewer(start)) {
+                    bucket = window.put(new Bucket(start, newSketch()));
+                }
+                if (bucket != null) {
+                    bucket.add(order, sign);
+                }
+            }
+        }
+    }
+
+    private HeavyHitters newSketch() {
+        return new HeavyHitters(topK, sketchDepth, sketchWidth);
+    }
+
+    public record WindowProperties(Duration size, int retention) {
+    }
+
+    private static class Window {
+        final long size;
+        final Bucket[] ring;
+
+        Window(long size, Bucket[] ring) {
+            this.size = size;
+            this.ring = ring;
+        }
+
+        long start(long time) {
+            return Math.floorDiv(time, size) * size;
+        }
+
+        Bucket get(long start) {
+            Bucket bucket = ring[slot(start)];
+            return bucket != null && bucket.start == start ? bucket : null;
+        }
+
+        /**
+         * @return whether a bucket starting at {@code start} may take its slot (the slot is empty or older)
+         */
+        boolean isNewer(long start) {
+            Bucket bucket = ring[slot(start)];
+            return bucket == null || bucket.start < start;
+        }
+
+        Bucket put(Bucket bucket) {
+            ring[slot(bucket.start)] = bucket;
+            return bucket;
+        }
+
+        private int slot(long start) {
+            return (int) Math.floorMod(start / size, (long) ring.length);
+        }
+    }
+
+    private static class Bucket {
+        final long start;
+        final HeavyHitters names;
+        long orders;
+        long units;
+
+        Bucket(long start, HeavyHitters names) {
+            this.start = start;
+            this.names = names;
+        }
+
+        void add(Order order, int sign) {
+            orders += sign;
+            units += sign * (order.getCount() == null ? 0 : order.getCount());
+            if (order.getName() != null) {
+                names.add(order.getName(), sign);
+            }
+        }
+
+        Bucket merge(Bucket other) {
+            orders += other.orders;
+            units += other.units;
+            names.merge(other.names);
+            return this;
+        }
+    }
+
+    private class Aggregate extends RecursiveTask<Aggregate> {
+        private final List<Order> orders;
+        private final int from;
+        private final int to;
+        private final List<Window> targets;
+        private final long[][] ranges;
+        private final List<Map<Long, Bucket>> buckets = new ArrayList<>();
+        private long aggregated;
+
+        Aggregate(List<Order> orders, int from, int to, List<Window> targets, long[][] ranges) {
+            this.orders = orders;
+            this.from = from;
+            this.to = to;
+            this.targets = targets;
+            this.ranges = ranges;
+        }
+
+        @Override
+        protected Aggregate compute() {
+            if (to - from > recomputeThreshold) {
+                int middle = (from + to) >>> 1;
+                Aggregate left = new Aggregate(orders, from, middle, targets, ranges);
+                Aggregate right = new Aggregate(orders, middle, to, targets, ranges);
+                left.fork();
+                return right.compute().merge(left.join());
+            }
+            for (int i = 0; i < targets.size(); i++) {
+                buckets.add(new HashMap<>());
+            }
+            for (int row = from; row < to; row++) {
+                Order order = orders.get(row);
+                if (order.getCreationDate() == null || order.getStatus() == OrderStatus.REJECTED) {
+                    continue;
+                }
+                boolean counted = false;
+                for (int i = 0; i < targets.size(); i++) {
+                    long start = targets.get(i).start(order.getCreationDate().getTime());
+                    if (start >= ranges[i][0] && start < ranges[i][1]) {
+                        buckets.get(i).computeIfAbsent(start, key -> new Bucket(key, newSketch())).add(order, 1);
+                        counted = true;
+                    }
+                }
+                if (counted) {
+                    aggregated++;
+                }
+            }
+            return this;
+        }
+
+        private Aggregate merge(Aggregate other) {
+            for (int i = 0; i < buckets.size(); i++) {
+                Map<Long, Bucket> into = buckets.get(i);
+                other.buckets.get(i).forEach((start, bucket) -> into.merge(start, bucket, Bucket::merge));
+            }
+            aggregated += other.aggregated;
+            return this;
+        }
+    }
+}
@@ -0,0 +1,309 @@
+package org.example.services;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.example.model.InvalidParametersException;
+import org.example.model.Order;
+import org.example.model.OrderEvent;
+import org.example.model.ServiceUnavailableException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.LongFunction;
+
+@Service
+public class OrderEventBus {
+
+    public enum OverflowPolicy {
+        DROP,
+        DISCONNECT
+    }
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${orders.events.buffer-size}")
+    private int bufferSize;
+
+    @Value("${orders.events.batch-size}")
+    private int batchSize;
+
+    @Value("${orders.events.max-subscribers}")
+    private int maxSubscribers;
+
+    @Value("${orders.events.heartbeat-interval}")
+    private Duration heartbeatInterval;
+
+    @Value("${orders.events.overflow-policy}")
+    private OverflowPolicy defaultOverflowPolicy;
+
+    private OrderEvent[] ring;
+    private int mask;
+    // sequences restart with every run, event ids carry the run's epoch so that ids of earlier runs are recognized
+    private long epoch;
+    private volatile long published;
+
+    private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+    private ThreadPoolExecutor executor;
+    private Thread dispatcher;
+    private volatile boolean running;
+
+    private Counter publishedEvents;
+    private Counter droppedEvents;
+    private Counter disconnectedSubscribers;
+
+    @PostConstruct
+    void start() {
+        if (Integer.bitCount(bufferSize) != 1) {
+            throw new IllegalStateException("orders.events.buffer-size must be a power of two");
+        }
+        ring = new OrderEvent[bufferSize];
+        mask = bufferSize - 1;
+        epoch = System.currentTimeMillis();
+
+        AtomicInteger threads = new AtomicInteger();
+        executor = new ThreadPoolExecutor(0, maxSubscribers, 60, TimeUnit.SECONDS, new SynchronousQueue<>(), runnable -> {
+            Thread thread = new Thread(runnable, "order-events-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        running = true;
+        dispatcher = new Thread(this::dispatch, "order-events-dispatcher");
+        dispatcher.setDaemon(true);
+        dispatcher.start();
+
+        Gauge.builder("orders.events.subscribers", subscribers, List::size).register(meterRegistry);
+        Gauge.builder("orders.events.sequence", this, OrderEventBus::getPublishedSequence).register(meterRegistry);
+        publishedEvents = Counter.builder("orders.events.published").register(meterRegistry);
+        droppedEvents = Counter.builder("orders.events.dropped").register(meterRegistry);
+        disconnectedSubscribers = Counter.builder("orders.events.disconnected").register(meterRegistry);
+    }
+
+    @PreDestroy
+    void stop() {
+        running = false;
+        LockSupport.unpark(dispatcher);
+        subscribers.forEach(subscriber -> close(subscriber, false));
+        executor.shutdownNow();
+    }
+
+    public void orderCreated(Order order) {
+        publish(sequence -> OrderEvent.created(epoch, sequence, order));
+    }
+
+    public void orderDeleted(Long orderId) {
+        publish(sequence -> OrderEvent.deleted(epoch, sequence, orderId));
+    }
+
+    public void orderValidated(Order order) {
+        publish(sequence -> OrderEvent.validated(epoch, sequence, order));
+    }
+
+    /**
+     * Streams the events after {@code lastEventId}, or only new events without it. An id of an earlier
+     * run (another epoch, or a bare sequence number) can't be placed in this run, so the sink is reset
+     * and gets the events of this run from the oldest one still in the buffer.
+     */
+    public void subscribe(String lastEventId, String overflow, OrderEventSink sink) {
+        Long lastSequence = lastEventId == null ? null : parseSequence(lastEventId);
+        boolean reset = lastEventId != null && lastSequence == null;
+        OverflowPolicy policy = parsePolicy(overflow);
+        Subscriber subscriber;
+        synchronized (subscribers) {
+            if (subscribers.size() >= maxSubscribers) {
+                throw new ServiceUnavailableException("too many order event subscribers");
+            }
+            long head = published;
+            long cursor = reset ? Math.max(1, head - mask) : lastSequence == null ? head + 1 : Math.min(lastSequence + 1, head + 1);
+            subscriber = new Subscriber(sink, policy, cursor, reset);
+            subscribers.add(subscriber);
+        }
+        schedule(subscriber);
+    }
+
+    public void unsubscribe(OrderEventSink sink) {
+        subscribers.stream()
+                .filter(subscriber -> subscriber.sink == sink)
+                .forEach(subscriber -> close(subscriber, false));
+    }
+
+    public long getEpoch() {
+        return epoch;
+    }
+
+    public long getPublishedSequence() {
+        return published;
+    }
+
+    public int getSubscriberCount() {
+        return subscribers.size();
+    }
+
+    private void publish(LongFunction<OrderEvent> event) {
+        synchronized (this) {
+            long sequence = published + 1;
+            ring[(int) sequence & mask] = event.apply(sequence);
+            published = sequence;
+        }
+        publishedEvents.increment();
+        LockSupport.unpark(dispatcher);
+    }
+
+    /**
+     * @return the sequence of an id of this run, null for an id of an earlier run
+     */
+    private Long parseSequence(String lastEventId) {
+        int dash = lastEventId.indexOf('-');
+        try {
+            if (dash < 0) {
+                if (Long.parseLong(lastEventId.trim()) < 0) {
+                    throw new NumberFormatException();
+                }
+                return null;
+            }
+            long eventEpoch = Long.parseLong(lastEventId.substring(0, dash).trim());
+            long sequence = Long.parseLong(lastEventId.substring(dash + 1).trim());
+            if (eventEpoch < 0 || sequence < 0) {
+                throw new NumberFormatException();
+            }
+            return eventEpoch == epoch ? sequence : null;
+        } catch (NumberFormatException e) {
+            throw new InvalidParametersException("Last-Event-ID must be <epoch>-<sequence>");
+        }
+    }
+
+    private OverflowPolicy parsePolicy(String overflow) {
+        if (overflow == null) {
+            return defaultOverflowPolicy;
+        }
+        try {
+            return OverflowPolicy.valueOf(overflow.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new InvalidParametersException("overflow must be drop or disconnect");
+        }
+    }
+
+    private void dispatch() {
+        long heartbeatNanos = heartbeatInterval.toNanos();
+        while (running) {
+            LockSupport.parkNanos(this, heartbeatNanos);
+            long head = published;
+            long now = System.nanoTime();
+            for (Subscriber subscriber : subscribers) {
+                if (subscriber.cursor <= head || now - subscriber.lastSendNanos >= heartbeatNanos) {
+                    schedule(subscriber);
+                }
+            }
+        }
+    }
+
+    private void schedule(Subscriber subscriber) {
+        if (subscriber.closed || !subscriber.scheduled.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            executor.execute(() -> drain(subscriber));
+        } catch (RejectedExecutionException e) {
+            subscriber.scheduled.set(false);
+        }
+    }
+
+    private void drain(Subscriber subscriber) {
+        try {
+            if (subscriber.reset) {
+                subscriber.sink.reset(OrderEvent.id(epoch, 0));
+                subscriber.reset = false;
+            }
+            long head;
+            while (!subscriber.closed && subscriber.cursor <= (head = published)) {
+                long oldest = Math.max(1, head - mask);
+                if (subscriber.cursor < oldest && !overflow(subscriber, oldest)) {
+                    return;
+                }
+                List<OrderEvent> batch = new ArrayList<>(Math.min(batchSize, (int) (head - subscriber.cursor + 1)));
+                long sequence = subscriber.cursor;
+                while (sequence <= head && batch.size() < batchSize) {
+                    OrderEvent event = ring[(int) sequence & mask];
+                    if (event == null || event.getSequence() != sequence) {
+                        break;
+                    }
+                    batch.add(event);
+                    sequence++;
+                }
+                if (batch.isEmpty()) {
+                    continue;
+                }
+                subscriber.sink.send(batch);
+                subscriber.cursor = sequence;
+                subscriber.lastSendNanos = System.nanoTime();
+            }
+            if (!subscriber.closed && System.nanoTime() - subscriber.lastSendNanos >= heartbeatInterval.toNanos()) {
+                subscriber.sink.heartbeat();
+                subscriber.lastSendNanos = System.nanoTime();
+            }
+        } catch (Exception e) {
+            close(subscriber, false);
+        } finally {
+            subscriber.scheduled.set(false);
+        }
+        if (!subscriber.closed && subscriber.cursor <= published) {
+            schedule(subscriber);
+        }
+    }
+
+    private boolean overflow(Subscriber subscriber, long oldest) throws Exception {
+        long missed = oldest - subscriber.cursor;
+        droppedEvents.increment(missed);
+        if (subscriber.policy == OverflowPolicy.DISCONNECT) {
+            close(subscriber, true);
+            return false;
+        }
+        subscriber.sink.dropped(missed, OrderEvent.id(epoch, oldest - 1));
+        subscriber.cursor = oldest;
+        return true;
+    }
+
+    private void close(Subscriber subscriber, boolean slow) {
+        if (subscriber.closed) {
+            return;
+        }
+        subscriber.closed = true;
+        subscribers.remove(subscriber);
+        if (slow) {
+            disconnectedSubscribers.increment();
+        }
+        subscriber.sink.close();
+    }
+
+    private static class Subscriber {
+        final OrderEventSink sink;
+        final OverflowPolicy policy;
+        final AtomicBoolean scheduled = new AtomicBoolean();
+        volatile long cursor;
+        volatile long lastSendNanos = System.nanoTime();
+        volatile boolean closed;
+        volatile boolean reset;
+
+        Subscriber(OrderEventSink sink, OverflowPolicy policy, long cursor, boolean reset) {
+            this.sink = sink;
+            this.policy = policy;
+            this.cursor = cursor;
+            this.reset = reset;
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package org.example.services;
+
+import org.example.model.OrderEvent;
+
+import java.io.IOException;
+import java.util.List;
+
+public interface OrderEventSink {
+    void send(List<OrderEvent> events) throws IOException;
+
+    void dropped(long count, String lastDroppedId) throws IOException;
+
+    /**
+     * Tells the client that its last event id belongs to an earlier run of the service, so events after
+     * it may have been lost; the stream then replays the events of the current run from {@code resetId}.
+     */
+    void reset(String resetId) throws IOException;
+
+    void heartbeat() throws IOException;
+
+    void close();
+}
@@ -0,0 +1,236 @@
+package org.example.services;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.example.model.InvalidParametersException;
+import org.example.model.Order;
+import org.example.model.OrderRepository;
+import org.example.model.ServiceUnavailableException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Date;
+import java.util.Locale;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Writes all orders, optionally only those created in {@code [from, to)}, to a stream as NDJSON or
+ * CSV while they are read from the repository cursor, so memory use does not depend on the number
+ * of rows. Exported rows and bytes (before compression) are counted in {@code orders.export.rows}
+ * and {@code orders.export.bytes}, the rate of every export in {@code orders.export.throughput}.
+ * An export holds a database connection for its whole duration and is not covered by the concurrency
+ * limiter, so at most {@code orders.export.max-concurrent} exports run at a time; others get 503.
+ */
+@Slf4j
+@Service
+public class OrderExporter {
+
+    @Autowired
+    private OrderRepository repository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${orders.export.max-concurrent}")
+    private int maxConcurrent;
+
+    private Semaphore running;
+    private Counter rows;
+    private Counter bytes;
+    private DistributionSummary throughput;
+
+    @PostConstruct
+    void init() {
+        running = new Semaphore(maxConcurrent);
+        rows = Counter.builder("orders.export.rows").register(meterRegistry);
+        bytes = Counter.builder("orders.export.bytes").baseUnit("bytes").register(meterRegistry);
+        throughput = DistributionSummary.builder("orders.export.throughput").baseUnit("rows/s").register(meterRegistry);
+    }
+
+    /**
+     * Checks the parameters before anything is written, then opens the target with the chosen format
+     * (so that headers of an invalid request are never sent) and writes the orders to it.
+     *
+     * @return the number of exported orders
+     */
+    public long export(Instant from, Instant to, String format, Target target) throws IOException {
+        Format exportFormat = Format.parse(format);
+        if (from != null && to != null && !from.isBefore(to)) {
+            throw new InvalidParametersException("from must be before to");
+        }
+        if (!running.tryAcquire()) {
+            throw new ServiceUnavailableException("too many exports in progress, retry later");
+        }
+        try {
+            return export(from, to, exportFormat, target);
+        } finally {
+            running.release();
+        }
+    }
+
+    private long export(Instant from, Instant to, Format exportFormat, Target target) throws IOException {
+        long started = System.nanoTime();
+        CountingOutputStream counting = new CountingOutputStream(target.open(exportFormat));
+        Writer writer = new BufferedWriter(new OutputStreamWriter(counting, StandardCharsets.UTF_8), 64 * 1024);
+        long exported;
+        if (exportFormat == Format.NDJSON) {
+            JsonGenerator generator = objectMapper.getFactory().createGenerator(writer);
+            generator.setRootValueSeparator(null);
+            exported = export(from, to, order -> writeJson(generator, order));
+            generator.flush();
+        } else {
+            writer.write("id,name,count,userId,creationDate,status\n");
+            exported = export(from, to, order -> writeCsv(writer, order));
+        }
+        writer.flush();
+
+        long elapsedNanos = Math.max(System.nanoTime() - started, 1);
+        double rate = exported * 1e9 / elapsedNanos;
+        rows.increment(exported);
+        bytes.increment(counting.count);
+        throughput.record(rate);
+        log.info("exported {} orders as {} ({} bytes) in {} ms, {} rows/s", exported, exportFormat.name().toLowerCase(Locale.ROOT),
+                counting.count, elapsedNanos / 1_000_000, Math.round(rate));
+        return exported;
+    }
+
+    private long export(Instant from, Instant to, RowWriter rowWriter) throws IOException {
+        try {
+            return repository.exportCreatedBetween(from == null ? null : Date.from(from), to == null ? null : Date.from(to), order -> {
+                try {
+                    rowWriter.write(order);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private static void writeJson(JsonGenerator generator, Order order) throws IOException {
+        generator.writeStartObject();
+        generator.writeNumberField("id", order.getId());
+        generator.writeStringField("name", order.getName());
+        writeNumberField(generator, "count", order.getCount());
+        writeNumberField(generator, "userId", order.getUserId());
+        generator.writeStringField("creationDate", order.getCreationDate() == null ? null : order.getCreationDate().toInstant().toString());
+        generator.writeStringField("status", order.getStatus() == null ? null : order.getStatus().name());
+        generator.writeEndObject();
+        generator.writeRaw('\n');
+    }
+
+    private static void writeNumberField(JsonGenerator generator, String name, Long value) throws IOException {
+        if (value == null) {
+            generator.writeNullField(name);
+        } else {
+            generator.writeNumberField(name, value);
+        }
+    }
+
+    private static void writeCsv(Writer writer, Order order) throws IOException {
+        writer.write(Long.toString(order.getId()));
+        writer.write(',');
+        if (order.getName() != null) {
+            writeCsvText(writer, order.getName());
+        }
+        writer.write(',');
+        if (order.getCount() != null) {
+            writer.write(Long.toString(order.getCount()));
+        }
+        writer.write(',');
+        if (order.getUserId() != null) {
+            writer.write(Long.toString(order.getUserId()));
+        }
+        writer.write(',');
+        if (order.getCreationDate() != null) {
+            writer.write(order.getCreationDate().toInstant().toString());
+        }
+        writer.write(',');
+        if (order.getStatus() != null) {
+            writer.write(order.getStatus().name());
+        }
+        writer.write('\n');
+    }
+
+    private static void writeCsvText(Writer writer, String text) throws IOException {
+        boolean quoted = false;
+        for (int i = 0; i < text.length() && !quoted; i++) {
+            char c = text.charAt(i);
+            quoted = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!quoted) {
+            writer.write(text);
+            return;
+        }
+        writer.write('"');
+        writer.write(text.replace("\"", "\"\""));
+        writer.write('"');
+    }
+
+    public enum Format {
+        NDJSON("application/x-ndjson"),
+        CSV("text/csv");
+
+        private final String contentType;
+
+        Format(String contentType) {
+            this.contentType = contentType;
+        }
+
+        public String getContentType() {
+            return contentType;
+        }
+
+        static Format parse(String format) {
+            for (Format value : values()) {
+                if (value.name().equalsIgnoreCase(format)) {
+                    return value;
+                }
+            }
+            throw new InvalidParametersException("format must be ndjson or csv");
+        }
+    }
+
+    @FunctionalInterface
+    public interface Target {
+        OutputStream open(Format format) throws IOException;
+    }
+
+    @FunctionalInterface
+    private interface RowWriter {
+        void write(Order order) throws IOException;
+    }
+
+    private static class CountingOutputStream extends FilterOutputStream {
+        long count;
+
+        CountingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            count += len;
+        }
+    }
+}
@@ -0,0 +1,231 @@
+package org.example.services;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.example.model.Order;
+import org.example.model.OrderRepository;
+import org.example.model.ServiceUnavailableException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.LockSupport;
+
+@Slf4j
+@Service
+@ConditionalOnProperty(name = "orders.group-commit.enabled", havingValue = "true")
+public class OrderGroupCommitter {
+
+    @Autowired
+    private OrderRepository repository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${orders.group-commit.max-batch-size}")
+    private int maxBatchSize;
+
+    @Value("${orders.group-commit.max-wait}")
+    private Duration maxWait;
+
+    @Value("${orders.group-commit.timeout}")
+    private Duration timeout;
+
+    private final ConcurrentLinkedQueue<PendingOrder> queue = new ConcurrentLinkedQueue<>();
+    private DistributionSummary batchSizes;
+    private Thread writer;
+    private volatile boolean running;
+
+    @PostConstruct
+    void start() {
+        batchSizes = DistributionSummary.builder("orders.group-commit.batch-size").register(meterRegistry);
+        running = true;
+        writer = new Thread(this::write, "order-group-commit");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        running = false;
+        LockSupport.unpark(writer);
+        writer.join(maxWait.toMillis() + 5000);
+    }
+
+    /**
+     * Waits for the writer to take the order at most {@code orders.group-commit.timeout}. An order that
+     * times out in the queue is withdrawn and never written; once the writer has taken it, the caller
+     * waits for its batch to commit or fail, so a committed order is never reported as failed. Inside
+     * a transaction of the caller the order is saved in that transaction, so it commits or rolls back with it.
+     */
+    public Order save(Order order) {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return repository.save(order);
+        }
+        if (!running) {
+            throw new ServiceUnavailableException("order writer is stopped");
+        }
+        PendingOrder pending = new PendingOrder(order);
+        queue.offer(pending);
+        LockSupport.unpark(writer);
+        if (!running) {
+            // the writer may have exited after the check above, without seeing this order
+            failQueued();
+        }
+        try {
+            return pending.result.get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            if (pending.cancel()) {
+                queue.remove(pending);
+                throw new ServiceUnavailableException("order writer did not commit in time");
+            }
+            return await(pending);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            if (pending.cancel()) {
+                queue.remove(pending);
+                throw new ServiceUnavailableException("interrupted while waiting for the order writer");
+            }
+            return await(pending);
+        } catch (ExecutionException e) {
+            throw failure(e.getCause());
+        }
+    }
+
+    // the writer has taken the order, so its batch is committing and the outcome must be reported
+    private static Order await(PendingOrder pending) {
+        try {
+            return pending.result.join();
+        } catch (CompletionException e) {
+            throw failure(e.getCause());
+        }
+    }
+
+    private static RuntimeException failure(Throwable cause) {
+        if (cause instanceof RuntimeException runtime) {
+            return runtime;
+        }
+        return new IllegalStateException("group commit failed", cause);
+    }
+
+    private void write() {
+        List<PendingOrder> batch = new ArrayList<>(maxBatchSize);
+        try {
+            while (running || !queue.isEmpty()) {
+                PendingOrder first = queue.poll();
+                if (first == null) {
+                    LockSupport.park(this);
+                    continue;
+                }
+                if (!first.take()) {
+                    continue;
+                }
+                batch.add(first);
+                long deadline = System.nanoTime() + maxWait.toNanos();
+                while (batch.size() < maxBatchSize) {
+                    PendingOrder next = queue.poll();
+                    if (next != null) {
+                        if (next.take()) {
+                            batch.add(next);
+                        }
+                        continue;
+                    }
+                    long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0 || !running) {
+                        break;
+                    }
+                    LockSupport.parkNanos(this, remaining);
+                }
+                flush(batch);
+                batch.clear();
+            }
+        } catch (Throwable e) {
+            log.error("order writer stopped", e);
+            batch.forEach(pending -> pending.result.completeExceptionally(e));
+        } finally {
+            running = false;
+            failQueued();
+        }
+    }
+
+    /**
+     * Commits the batch with one {@code saveAll}, which is a single transaction (one per shard with
+     * sharding, so the writer does not pin a transaction to one shard); if that fails, commits its orders one at a time, so only
+     * the orders that fail on their own get the error.
+     */
+    private void flush(List<PendingOrder> batch) {
+        batchSizes.record(batch.size());
+        try {
+            commit(batch);
+            return;
+        } catch (RuntimeException e) {
+            if (batch.size() == 1) {
+                batch.get(0).result.completeExceptionally(e);
+                return;
+            }
+            log.warn("group commit of {} orders failed, committing them one at a time: {}", batch.size(), e.getMessage());
+        } catch (Throwable e) {
+            log.error("group commit of {} orders failed", batch.size(), e);
+            batch.forEach(pending -> pending.result.completeExceptionally(e));
+            return;
+        }
+        for (PendingOrder pending : batch) {
+            try {
+                commit(List.of(pending));
+            } catch (Throwable e) {
+                pending.result.completeExceptionally(e);
+            }
+        }
+    }
+
+    private void commit(List<PendingOrder> batch) {
+        // a failed attempt may have assigned ids that were rolled back with it
+        batch.forEach(pending -> pending.order.setId(pending.id));
+        repository.saveAll(batch.stream().map(pending -> pending.order).toList());
+        batch.forEach(pending -> pending.result.complete(pending.order));
+    }
+
+    private void failQueued() {
+        ServiceUnavailableException stopped = new ServiceUnavailableException("order writer is stopped");
+        PendingOrder pending;
+        while ((pending = queue.poll()) != null) {
+            pending.result.completeExceptionally(stopped);
+        }
+    }
+
+    private static class PendingOrder {
+        final Order order;
+        final Long id;
+        final CompletableFuture<Order> result = new CompletableFuture<>();
+        // set once, either by the writer taking the order or by the caller withdrawing it
+        private final AtomicBoolean claimed = new AtomicBoolean();
+
+        PendingOrder(Order order) {
+            this.order = order;
+            this.id = order.getId();
+        }
+
+        boolean take() {
+            return claimed.compareAndSet(false, true);
+        }
+
+        boolean cancel() {
+            return claimed.compareAndSet(false, true);
+        }
+    }
+}
@@ -1,11 +1,27 @@
 package org.example.services;
 
 import feign.FeignException;
+import io.grpc.StatusRuntimeException;
+import jakarta.annotation.PostConstruct;
 import org.example.model.*;
+import org.example.util.AdaptiveConcurrencyLimiter;
+import org.example.util.AdaptiveConcurrencyLimiter.Priority;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.Instant;
+import java.util.Date;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
 
 @Service
 public class OrderService {
@@ -15,35 +31,221 @@ public class OrderService {
     @Autowired
     private UserClient userClient;
 
+    @Autowired(required = false)
+    private UserReplica userReplica;
+
+    @Autowired(required = false)
+    private OrderJdbcRepository jdbcRepository;
+
+    @Autowired(required = false)
+    private OrderGroupCommitter groupCommitter;
+
+    @Autowired(required = false)
+    private OrderValidator validator;
+
+    @Autowired
+    private OrderEventBus eventBus;
+
+    @Autowired(required = false)
+    private OrderAnalytics analytics;
+
+    @Autowired(required = false)
+    @Qualifier("userClientLimiter")
+    private AdaptiveConcurrencyLimiter userClientLimiter;
+
+    @Value("${orders.bulk-delete.max-ids}")
+    private int maxBulkDeleteIds;
+
+    @Value("${orders.storage.fast-path:}")
+    private Set<String> fastPath;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    // the user-service check runs before it, so no connection is held across the remote call
+    private TransactionTemplate readTransaction;
+
+    // JDBC fast-path writes would autocommit outside it, skipping the replica position update on commit
+    private TransactionTemplate writeTransaction;
+
+    @PostConstruct
+    void init() {
+        readTransaction = new TransactionTemplate(transactionManager);
+        readTransaction.setReadOnly(true);
+        writeTransaction = new TransactionTemplate(transactionManager);
+    }
+
+    @Transactional(readOnly = true)
     public Order getOrderByOrderId(Long orderId) {
         validateOrderId(orderId);
-        return repository.findById(orderId).orElseThrow(() -> new NotFoundException("order not found"));
+        return findOrder(orderId).orElseThrow(() -> new NotFoundException("order not found"));
     }
 
     public List<Order> getAllOrdersByUserId(Long userId) {
-        validateUserId(userId);
-        return repository.findAllByUserId(userId);
+        validateUserId(userId, Priority.READ);
+        return readTransaction.execute(status -> repository.findAllByUserId(userId));
+    }
+
+    @Transactional(readOnly = true)
+    public Map<String, Object> getOrderByOrderId(Long orderId, String fields) {
+        validateOrderId(orderId);
+        List<String> selected = OrderRepository.FIELDS.parse(fields);
+        return repository.findProjectedById(orderId, selected).orElseThrow(() -> new NotFoundException("order not found"));
+    }
+
+    public List<Map<String, Object>> getAllOrdersByUserId(Long userId, String fields) {
+        List<String> selected = OrderRepository.FIELDS.parse(fields);
+        validateUserId(userId, Priority.READ);
+        return readTransaction.execute(status -> repository.findAllProjectedByUserId(userId, selected));
     }
 
     public void deleteOrderByOrderId(Long orderId) {
         validateOrderId(orderId);
-        repository.deleteById(orderId);
+        Order deleted = analytics != null ? findOrder(orderId).orElse(null) : null;
+        boolean removed = fastPath("delete-by-id")
+                ? Boolean.TRUE.equals(writeTransaction.execute(status -> jdbcRepository.deleteById(orderId)))
+                : repository.deleteOrderById(orderId) > 0;
+        if (!removed) {
+            return;
+        }
+        afterCommit(() -> {
+            eventBus.orderDeleted(orderId);
+            if (deleted != null && deleted.getStatus() != OrderStatus.REJECTED) {
+                analytics.orderRemoved(deleted);
+            }
+        });
     }
 
-    public Order createOrder(Long userId, OrderDTO orderDTO) {
-        validateUserId(userId);
+    public long deleteOrdersByIds(List<Long> orderIds) {
+        if (orderIds == null || orderIds.isEmpty() || orderIds.size() > maxBulkDeleteIds) {
+            throw new InvalidParametersException("ids must contain from 1 to " + maxBulkDeleteIds + " order ids");
+        }
+        orderIds.forEach(this::validateOrderId);
+        return repository.bulkDeleteByIds(orderIds, this::publishDeleted);
+    }
+
+    public long deleteAllOrdersByUserId(Long userId) {
+        validateId(userId);
+        return repository.bulkDeleteByUserId(userId, this::publishDeleted);
+    }
+
+    public long deleteOrdersCreatedBefore(Date cutoff) {
+        if (cutoff == null) {
+            throw new InvalidParametersException("createdBefore can't be null");
+        }
+        return repository.bulkDeleteCreatedBefore(cutoff, this::publishDeleted);
+    }
 
+    public Order createOrder(Long userId, OrderDTO orderDTO) {
         Order order = new Order(orderDTO.getName(), orderDTO.getCount(), userId);
-        repository.save(order);
+        if (validator != null && !(userReplica != null && userReplica.contains(userId))) {
+            validateId(userId);
+            validator.checkCapacity();
+            order.setStatus(OrderStatus.PENDING);
+        } else {
+            validateUserId(userId, Priority.WRITE);
+        }
+
+        if (groupCommitter != null) {
+            groupCommitter.save(order);
+        } else if (fastPath("save")) {
+            writeTransaction.executeWithoutResult(status -> jdbcRepository.insert(order));
+        } else {
+            repository.save(order);
+        }
+        afterCommit(() -> {
+            eventBus.orderCreated(order);
+            if (analytics != null) {
+                analytics.orderAdded(order);
+            }
+            if (order.getStatus() == OrderStatus.PENDING) {
+                validator.submit(order);
+            }
+        });
         return order;
     }
 
-    private void validateUserId(Long userId) {
+    public OrderAnalyticsReport getAnalytics(String window, Integer last, Integer top) {
+        if (analytics == null) {
+            throw new NotFoundException("order analytics are disabled");
+        }
+        if (last == null || top == null) {
+            throw new InvalidParametersException("last and top can't be null");
+        }
+        return analytics.report(window, last, top);
+    }
+
+    public long recomputeAnalytics(Instant from, Instant to) {
+        if (analytics == null) {
+            throw new NotFoundException("order analytics are disabled");
+        }
+        return analytics.recompute(from, to);
+    }
+
+    private Optional<Order> findOrder(Long orderId) {
+        return fastPath("find-by-id") ? jdbcRepository.findById(orderId) : repository.findById(orderId);
+    }
+
+    private boolean fastPath(String operation) {
+        return jdbcRepository != null && fastPath.contains(operation);
+    }
+
+    /**
+     * Runs the action after the commit of the caller's transaction, if there is one, so that a change
+     * that is rolled back never reaches other threads or subscribers; otherwise runs it right away.
+     */
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private void publishDeleted(List<Order> orders) {
+        for (Order order : orders) {
+            eventBus.orderDeleted(order.getId());
+            if (analytics != null && order.getStatus() != OrderStatus.REJECTED) {
+                analytics.orderRemoved(order);
+            }
+        }
+    }
+
+    private void validateUserId(Long userId, Priority priority) {
         validateId(userId);
+        if (userReplica != null && userReplica.contains(userId)) {
+            return;
+        }
+        AdaptiveConcurrencyLimiter.Permit permit = null;
+        if (userClientLimiter != null) {
+            permit = userClientLimiter.tryAcquire(priority);
+            if (permit == null) {
+                throw new ServiceUnavailableException("user-service is overloaded, retry later");
+            }
+        }
+        boolean overloaded = true;
         try {
             userClient.getUserById(userId);
-        } catch (FeignException.FeignClientException e) {
+            overloaded = false;
+        } catch (FeignException.NotFound | NotFoundException e) {
+            overloaded = false;
             throw new InvalidParametersException("this user doesn't exist");
+        } catch (FeignException | StatusRuntimeException e) {
+            // a 429 or any other error does not say anything about the user
+            throw new ServiceUnavailableException("user-service is unavailable, retry later");
+        } finally {
+            if (permit != null) {
+                if (overloaded) {
+                    permit.drop();
+                } else {
+                    permit.release();
+                }
+            }
         }
     }
 
@@ -0,0 +1,108 @@
+package org.example.services;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.example.config.ShardRoutingDataSource;
+import org.example.model.ShardedOrderRepository;
+import org.example.util.ConsistentHashRing;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+@Slf4j
+@Service
+@ConditionalOnProperty(name = "orders.sharding.enabled", havingValue = "true")
+public class OrderShardRebalancer {
+
+    @Autowired
+    private ShardedOrderRepository repository;
+
+    @Autowired
+    private ShardRoutingDataSource dataSource;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${orders.sharding.rebalance-batch-size}")
+    private int batchSize;
+
+    private Counter movedOrders;
+
+    @PostConstruct
+    void registerMetrics() {
+        movedOrders = Counter.builder("orders.sharding.moved").register(meterRegistry);
+    }
+
+    public synchronized long rebalance(Collection<Integer> shards) {
+        ConsistentHashRing target = repository.beginRebalance(shards);
+        long moved = 0;
+        for (int shard = 0; shard < dataSource.getShardCount(); shard++) {
+            moved += drain(shard, target);
+        }
+        repository.finishRebalance();
+        log.info("orders rebalanced onto shards {}, moved {} orders", target.getShards(), moved);
+        return moved;
+    }
+
+    private long drain(int shard, ConsistentHashRing target) {
+        JdbcTemplate source = new JdbcTemplate(dataSource.getShard(shard));
+        TransactionTemplate sourceTransaction = new TransactionTemplate(new DataSourceTransactionManager(dataSource.getShard(shard)));
+        long moved = 0;
+        long after = Long.MIN_VALUE;
+        List<Long> ids;
+        do {
+            ids = source.queryForList("SELECT id FROM orders WHERE id > ? ORDER BY id LIMIT ?", Long.class, after, batchSize);
+            if (ids.isEmpty()) {
+                break;
+            }
+            after = ids.get(ids.size() - 1);
+            List<Long> batch = ids;
+            moved += sourceTransaction.execute(status -> move(source, batch, shard, target));
+        } while (ids.size() == batchSize);
+        return moved;
+    }
+
+    /**
+     * Locks the rows of the batch that still exist on the source shard, copies them as they are now
+     * to their target shards and deletes them from the source in the same transaction, so an order
+     * deleted or updated after the batch was selected is neither resurrected nor copied stale.
+     */
+    private long move(JdbcTemplate source, List<Long> ids, int shard, ConsistentHashRing target) {
+        String idList = ids.stream().map(String::valueOf).collect(Collectors.joining(","));
+        List<Map<String, Object>> rows = source.queryForList("SELECT * FROM orders WHERE id IN (" + idList + ") FOR UPDATE");
+        Map<Integer, List<Map<String, Object>>> byTarget = rows.stream()
+                .filter(row -> target.shardFor(((Number) row.get("user_id")).longValue()) != shard)
+                .collect(Collectors.groupingBy(row -> target.shardFor(((Number) row.get("user_id")).longValue())));
+        long moved = 0;
+        for (Map.Entry<Integer, List<Map<String, Object>>> entry : byTarget.entrySet()) {
+            copy(entry.getValue(), new JdbcTemplate(dataSource.getShard(entry.getKey())));
+            source.batchUpdate("DELETE FROM orders WHERE id = ?",
+                    entry.getValue().stream().map(row -> new Object[]{row.get("id")}).toList());
+            moved += entry.getValue().size();
+            movedOrders.increment(entry.getValue().size());
+        }
+        return moved;
+    }
+
+    private void copy(List<Map<String, Object>> rows, JdbcTemplate target) {
+        String ids = rows.stream().map(row -> row.get("id").toString()).collect(Collectors.joining(","));
+        Set<Long> existing = new HashSet<>(target.queryForList("SELECT id FROM orders WHERE id IN (" + ids + ")", Long.class));
+        List<String> columns = new ArrayList<>(rows.get(0).keySet());
+        String sql = "INSERT INTO orders (" + String.join(", ", columns) + ") VALUES ("
+                + String.join(", ", Collections.nCopies(columns.size(), "?")) + ")";
+        List<Object[]> inserts = rows.stream()
+                .filter(row -> !existing.contains(((Number) row.get("id")).longValue()))
+                .map(row -> columns.stream().map(row::get).toArray())
+                .toList();
+        target.batchUpdate(sql, inserts);
+    }
+}
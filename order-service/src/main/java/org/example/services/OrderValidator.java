@@ -0,0 +1,220 @@
+package org.example.services;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.example.model.*;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Confirms or rejects PENDING orders in the background. Every round takes up to a batch of orders
+ * from the queue and checks all of their users with one lookup; if the lookup fails, the orders
+ * go back to the head of the queue and are retried after the retry interval. The queue lives in
+ * memory only, so on startup it is refilled with the orders that are still PENDING in the database.
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(name = "orders.validation.mode", havingValue = "deferred")
+public class OrderValidator {
+
+    @Autowired
+    private OrderRepository repository;
+
+    @Autowired
+    private UserClient userClient;
+
+    @Autowired(required = false)
+    private UserReplica userReplica;
+
+    @Autowired
+    private OrderEventBus eventBus;
+
+    @Autowired(required = false)
+    private OrderAnalytics analytics;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${orders.validation.batch-size}")
+    private int batchSize;
+
+    @Value("${orders.validation.interval}")
+    private Duration interval;
+
+    @Value("${orders.validation.retry-interval}")
+    private Duration retryInterval;
+
+    @Value("${orders.validation.max-queue}")
+    private int maxQueue;
+
+    private final LinkedBlockingDeque<PendingOrder> queue = new LinkedBlockingDeque<>();
+    private Thread worker;
+    private volatile boolean running;
+    private Counter confirmed;
+    private Counter rejected;
+    private Counter retried;
+
+    @PostConstruct
+    void start() {
+        Gauge.builder("orders.validation.queue.depth", queue, Collection::size).register(meterRegistry);
+        TimeGauge.builder("orders.validation.queue.age", this, TimeUnit.MILLISECONDS, OrderValidator::getOldestAgeMillis)
+                .register(meterRegistry);
+        confirmed = Counter.builder("orders.validation.results").tag("result", "confirmed").register(meterRegistry);
+        rejected = Counter.builder("orders.validation.results").tag("result", "rejected").register(meterRegistry);
+        retried = Counter.builder("orders.validation.results").tag("result", "retried").register(meterRegistry);
+        List<Order> pending = repository.findAllByStatus(OrderStatus.PENDING);
+        pending.forEach(this::submit);
+        if (!pending.isEmpty()) {
+            log.info("{} pending orders queued for validation", pending.size());
+        }
+        running = true;
+        worker = new Thread(this::run, "order-validator");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        running = false;
+        worker.interrupt();
+        worker.join(TimeUnit.SECONDS.toMillis(5));
+    }
+
+    /**
+     * Called before a PENDING order is saved, so that an order is never saved without being queued.
+     */
+    public void checkCapacity() {
+        if (queue.size() >= maxQueue) {
+            throw new ServiceUnavailableException("order validation queue is full");
+        }
+    }
+
+    public void submit(Order order) {
+        queue.offerLast(new PendingOrder(order, System.nanoTime()));
+    }
+
+    public int getQueueDepth() {
+        return queue.size();
+    }
+
+    public long getOldestAgeMillis() {
+        PendingOrder oldest = queue.peekFirst();
+        return oldest == null ? 0 : TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - oldest.enqueuedNanos());
+    }
+
+    private void run() {
+        List<PendingOrder> batch = new ArrayList<>(batchSize);
+        while (running) {
+            try {
+                PendingOrder first = queue.pollFirst(interval.toMillis(), TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                if (!validate(batch)) {
+                    Thread.sleep(retryInterval.toMillis());
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.warn("order validation failed", e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    /**
+     * @return false if some users could not be checked and their orders were queued again
+     */
+    boolean validate(List<PendingOrder> batch) {
+        Map<Long, List<PendingOrder>> byUser = new LinkedHashMap<>();
+        for (PendingOrder order : batch) {
+            byUser.computeIfAbsent(order.order().getUserId(), userId -> new ArrayList<>()).add(order);
+        }
+        Set<Long> existing = existingUsers(byUser.keySet());
+        List<PendingOrder> unchecked = new ArrayList<>();
+        for (Map.Entry<Long, List<PendingOrder>> user : byUser.entrySet()) {
+            if (existing == null) {
+                unchecked.addAll(user.getValue());
+                continue;
+            }
+            boolean exists = existing.contains(user.getKey());
+            for (PendingOrder order : user.getValue()) {
+                try {
+                    complete(order.order(), exists ? OrderStatus.CONFIRMED : OrderStatus.REJECTED);
+                } catch (RuntimeException e) {
+                    log.warn("order {} could not be completed", order.order().getId(), e);
+                    unchecked.add(order);
+                }
+            }
+        }
+        for (int i = unchecked.size() - 1; i >= 0; i--) {
+            // back to the head so the queue age keeps counting from the oldest order
+            queue.offerFirst(unchecked.get(i));
+        }
+        retried.increment(unchecked.size());
+        return unchecked.isEmpty();
+    }
+
+    /**
+     * @return the users that exist, null if they could not be checked
+     */
+    private Set<Long> existingUsers(Set<Long> userIds) {
+        Set<Long> existing = new HashSet<>();
+        List<Long> unknown = new ArrayList<>();
+        for (Long userId : userIds) {
+            if (userReplica != null && userReplica.contains(userId)) {
+                existing.add(userId);
+            } else {
+                unknown.add(userId);
+            }
+        }
+        if (unknown.isEmpty()) {
+            return existing;
+        }
+        try {
+            existing.addAll(userClient.getExistingUserIds(unknown));
+            return existing;
+        } catch (RuntimeException e) {
+            log.debug("{} users could not be checked: {}", unknown.size(), e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Changes the status only if the order is still PENDING, so an order deleted in the meantime is
+     * not written back.
+     */
+    private void complete(Order pending, OrderStatus status) {
+        if (repository.updateStatus(pending.getId(), OrderStatus.PENDING, status) == 0) {
+            return;
+        }
+        Order order = new Order(pending.getName(), pending.getCount(), pending.getUserId());
+        order.setId(pending.getId());
+        order.setCreationDate(pending.getCreationDate());
+        order.setStatus(status);
+        eventBus.orderValidated(order);
+        if (analytics != null && status == OrderStatus.REJECTED) {
+            analytics.orderRemoved(order);
+        }
+        (status == OrderStatus.CONFIRMED ? confirmed : rejected).increment();
+    }
+
+    record PendingOrder(Order order, long enqueuedNanos) {
+    }
+}
@@ -0,0 +1,104 @@
+package org.example.services;
+
+import feign.FeignException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.example.model.UserChange;
+import org.example.model.UserChangesClient;
+import org.example.util.ConcurrentLongHashSet;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.List;
+
+@Slf4j
+@Service
+@ConditionalOnProperty(name = "user.replica.enabled", havingValue = "true")
+public class UserReplica {
+
+    @Autowired
+    private UserChangesClient changesClient;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${user.replica.batch-size}")
+    private int batchSize;
+
+    @Value("${user.replica.max-lag}")
+    private Duration maxLag;
+
+    private final ConcurrentLongHashSet userIds = new ConcurrentLongHashSet();
+    private volatile long lastSequence;
+    private volatile long lastSyncMillis;
+
+    private Counter hits;
+    private Counter fallbacks;
+
+    @PostConstruct
+    void registerMetrics() {
+        Gauge.builder("user.replica.size", userIds, ConcurrentLongHashSet::size)
+                .register(meterRegistry);
+        Gauge.builder("user.replica.memory", userIds, ConcurrentLongHashSet::memoryBytes)
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        Gauge.builder("user.replica.sequence", this, UserReplica::getLastSequence)
+                .register(meterRegistry);
+        Gauge.builder("user.replica.lag", this, replica -> replica.getLag().toMillis() / 1000.0)
+                .baseUnit("seconds")
+                .register(meterRegistry);
+        hits = Counter.builder("user.replica.lookups").tag("result", "hit").register(meterRegistry);
+        fallbacks = Counter.builder("user.replica.lookups").tag("result", "fallback").register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${user.replica.poll-interval}")
+    public void sync() {
+        try {
+            List<UserChange> changes;
+            do {
+                changes = changesClient.getChanges(lastSequence, batchSize);
+                changes.forEach(this::apply);
+            } while (changes.size() >= batchSize);
+            lastSyncMillis = System.currentTimeMillis();
+        } catch (FeignException e) {
+            log.warn("user change feed is unavailable, replica stays at sequence {}: {}", lastSequence, e.getMessage());
+        }
+    }
+
+    public boolean contains(long userId) {
+        if (System.currentTimeMillis() - lastSyncMillis <= maxLag.toMillis() && userIds.contains(userId)) {
+            hits.increment();
+            return true;
+        }
+        fallbacks.increment();
+        return false;
+    }
+
+    public long getLastSequence() {
+        return lastSequence;
+    }
+
+    public Duration getLag() {
+        return lastSyncMillis == 0 ? maxLag.plusMillis(1) : Duration.ofMillis(System.currentTimeMillis() - lastSyncMillis);
+    }
+
+    public int size() {
+        return userIds.size();
+    }
+
+    private void apply(UserChange change) {
+        if ("CREATED".equals(change.getType())) {
+            userIds.add(change.getUserId());
+        } else if ("DELETED".equals(change.getType())) {
+            userIds.remove(change.getUserId());
+        }
+        lastSequence = change.getSequence();
+    }
+}
@@ -0,0 +1,139 @@
+package org.example.util;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+/**
+ * Open-addressing set of non-zero longs. Writers are serialized, readers never lock or allocate
+ * and see every key added before the last completed write.
+ */
+public class ConcurrentLongHashSet {
+    private static final long EMPTY = 0L;
+    private static final long REMOVED = Long.MIN_VALUE;
+    private static final int MIN_CAPACITY = 16;
+    private static final VarHandle SLOTS = MethodHandles.arrayElementVarHandle(long[].class);
+
+    private volatile long[] table;
+    private volatile int size;
+    private int used;
+
+    public ConcurrentLongHashSet() {
+        this(MIN_CAPACITY);
+    }
+
+    public ConcurrentLongHashSet(int expectedSize) {
+        table = new long[capacityFor(expectedSize)];
+    }
+
+    public boolean contains(long key) {
+        if (key == EMPTY || key == REMOVED) {
+            return false;
+        }
+        long[] slots = table;
+        int mask = slots.length - 1;
+        for (int i = index(key, mask); ; i = (i + 1) & mask) {
+            long current = (long) SLOTS.getAcquire(slots, i);
+            if (current == key) {
+                return true;
+            }
+            if (current == EMPTY) {
+                return false;
+            }
+        }
+    }
+
+    public synchronized boolean add(long key) {
+        checkKey(key);
+        long[] slots = table;
+        int mask = slots.length - 1;
+        int tombstone = -1;
+        for (int i = index(key, mask); ; i = (i + 1) & mask) {
+            long current = slots[i];
+            if (current == key) {
+                return false;
+            }
+            if (current == REMOVED && tombstone < 0) {
+                tombstone = i;
+            } else if (current == EMPTY) {
+                if (tombstone >= 0) {
+                    i = tombstone;
+                } else {
+                    used++;
+                }
+                SLOTS.setRelease(slots, i, key);
+                size++;
+                if (used > slots.length / 4 * 3) {
+                    rehash();
+                }
+                return true;
+            }
+        }
+    }
+
+    public synchronized boolean remove(long key) {
+        checkKey(key);
+        long[] slots = table;
+        int mask = slots.length - 1;
+        for (int i = index(key, mask); ; i = (i + 1) & mask) {
+            long current = slots[i];
+            if (current == key) {
+                SLOTS.setRelease(slots, i, REMOVED);
+                size--;
+                return true;
+            }
+            if (current == EMPTY) {
+                return false;
+            }
+        }
+    }
+
+    public synchronized void clear() {
+        table = new long[MIN_CAPACITY];
+        size = 0;
+        used = 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public long memoryBytes() {
+        return 16L + (long) table.length * Long.BYTES;
+    }
+
+    private void rehash() {
+        long[] old = table;
+        long[] slots = new long[capacityFor(size)];
+        int mask = slots.length - 1;
+        for (long key : old) {
+            if (key != EMPTY && key != REMOVED) {
+                int i = index(key, mask);
+                while (slots[i] != EMPTY) {
+                    i = (i + 1) & mask;
+                }
+                slots[i] = key;
+            }
+        }
+        used = size;
+        table = slots;
+    }
+
+    private static int capacityFor(int expectedSize) {
+        long needed = Math.max(MIN_CAPACITY, (long) expectedSize * 2);
+        if (needed > 1 << 30) {
+            throw new IllegalStateException("set is too large");
+        }
+        return Integer.highestOneBit((int) needed - 1) << 1;
+    }
+
+    private static int index(long key, int mask) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & mask;
+    }
+
+    private static void checkKey(long key) {
+        if (key == EMPTY || key == REMOVED) {
+            throw new IllegalArgumentException("key " + key + " is reserved");
+        }
+    }
+}
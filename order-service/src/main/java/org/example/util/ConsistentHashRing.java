@@ -0,0 +1,56 @@
+package org.example.util;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Immutable consistent-hash ring of integer shard ids. Adding or removing one of N shards moves
+ * about 1/N of the keys.
+ */
+public class ConsistentHashRing {
+    private final Set<Integer> shards;
+    private final long[] points;
+    private final int[] owners;
+
+    public ConsistentHashRing(Collection<Integer> shards, int virtualNodes) {
+        if (shards.isEmpty() || virtualNodes < 1) {
+            throw new IllegalArgumentException("ring needs at least one shard and one virtual node");
+        }
+        this.shards = Collections.unmodifiableSet(new TreeSet<>(shards));
+        long[][] entries = new long[this.shards.size() * virtualNodes][];
+        int i = 0;
+        for (int shard : this.shards) {
+            for (int node = 0; node < virtualNodes; node++) {
+                entries[i++] = new long[]{mix(mix(((long) shard << 32) | node)), shard};
+            }
+        }
+        Arrays.sort(entries, (a, b) -> Long.compare(a[0], b[0]));
+        points = new long[entries.length];
+        owners = new int[entries.length];
+        for (i = 0; i < entries.length; i++) {
+            points[i] = entries[i][0];
+            owners[i] = (int) entries[i][1];
+        }
+    }
+
+    public int shardFor(long key) {
+        int i = Arrays.binarySearch(points, mix(key));
+        if (i < 0) {
+            i = -i - 1;
+        }
+        return owners[i == points.length ? 0 : i];
+    }
+
+    public Set<Integer> getShards() {
+        return shards;
+    }
+
+    private static long mix(long x) {
+        x = (x ^ (x >>> 33)) * 0xff51afd7ed558ccdL;
+        x = (x ^ (x >>> 33)) * 0xc4ceb9fe1a85ec53L;
+        return x ^ (x >>> 33);
+    }
+}
@@ -0,0 +1,68 @@
+package org.example.util;
+
+/**
+ * Count-min sketch over string keys: {@code depth} rows of {@code width} counters, a key adds to one
+ * counter per row and its estimate is the smallest of them, so it never underestimates as long as
+ * every counter stays non-negative (keys are only removed after being added). The row indexes come
+ * from one 64-bit FNV-1a hash split in two halves (h1 + i * h2). Not thread-safe.
+ */
+public class CountMinSketch {
+    private final int depth;
+    private final int mask;
+    private final long[] counters;
+
+    public CountMinSketch(int depth, int width) {
+        if (depth < 1 || Integer.bitCount(width) != 1) {
+            throw new IllegalArgumentException("depth must be positive and width a power of two");
+        }
+        this.depth = depth;
+        this.mask = width - 1;
+        this.counters = new long[depth * width];
+    }
+
+    public void add(String key, long delta) {
+        add(hash(key), delta);
+    }
+
+    public void add(long hash, long delta) {
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32) | 1;
+        for (int row = 0; row < depth; row++) {
+            counters[row * (mask + 1) + ((h1 + row * h2) & mask)] += delta;
+        }
+    }
+
+    public long estimate(String key) {
+        return estimate(hash(key));
+    }
+
+    /**
+     * @param hash {@link #hash} of the key, so that a key estimated in many sketches is hashed once
+     */
+    public long estimate(long hash) {
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32) | 1;
+        long estimate = Long.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            estimate = Math.min(estimate, counters[row * (mask + 1) + ((h1 + row * h2) & mask)]);
+        }
+        return estimate;
+    }
+
+    public void merge(CountMinSketch other) {
+        if (other.depth != depth || other.mask != mask) {
+            throw new IllegalArgumentException("sketches have different dimensions");
+        }
+        for (int i = 0; i < counters.length; i++) {
+            counters[i] += other.counters[i];
+        }
+    }
+
+    public static long hash(String key) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < key.length(); i++) {
+            hash = (hash ^ key.charAt(i)) * 0x100000001b3L;
+        }
+        return hash ^ hash >>> 29;
+    }
+}
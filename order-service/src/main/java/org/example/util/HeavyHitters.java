@@ -0,0 +1,160 @@
+package org.example.util;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Approximate top-K keys: a {@link CountMinSketch} counts every key and a min-heap of at most
+ * {@code k} candidates keeps the keys with the largest estimates. A key that is not a candidate
+ * replaces the smallest one once its estimate is larger; a candidate whose estimate drops to zero
+ * leaves the heap. Every update is O(depth + log k) and memory does not depend on the number of
+ * distinct keys. Not thread-safe.
+ */
+public class HeavyHitters {
+    private final int k;
+    private final CountMinSketch sketch;
+    private final String[] keys;
+    private final long[] counts;
+    private final Map<String, Integer> positions = new HashMap<>();
+    private int size;
+
+    public HeavyHitters(int k, int depth, int width) {
+        this.k = k;
+        this.sketch = new CountMinSketch(depth, width);
+        this.keys = new String[k];
+        this.counts = new long[k];
+    }
+
+    public void add(String key, long delta) {
+        long hash = CountMinSketch.hash(key);
+        sketch.add(hash, delta);
+        offer(key, sketch.estimate(hash));
+    }
+
+    public long estimate(String key) {
+        return sketch.estimate(key);
+    }
+
+    public long estimate(long hash) {
+        return sketch.estimate(hash);
+    }
+
+    public void forEachCandidate(Consumer<String> action) {
+        for (int i = 0; i < size; i++) {
+            action.accept(keys[i]);
+        }
+    }
+
+    /**
+     * Adds the counts of another instance with the same dimensions; candidates of both are
+     * estimated again against the merged sketch.
+     */
+    public void merge(HeavyHitters other) {
+        sketch.merge(other.sketch);
+        List<String> candidates = new ArrayList<>(size + other.size);
+        for (int i = 0; i < size; i++) {
+            candidates.add(keys[i]);
+        }
+        for (int i = 0; i < other.size; i++) {
+            candidates.add(other.keys[i]);
+        }
+        for (String key : candidates) {
+            offer(key, sketch.estimate(key));
+        }
+    }
+
+    /**
+     * @return up to {@code n} candidates with their estimates, largest first
+     */
+    public List<Map.Entry<String, Long>> top(int n) {
+        List<Map.Entry<String, Long>> top = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            top.add(Map.entry(keys[i], counts[i]));
+        }
+        top.sort(Map.Entry.<String, Long>comparingByValue(Comparator.reverseOrder()).thenComparing(Map.Entry.comparingByKey()));
+        return top.subList(0, Math.min(n, top.size()));
+    }
+
+    private void offer(String key, long estimate) {
+        Integer position = positions.get(key);
+        if (position != null) {
+            if (estimate <= 0) {
+                remove(position);
+            } else {
+                long previous = counts[position];
+                counts[position] = estimate;
+                if (estimate > previous) {
+                    siftDown(position);
+                } else {
+                    siftUp(position);
+                }
+            }
+        } else if (estimate > 0) {
+            if (size < k) {
+                set(size, key, estimate);
+                siftUp(size++);
+            } else if (estimate > counts[0]) {
+                positions.remove(keys[0]);
+                set(0, key, estimate);
+                siftDown(0);
+            }
+        }
+    }
+
+    private void remove(int position) {
+        positions.remove(keys[position]);
+        size--;
+        if (position != size) {
+            set(position, keys[size], counts[size]);
+            siftDown(position);
+            siftUp(position);
+        }
+        keys[size] = null;
+    }
+
+    private void siftUp(int position) {
+        while (position > 0) {
+            int parent = (position - 1) >>> 1;
+            if (counts[parent] <= counts[position]) {
+                return;
+            }
+            swap(position, parent);
+            position = parent;
+        }
+    }
+
+    private void siftDown(int position) {
+        while (true) {
+            int smallest = position;
+            int left = 2 * position + 1;
+            if (left < size && counts[left] < counts[smallest]) {
+                smallest = left;
+            }
+            if (left + 1 < size && counts[left + 1] < counts[smallest]) {
+                smallest = left + 1;
+            }
+            if (smallest == position) {
+                return;
+            }
+            swap(position, smallest);
+            position = smallest;
+        }
+    }
+
+    private void swap(int a, int b) {
+        String key = keys[a];
+        long count = counts[a];
+        set(a, keys[b], counts[b]);
+        set(b, key, count);
+    }
+
+    private void set(int position, String key, long count) {
+        keys[position] = key;
+        counts[position] = count;
+        positions.put(key, position);
+    }
+}
@@ -0,0 +1,234 @@
+package org.example.util;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Power-of-two-choices over instance URLs: of two random instances, the one with the lower cost takes
+ * the call. The cost is a peak-sensitive EWMA of the latency times the calls in flight plus one, so
+ * a slow or busy instance gets less traffic; a latency above the average replaces it at once, a failure
+ * doubles it, and the average decays with {@code decay} while the instance gets no calls, so a
+ * penalized instance is tried again. After {@code ejectionFailures} failures in a row an instance is ejected for {@code ejectionTime}
+ * times the number of its ejections in a row, unless that would eject more than
+ * {@code maxEjectedShare} of the instances.
+ */
+public class LoadBalancer {
+    private final String name;
+    private final long decayNanos;
+    private final int ejectionFailures;
+    private final long ejectionNanos;
+    private final double maxEjectedShare;
+    private final MeterRegistry meterRegistry;
+    private volatile Instance[] instances = new Instance[0];
+
+    public LoadBalancer(String name, Duration decay, int ejectionFailures, Duration ejectionTime,
+                        double maxEjectedShare, MeterRegistry meterRegistry) {
+        if (ejectionFailures < 1 || maxEjectedShare < 0 || maxEjectedShare >= 1) {
+            throw new IllegalArgumentException("ejection-failures must be positive and max-ejected-share in [0, 1)");
+        }
+        this.name = name;
+        this.decayNanos = decay.toNanos();
+        this.ejectionFailures = ejectionFailures;
+        this.ejectionNanos = ejectionTime.toNanos();
+        this.maxEjectedShare = maxEjectedShare;
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Replaces the instance list; instances that stay keep their statistics, new ones start with the
+     * average latency of the others, so they neither take all calls nor none.
+     */
+    public synchronized void setInstances(List<String> urls) {
+        if (urls.isEmpty()) {
+            throw new IllegalArgumentException("at least one instance is required");
+        }
+        Map<String, Instance> current = new HashMap<>();
+        double latency = 0;
+        for (Instance instance : instances) {
+            current.put(instance.url, instance);
+            latency += instance.ewmaNanos / instances.length;
+        }
+        Instance[] updated = new Instance[urls.size()];
+        for (int i = 0; i < updated.length; i++) {
+            Instance instance = current.remove(urls.get(i));
+            updated[i] = instance != null ? instance : new Instance(urls.get(i), latency);
+        }
+        instances = updated;
+        current.values().forEach(Instance::removeMeters);
+    }
+
+    public List<Instance> getInstances() {
+        return List.of(instances);
+    }
+
+    /**
+     * @param excluded an instance that must not be chosen if there is another one, or {@code null}
+     */
+    public Instance choose(Instance excluded) {
+        Instance[] all = instances;
+        long now = System.nanoTime();
+        List<Instance> available = new ArrayList<>(all.length);
+        for (Instance instance : all) {
+            if (instance != excluded && !instance.isEjected(now)) {
+                available.add(instance);
+            }
+        }
+        if (available.isEmpty()) {
+            return all[ThreadLocalRandom.current().nextInt(all.length)];
+        }
+        if (available.size() == 1) {
+            return available.get(0);
+        }
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int first = random.nextInt(available.size());
+        int second = random.nextInt(available.size() - 1);
+        if (second >= first) {
+            second++;
+        }
+        Instance a = available.get(first);
+        Instance b = available.get(second);
+        return a.cost(now) <= b.cost(now) ? a : b;
+    }
+
+    private synchronized boolean tryEject(Instance instance, long now) {
+        int ejected = 0;
+        for (Instance other : instances) {
+            if (other.isEjected(now)) {
+                ejected++;
+            }
+        }
+        if (ejected + 1 > maxEjectedShare * instances.length) {
+            return false;
+        }
+        instance.ejections++;
+        instance.ejectedUntil = now + ejectionNanos * instance.ejections;
+        instance.ejected = true;
+        instance.ejectionCounter.increment();
+        return true;
+    }
+
+    public class Instance {
+        private final String url;
+        private final AtomicInteger outstanding = new AtomicInteger();
+        private final Timer successes;
+        private final Timer failures;
+        private final Counter ejectionCounter;
+        private final List<Meter> meters = new ArrayList<>();
+        private double ewmaNanos;
+        private long lastSample = System.nanoTime();
+        private int consecutiveFailures;
+        private int ejections;
+        private volatile boolean ejected;
+        private volatile long ejectedUntil;
+
+        Instance(String url, double ewmaNanos) {
+            this.url = url;
+            this.ewmaNanos = ewmaNanos;
+            this.successes = register(Timer.builder("load-balancer.calls").tag("outcome", "success"));
+            this.failures = register(Timer.builder("load-balancer.calls").tag("outcome", "failure"));
+            this.ejectionCounter = register(Counter.builder("load-balancer.ejections"));
+            meters.add(Gauge.builder("load-balancer.outstanding", outstanding, AtomicInteger::get)
+                    .tag("balancer", name).tag("instance", url).register(meterRegistry));
+            meters.add(Gauge.builder("load-balancer.ejected", this, instance -> instance.isEjected(System.nanoTime()) ? 1 : 0)
+                    .tag("balancer", name).tag("instance", url).register(meterRegistry));
+            meters.add(Gauge.builder("load-balancer.latency", this, instance -> instance.ewmaNanos / 1e6)
+                    .tag("balancer", name).tag("instance", url).baseUnit("milliseconds").register(meterRegistry));
+        }
+
+        public String getUrl() {
+            return url;
+        }
+
+        public int getOutstanding() {
+            return outstanding.get();
+        }
+
+        public boolean isEjected(long now) {
+            return ejected && ejectedUntil - now > 0;
+        }
+
+        /**
+         * Counts a call in flight; every call must be finished with {@link #complete} exactly once.
+         *
+         * @return the start time to pass to {@link #complete}
+         */
+        public long start() {
+            outstanding.incrementAndGet();
+            return System.nanoTime();
+        }
+
+        /**
+         * @param success whether the instance handled the call; client errors are successes
+         */
+        public void complete(long started, boolean success) {
+            long now = System.nanoTime();
+            long latency = now - started;
+            outstanding.decrementAndGet();
+            (success ? successes : failures).record(latency, TimeUnit.NANOSECONDS);
+            boolean eject;
+            synchronized (this) {
+                double weight = weight(now);
+                if (!success) {
+                    // a refused connection fails fast, which must not make the instance look cheap
+                    ewmaNanos = Math.max(ewmaNanos, latency) * 2;
+                } else if (latency > ewmaNanos) {
+                    ewmaNanos = latency;
+                } else {
+                    ewmaNanos = ewmaNanos * weight + latency * (1 - weight);
+                }
+                lastSample = now;
+                if (success) {
+                    consecutiveFailures = 0;
+                    ejections = 0;
+                    return;
+                }
+                eject = ++consecutiveFailures >= ejectionFailures && !isEjected(now);
+            }
+            if (eject && tryEject(this, now)) {
+                synchronized (this) {
+                    consecutiveFailures = 0;
+                }
+            }
+        }
+
+        synchronized double cost(long now) {
+            return (decayed(now) + 1) * (outstanding.get() + 1);
+        }
+
+        private double decayed(long now) {
+            return ewmaNanos * weight(now);
+        }
+
+        private double weight(long now) {
+            return Math.exp(-(double) (now - lastSample) / decayNanos);
+        }
+
+        private Timer register(Timer.Builder builder) {
+            Timer timer = builder.tag("balancer", name).tag("instance", url).register(meterRegistry);
+            meters.add(timer);
+            return timer;
+        }
+
+        private Counter register(Counter.Builder builder) {
+            Counter counter = builder.tag("balancer", name).tag("instance", url).register(meterRegistry);
+            meters.add(counter);
+            return counter;
+        }
+
+        private void removeMeters() {
+            meters.forEach(meterRegistry::remove);
+        }
+    }
+}
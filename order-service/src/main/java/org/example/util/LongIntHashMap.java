@@ -0,0 +1,140 @@
+package org.example.util;
+
+import java.util.Arrays;
+
+/**
+ * Open-addressing map from long keys to non-negative int values without boxing. Not thread-safe:
+ * writers must be serialized by the caller, concurrent readers must validate what they read.
+ */
+public class LongIntHashMap {
+    public static final int MISSING = -1;
+
+    private static final int MIN_CAPACITY = 16;
+
+    private long[] keys;
+    private int[] values;
+    private int size;
+
+    public LongIntHashMap() {
+        this(MIN_CAPACITY);
+    }
+
+    public LongIntHashMap(int expectedSize) {
+        int capacity = capacityFor(expectedSize);
+        keys = new long[capacity];
+        values = new int[capacity];
+        Arrays.fill(values, MISSING);
+    }
+
+    public int get(long key) {
+        long[] keys = this.keys;
+        int[] values = this.values;
+        int mask = Math.min(keys.length, values.length) - 1;
+        for (int i = index(key, mask), probes = 0; probes <= mask; i = (i + 1) & mask, probes++) {
+            int value = values[i];
+            if (value == MISSING) {
+                return MISSING;
+            }
+            if (keys[i] == key) {
+                return value;
+            }
+        }
+        return MISSING;
+    }
+
+    public void put(long key, int value) {
+        if (value < 0) {
+            throw new IllegalArgumentException("value must not be negative");
+        }
+        int mask = keys.length - 1;
+        int i = index(key, mask);
+        while (values[i] != MISSING) {
+            if (keys[i] == key) {
+                values[i] = value;
+                return;
+            }
+            i = (i + 1) & mask;
+        }
+        keys[i] = key;
+        values[i] = value;
+        if (++size > keys.length / 4 * 3) {
+            rehash(keys.length * 2);
+        }
+    }
+
+    public int remove(long key) {
+        int mask = keys.length - 1;
+        int i = index(key, mask);
+        while (values[i] != MISSING) {
+            if (keys[i] == key) {
+                int removed = values[i];
+                shiftBack(i, mask);
+                size--;
+                return removed;
+            }
+            i = (i + 1) & mask;
+        }
+        return MISSING;
+    }
+
+    public void clear() {
+        keys = new long[MIN_CAPACITY];
+        values = new int[MIN_CAPACITY];
+        Arrays.fill(values, MISSING);
+        size = 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public long memoryBytes() {
+        return 32L + (long) keys.length * (Long.BYTES + Integer.BYTES);
+    }
+
+    private void shiftBack(int hole, int mask) {
+        for (int i = (hole + 1) & mask; values[i] != MISSING; i = (i + 1) & mask) {
+            int home = index(keys[i], mask);
+            if (((i - home) & mask) >= ((i - hole) & mask)) {
+                keys[hole] = keys[i];
+                values[hole] = values[i];
+                hole = i;
+            }
+        }
+        values[hole] = MISSING;
+    }
+
+    private void rehash(int capacity) {
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+        long[] newKeys = new long[capacity];
+        int[] newValues = new int[capacity];
+        Arrays.fill(newValues, MISSING);
+        int mask = capacity - 1;
+        for (int j = 0; j < oldKeys.length; j++) {
+            if (oldValues[j] != MISSING) {
+                int i = index(oldKeys[j], mask);
+                while (newValues[i] != MISSING) {
+                    i = (i + 1) & mask;
+                }
+                newKeys[i] = oldKeys[j];
+                newValues[i] = oldValues[j];
+            }
+        }
+        keys = newKeys;
+        values = newValues;
+    }
+
+    private static int capacityFor(int expectedSize) {
+        long needed = Math.max(MIN_CAPACITY, (long) expectedSize * 2);
+        if (needed > 1 << 30) {
+            throw new IllegalStateException("map is too large");
+        }
+        return Integer.highestOneBit((int) needed - 1) << 1;
+    }
+
+    private static int index(long key, int mask) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & mask;
+    }
+}
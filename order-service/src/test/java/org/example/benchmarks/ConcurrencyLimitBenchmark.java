@@ -0,0 +1,82 @@
+package org.example.benchmarks;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.util.AdaptiveConcurrencyLimiter;
+import org.example.util.AdaptiveConcurrencyLimiter.Permit;
+import org.example.util.AdaptiveConcurrencyLimiter.Priority;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Closed-loop load at twice the capacity of a backend that shares its capacity between the calls in
+ * flight, so every call gets slower as the concurrency grows. A call is goodput if it finishes within
+ * the deadline; rejected clients back off before retrying.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 3)
+@Measurement(iterations = 5, time = 3)
+@Fork(1)
+@Threads(ConcurrencyLimitBenchmark.CAPACITY * 2)
+public class ConcurrencyLimitBenchmark {
+    static final int CAPACITY = 16;
+    private static final long SERVICE_MICROS = 10_000;
+    private static final long DEADLINE_NANOS = TimeUnit.MICROSECONDS.toNanos(SERVICE_MICROS * 3 / 2);
+    private static final long BACKOFF_MILLIS = 5;
+
+    @Param({"none", "aimd"})
+    private String limit;
+
+    private AdaptiveConcurrencyLimiter limiter;
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        limiter = limit.equals("none") ? null : new AdaptiveConcurrencyLimiter("benchmark", CAPACITY, 1, CAPACITY * 4,
+                Duration.ofNanos(SERVICE_MICROS * 1200), 1, new SimpleMeterRegistry());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        if (limiter != null) {
+            System.out.printf("%nlimit at the end: %d%n", limiter.getLimit());
+        }
+    }
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Calls {
+        public long goodput;
+        public long late;
+        public long rejected;
+    }
+
+    @Benchmark
+    public void call(Calls calls) throws InterruptedException {
+        Permit permit = limiter == null ? null : limiter.tryAcquire(Priority.WRITE);
+        if (limiter != null && permit == null) {
+            calls.rejected++;
+            Thread.sleep(BACKOFF_MILLIS);
+            return;
+        }
+        long start = System.nanoTime();
+        int concurrency = inFlight.incrementAndGet();
+        try {
+            TimeUnit.MICROSECONDS.sleep(SERVICE_MICROS * Math.max(CAPACITY, concurrency) / CAPACITY);
+        } finally {
+            inFlight.decrementAndGet();
+            if (permit != null) {
+                permit.release();
+            }
+        }
+        if (System.nanoTime() - start <= DEADLINE_NANOS) {
+            calls.goodput++;
+        } else {
+            calls.late++;
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package org.example.benchmarks;
+
+import org.example.OrderServiceApplication;
+import org.example.model.Order;
+import org.example.model.OrderJdbcRepository;
+import org.example.model.OrderRepository;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Single-row operations through Spring Data JPA and through {@link OrderJdbcRepository}, each in its own
+ * transaction like in {@code OrderService}. Run with {@code -prof gc} to see the allocation per operation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = "-Xmx2g")
+@Threads(1)
+public class JdbcFastPathBenchmark {
+
+    @Param({"jpa", "jdbc"})
+    private String path;
+
+    @Param({"100000"})
+    private int orders;
+
+    private ConfigurableApplicationContext context;
+    private OrderRepository repository;
+    private OrderJdbcRepository jdbcRepository;
+    private TransactionTemplate readTransaction;
+    private TransactionTemplate writeTransaction;
+    private long[] ids;
+
+    @Setup
+    public void setUp() {
+        context = new SpringApplicationBuilder(OrderServiceApplication.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.datasource.url=jdbc:h2:mem:fast-path-benchmark",
+                        "--spring.jpa.show-sql=false");
+        repository = context.getBean(OrderRepository.class);
+        jdbcRepository = context.getBean(OrderJdbcRepository.class);
+        PlatformTransactionManager transactionManager = context.getBean(PlatformTransactionManager.class);
+        readTransaction = new TransactionTemplate(transactionManager);
+        readTransaction.setReadOnly(true);
+        writeTransaction = new TransactionTemplate(transactionManager);
+        repository.deleteAll();
+
+        ids = new long[orders];
+        List<Order> batch = new ArrayList<>();
+        for (int i = 0; i < orders; i++) {
+            batch.add(new Order("Order " + i % 100, (long) i % 10, 1L + i % 1000));
+            if (batch.size() == 1000 || i == orders - 1) {
+                List<Order> saved = repository.saveAll(batch);
+                for (int j = 0; j < saved.size(); j++) {
+                    ids[i - saved.size() + 1 + j] = saved.get(j).getId();
+                }
+                batch.clear();
+            }
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        repository.deleteAll();
+        context.close();
+    }
+
+    @Benchmark
+    public Order findById() {
+        long id = ids[ThreadLocalRandom.current().nextInt(ids.length)];
+        return readTransaction.execute(status -> path.equals("jdbc")
+                ? jdbcRepository.findById(id).orElseThrow()
+                : repository.findById(id).orElseThrow());
+    }
+
+    @Benchmark
+    public Order saveAndDelete() {
+        Order order = new Order("Order", 1L, 1L);
+        writeTransaction.executeWithoutResult(status -> {
+            if (path.equals("jdbc")) {
+                jdbcRepository.insert(order);
+            } else {
+                repository.save(order);
+            }
+        });
+        writeTransaction.executeWithoutResult(status -> {
+            if (path.equals("jdbc")) {
+                jdbcRepository.deleteById(order.getId());
+            } else {
+                repository.deleteById(order.getId());
+            }
+        });
+        return order;
+    }
+}
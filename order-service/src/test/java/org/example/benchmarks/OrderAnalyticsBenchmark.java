@@ -0,0 +1,99 @@
+package org.example.benchmarks;
+
+import org.example.OrderServiceApplication;
+import org.example.model.Order;
+import org.example.model.OrderAnalyticsReport;
+import org.example.model.OrderRepository;
+import org.example.services.OrderAnalytics;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Incremental update and report of {@link OrderAnalytics} next to a full recompute of the last
+ * two days from the table (columnar storage, so that reading the table is not the bottleneck).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = "-Xmx2g")
+@Threads(1)
+public class OrderAnalyticsBenchmark {
+
+    @Param({"100000", "1000000"})
+    private int orders;
+
+    private ConfigurableApplicationContext context;
+    private OrderAnalytics analytics;
+    private Order[] created;
+
+    @Setup
+    public void setUp() {
+        context = new SpringApplicationBuilder(OrderServiceApplication.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.jpa.show-sql=false",
+                        "--orders.storage.engine=columnar",
+                        "--orders.analytics.enabled=true");
+        OrderRepository repository = context.getBean(OrderRepository.class);
+        analytics = context.getBean(OrderAnalytics.class);
+
+        long now = System.currentTimeMillis();
+        List<Order> batch = new ArrayList<>();
+        for (int i = 0; i < orders; i++) {
+            Order order = new Order("Product " + zipf(), (long) i % 10, 1L + i % 10_000);
+            order.setCreationDate(new Date(now - ThreadLocalRandom.current().nextLong(Duration.ofDays(2).toMillis())));
+            batch.add(order);
+            if (batch.size() == 10_000 || i == orders - 1) {
+                repository.saveAll(batch);
+                batch.clear();
+            }
+        }
+        analytics.recompute(Instant.ofEpochMilli(now).minus(Duration.ofDays(2)), Instant.ofEpochMilli(now + 1));
+
+        created = new Order[1024];
+        for (int i = 0; i < created.length; i++) {
+            created[i] = new Order("Product " + zipf(), 1L, 1L);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public void orderAdded() {
+        analytics.orderAdded(created[ThreadLocalRandom.current().nextInt(created.length)]);
+    }
+
+    @Benchmark
+    public OrderAnalyticsReport reportLastDayByHour() {
+        return analytics.report("hour", 24, 10);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 2)
+    @Measurement(iterations = 5)
+    public long recomputeLastTwoDays() {
+        Instant now = Instant.now();
+        return analytics.recompute(now.minus(Duration.ofDays(2)), now);
+    }
+
+    private static int zipf() {
+        // roughly Zipf-distributed product numbers out of 100 000
+        return (int) Math.pow(100_000, ThreadLocalRandom.current().nextDouble());
+    }
+}
@@ -0,0 +1,76 @@
+package org.example.benchmarks;
+
+import org.example.OrderServiceApplication;
+import org.example.model.Order;
+import org.example.model.OrderRepository;
+import org.example.services.OrderExporter;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Full export of the table through {@link OrderExporter} into a discarding stream, next to loading
+ * the same rows with {@code findAll}. Run with {@code -prof gc}: the export allocates per row but
+ * keeps no rows alive, so it also completes with a heap smaller than the table.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgs = "-Xmx2g")
+@Threads(1)
+public class OrderExportBenchmark {
+
+    @Param({"1000000"})
+    private int orders;
+
+    @Param({"ndjson", "csv"})
+    private String format;
+
+    private ConfigurableApplicationContext context;
+    private OrderRepository repository;
+    private OrderExporter exporter;
+
+    @Setup
+    public void setUp() {
+        context = new SpringApplicationBuilder(OrderServiceApplication.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.datasource.url=jdbc:h2:mem:export-benchmark",
+                        "--spring.jpa.show-sql=false",
+                        "--orders.analytics.enabled=false");
+        repository = context.getBean(OrderRepository.class);
+        exporter = context.getBean(OrderExporter.class);
+
+        List<Order> batch = new ArrayList<>();
+        for (int i = 0; i < orders; i++) {
+            batch.add(new Order("Order " + i % 100, (long) i % 10, 1L + i % 1000));
+            if (batch.size() == 10_000 || i == orders - 1) {
+                repository.saveAll(batch);
+                batch.clear();
+            }
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public long export() throws IOException {
+        return exporter.export(null, null, format, exportFormat -> OutputStream.nullOutputStream());
+    }
+
+    @Benchmark
+    public int findAll() {
+        return repository.findAll().size();
+    }
+}
@@ -0,0 +1,64 @@
+package org.example.benchmarks;
+
+import org.example.OrderServiceApplication;
+import org.example.model.Order;
+import org.example.model.OrderRepository;
+import org.example.services.OrderGroupCommitter;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(32)
+public class OrderGroupCommitBenchmark {
+
+    @Param({"false", "true"})
+    private boolean groupCommit;
+
+    @Param({"2ms"})
+    private String maxWait;
+
+    private Path dataDir;
+    private ConfigurableApplicationContext context;
+    private OrderRepository repository;
+    private OrderGroupCommitter groupCommitter;
+
+    @Setup
+    public void setUp() throws IOException {
+        dataDir = Files.createTempDirectory("orders-benchmark");
+        context = new SpringApplicationBuilder(OrderServiceApplication.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.datasource.url=jdbc:h2:file:" + dataDir.resolve("orders"),
+                        "--spring.jpa.show-sql=false",
+                        "--orders.group-commit.enabled=" + groupCommit,
+                        "--orders.group-commit.max-wait=" + maxWait);
+        repository = context.getBean(OrderRepository.class);
+        groupCommitter = groupCommit ? context.getBean(OrderGroupCommitter.class) : null;
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        context.close();
+        try (var files = Files.walk(dataDir)) {
+            files.sorted((a, b) -> b.compareTo(a)).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    public Order createOrder() {
+        Order order = new Order("Order", 1L, ThreadLocalRandom.current().nextLong(1, 1000));
+        return groupCommitter != null ? groupCommitter.save(order) : repository.save(order);
+    }
+}
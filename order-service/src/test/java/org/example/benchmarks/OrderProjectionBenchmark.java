@@ -0,0 +1,71 @@
+package org.example.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.example.OrderServiceApplication;
+import org.example.model.Order;
+import org.example.model.OrderRepository;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class OrderProjectionBenchmark {
+    private static final long USER_ID = 1L;
+
+    @Param({"", "id", "id,name"})
+    private String fields;
+
+    @Param({"10000"})
+    private int orders;
+
+    private ConfigurableApplicationContext context;
+    private OrderRepository repository;
+    private TransactionTemplate readTransaction;
+    private ObjectMapper objectMapper;
+
+    @Setup
+    public void setUp() throws Exception {
+        context = new SpringApplicationBuilder(OrderServiceApplication.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.datasource.url=jdbc:h2:mem:orders-projection-benchmark",
+                        "--spring.jpa.show-sql=false");
+        repository = context.getBean(OrderRepository.class);
+        objectMapper = context.getBean(ObjectMapper.class);
+        readTransaction = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        readTransaction.setReadOnly(true);
+
+        List<Order> batch = new ArrayList<>();
+        for (int i = 0; i < orders; i++) {
+            batch.add(new Order("Order number " + i, (long) i, USER_ID));
+        }
+        repository.saveAll(batch);
+        System.out.printf("%nfields=%s: %d bytes for %d orders%n",
+                fields.isEmpty() ? "<all>" : fields, getAllOrders().length, orders);
+    }
+
+    @TearDown
+    public void tearDown() {
+        repository.deleteAll();
+        context.close();
+    }
+
+    @Benchmark
+    public byte[] getAllOrders() throws Exception {
+        Object body = readTransaction.execute(status -> fields.isEmpty()
+                ? repository.findAllByUserId(USER_ID)
+                : repository.findAllProjectedByUserId(USER_ID, OrderRepository.FIELDS.parse(fields)));
+        return objectMapper.writeValueAsBytes(body);
+    }
+}
@@ -0,0 +1,90 @@
+package org.example.benchmarks;
+
+import org.example.OrderServiceApplication;
+import org.example.model.Order;
+import org.example.model.OrderRepository;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = "-Xmx2g")
+@Threads(1)
+public class OrderStorageBenchmark {
+
+    @Param({"jpa", "columnar"})
+    private String engine;
+
+    @Param({"200000"})
+    private int orders;
+
+    @Param({"10000"})
+    private int users;
+
+    private ConfigurableApplicationContext context;
+    private OrderRepository repository;
+    private long[] ids;
+
+    @Setup
+    public void setUp() {
+        context = new SpringApplicationBuilder(OrderServiceApplication.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.datasource.url=jdbc:h2:mem:orders-benchmark",
+                        "--spring.jpa.show-sql=false",
+                        "--orders.storage.engine=" + engine);
+        repository = context.getBean(OrderRepository.class);
+        repository.deleteAll();
+
+        long before = usedHeap();
+        ids = new long[orders];
+        List<Order> batch = new ArrayList<>();
+        for (int i = 0; i < orders; i++) {
+            batch.add(new Order("Order " + i % 100, (long) i % 10, 1L + i % users));
+            if (batch.size() == 1000 || i == orders - 1) {
+                List<Order> saved = repository.saveAll(batch);
+                for (int j = 0; j < saved.size(); j++) {
+                    ids[i - saved.size() + 1 + j] = saved.get(j).getId();
+                }
+                batch.clear();
+            }
+        }
+        long bytes = usedHeap() - before;
+        System.out.printf("%n%s: %d orders, %d MB, %.1f bytes per order%n",
+                engine, orders, bytes >> 20, (double) bytes / orders);
+    }
+
+    @TearDown
+    public void tearDown() {
+        repository.deleteAll();
+        context.close();
+    }
+
+    @Benchmark
+    public Optional<Order> findById() {
+        return repository.findById(ids[ThreadLocalRandom.current().nextInt(ids.length)]);
+    }
+
+    @Benchmark
+    public List<Order> findAllByUserId() {
+        return repository.findAllByUserId(ThreadLocalRandom.current().nextLong(1, users + 1));
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,40 @@
+package org.example.benchmarks;
+
+import org.example.util.TokenBucketRateLimiter;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(16)
+public class RateLimiterBenchmark {
+
+    @Param({"1", "1000", "100000"})
+    private int clients;
+
+    @Param({"1000000"})
+    private int maxClients;
+
+    private TokenBucketRateLimiter limiter;
+    private String[] keys;
+
+    @Setup
+    public void setUp() {
+        limiter = new TokenBucketRateLimiter(1000, 2000, maxClients, 64);
+        keys = new String[clients];
+        for (int i = 0; i < clients; i++) {
+            keys[i] = "10.0." + (i >> 8) + "." + (i & 255);
+        }
+    }
+
+    @Benchmark
+    public TokenBucketRateLimiter.Decision tryAcquire() {
+        return limiter.tryAcquire(keys[ThreadLocalRandom.current().nextInt(keys.length)]);
+    }
+}
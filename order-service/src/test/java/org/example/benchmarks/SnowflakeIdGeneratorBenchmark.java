@@ -0,0 +1,36 @@
+package org.example.benchmarks;
+
+import org.example.util.SnowflakeIdGenerator;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(8)
+public class SnowflakeIdGeneratorBenchmark {
+
+    private final SnowflakeIdGenerator generator = new SnowflakeIdGenerator(1);
+    private final AtomicLong counter = new AtomicLong();
+
+    @Benchmark
+    public long snowflake() {
+        return generator.nextId();
+    }
+
+    @Benchmark
+    public long atomicCounter() {
+        return counter.incrementAndGet();
+    }
+
+    @Benchmark
+    public UUID randomUuid() {
+        return UUID.randomUUID();
+    }
+}
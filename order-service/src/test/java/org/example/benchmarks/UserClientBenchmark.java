@@ -0,0 +1,140 @@
+package org.example.benchmarks;
+
+import com.sun.net.httpserver.HttpServer;
+import feign.Feign;
+import io.grpc.ManagedChannel;
+import io.grpc.Server;
+import io.grpc.netty.shaded.io.grpc.netty.NettyChannelBuilder;
+import io.grpc.netty.shaded.io.grpc.netty.NettyServerBuilder;
+import io.grpc.stub.StreamObserver;
+import org.example.grpc.UserExistsReply;
+import org.example.grpc.UserIdRequest;
+import org.example.grpc.UserLookupGrpc;
+import org.example.model.GrpcUserClient;
+import org.example.model.UserClient;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.cloud.openfeign.support.SpringMvcContract;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(16)
+public class UserClientBenchmark {
+
+    private HttpServer httpServer;
+    private ExecutorService httpExecutor;
+    private Server grpcServer;
+    private ManagedChannel channel;
+
+    private UserClient feignClient;
+    private GrpcUserClient unaryClient;
+    private GrpcUserClient streamingClient;
+
+    @Setup
+    public void setUp() throws IOException {
+        InetAddress loopback = InetAddress.getLoopbackAddress();
+
+        byte[] body = "{}".getBytes(StandardCharsets.UTF_8);
+        httpExecutor = Executors.newFixedThreadPool(16);
+        httpServer = HttpServer.create(new InetSocketAddress(loopback, 0), 0);
+        httpServer.createContext("/users/", exchange -> {
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream os = exchange.getResponseBody()) {
+                os.write(body);
+            }
+        });
+        httpServer.setExecutor(httpExecutor);
+        httpServer.start();
+        feignClient = Feign.builder()
+                .contract(new SpringMvcContract())
+                .target(UserClient.class, "http://" + loopback.getHostAddress() + ":" + httpServer.getAddress().getPort());
+
+        grpcServer = NettyServerBuilder.forAddress(new InetSocketAddress(loopback, 0))
+                .addService(new AlwaysExistsLookup())
+                .build()
+                .start();
+        channel = NettyChannelBuilder.forAddress(loopback.getHostAddress(), grpcServer.getPort())
+                .usePlaintext()
+                .build();
+        unaryClient = new GrpcUserClient(channel, false, Duration.ofSeconds(2));
+        streamingClient = new GrpcUserClient(channel, true, Duration.ofSeconds(2));
+    }
+
+    @TearDown
+    public void tearDown() throws InterruptedException {
+        streamingClient.close();
+        channel.shutdownNow().awaitTermination(5, TimeUnit.SECONDS);
+        grpcServer.shutdownNow().awaitTermination(5, TimeUnit.SECONDS);
+        httpServer.stop(0);
+        httpExecutor.shutdownNow();
+    }
+
+    @Benchmark
+    public void feign() {
+        feignClient.getUserById(nextUserId());
+    }
+
+    @Benchmark
+    public void grpcUnary() {
+        unaryClient.getUserById(nextUserId());
+    }
+
+    @Benchmark
+    public void grpcStreaming() {
+        streamingClient.getUserById(nextUserId());
+    }
+
+    private static long nextUserId() {
+        return ThreadLocalRandom.current().nextLong(1, 1_000_000);
+    }
+
+    private static class AlwaysExistsLookup extends UserLookupGrpc.UserLookupImplBase {
+        @Override
+        public void exists(UserIdRequest request, StreamObserver<UserExistsReply> responseObserver) {
+            responseObserver.onNext(reply(request));
+            responseObserver.onCompleted();
+        }
+
+        @Override
+        public StreamObserver<UserIdRequest> existsStream(StreamObserver<UserExistsReply> responseObserver) {
+            return new StreamObserver<>() {
+                @Override
+                public void onNext(UserIdRequest request) {
+                    responseObserver.onNext(reply(request));
+                }
+
+                @Override
+                public void onError(Throwable t) {
+                }
+
+                @Override
+                public void onCompleted() {
+                    responseObserver.onCompleted();
+                }
+            };
+        }
+
+        private static UserExistsReply reply(UserIdRequest request) {
+            return UserExistsReply.newBuilder()
+                    .setRequestId(request.getRequestId())
+                    .setUserId(request.getUserId())
+                    .setExists(true)
+                    .build();
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package org.example.benchmarks;
+
+import org.example.util.ConcurrentLongHashSet;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = "-Xmx2g")
+@Threads(4)
+public class UserReplicaBenchmark {
+
+    @Param({"1000000", "10000000"})
+    private int users;
+
+    private ConcurrentLongHashSet userIds;
+    private long[] present;
+
+    @Setup
+    public void setUp() {
+        SplittableRandom random = new SplittableRandom(42);
+        userIds = new ConcurrentLongHashSet();
+        present = new long[Math.min(users, 1 << 20)];
+        for (int i = 0; i < users; i++) {
+            long id = random.nextLong(1, Long.MAX_VALUE);
+            userIds.add(id);
+            if (i < present.length) {
+                present[i] = id;
+            }
+        }
+        System.out.printf("%n%d users: %d MB, %.1f bytes per user%n",
+                users, userIds.memoryBytes() >> 20, (double) userIds.memoryBytes() / users);
+    }
+
+    @Benchmark
+    public boolean containsHit() {
+        return userIds.contains(present[ThreadLocalRandom.current().nextInt(present.length)]);
+    }
+
+    @Benchmark
+    public boolean containsMiss() {
+        return userIds.contains(-ThreadLocalRandom.current().nextLong(1, Long.MAX_VALUE));
+    }
+}
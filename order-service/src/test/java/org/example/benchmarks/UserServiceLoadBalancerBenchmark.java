@@ -0,0 +1,110 @@
+package org.example.benchmarks;
+
+import com.sun.net.httpserver.HttpServer;
+import feign.Client;
+import feign.Feign;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.config.UserServiceLoadBalancer;
+import org.example.model.UserClient;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.cloud.openfeign.support.SpringMvcContract;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Feign calls spread over {@code instances} stub user-services, each handling at most
+ * {@code serverThreads} requests at a time with {@code serviceMillis} of service time, so a single
+ * instance saturates long before the client threads do. With {@code slowInstance} the last instance
+ * takes ten times longer, and the balancer should route around it.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(32)
+public class UserServiceLoadBalancerBenchmark {
+
+    @Param({"1", "2", "4"})
+    private int instances;
+
+    @Param("4")
+    private int serverThreads;
+
+    @Param("20")
+    private int serviceMillis;
+
+    @Param({"false", "true"})
+    private boolean slowInstance;
+
+    private final List<HttpServer> servers = new ArrayList<>();
+    private final List<ExecutorService> executors = new ArrayList<>();
+    private UserClient client;
+
+    @Setup
+    public void setUp() throws IOException {
+        InetAddress loopback = InetAddress.getLoopbackAddress();
+        byte[] body = "{}".getBytes(StandardCharsets.UTF_8);
+        List<String> urls = new ArrayList<>();
+        for (int i = 0; i < instances; i++) {
+            long sleep = slowInstance && instances > 1 && i == instances - 1 ? serviceMillis * 10L : serviceMillis;
+            ExecutorService executor = Executors.newFixedThreadPool(serverThreads);
+            HttpServer server = HttpServer.create(new InetSocketAddress(loopback, 0), 0);
+            server.createContext("/users/", exchange -> {
+                try {
+                    Thread.sleep(sleep);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                exchange.getResponseHeaders().add("Content-Type", "application/json");
+                exchange.sendResponseHeaders(200, body.length);
+                try (OutputStream os = exchange.getResponseBody()) {
+                    os.write(body);
+                }
+            });
+            server.setExecutor(executor);
+            server.start();
+            servers.add(server);
+            executors.add(executor);
+            urls.add("http://" + loopback.getHostAddress() + ":" + server.getAddress().getPort());
+        }
+
+        UserServiceLoadBalancer balancer = new UserServiceLoadBalancer();
+        ReflectionTestUtils.setField(balancer, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(balancer, "instances", urls);
+        ReflectionTestUtils.setField(balancer, "discoveryFile", "");
+        ReflectionTestUtils.setField(balancer, "decay", Duration.ofSeconds(10));
+        ReflectionTestUtils.setField(balancer, "ejectionFailures", 5);
+        ReflectionTestUtils.setField(balancer, "ejectionTime", Duration.ofSeconds(30));
+        ReflectionTestUtils.setField(balancer, "maxEjectedShare", 0.5);
+        ReflectionTestUtils.invokeMethod(balancer, "init");
+        client = Feign.builder()
+                .client((Client) balancer)
+                .contract(new SpringMvcContract())
+                .target(UserClient.class, "http://user-service");
+    }
+
+    @TearDown
+    public void tearDown() {
+        servers.forEach(server -> server.stop(0));
+        executors.forEach(ExecutorService::shutdownNow);
+    }
+
+    @Benchmark
+    public void getUserById() {
+        client.getUserById(ThreadLocalRandom.current().nextLong(1, 1_000_000));
+    }
+}
@@ -0,0 +1,86 @@
+package org.example.config;
+
+import org.example.model.UserClient;
+import org.example.util.AdaptiveConcurrencyLimiter;
+import org.example.util.AdaptiveConcurrencyLimiter.Permit;
+import org.example.util.AdaptiveConcurrencyLimiter.Priority;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest(properties = {
+        "concurrency.inbound.enabled=true",
+        "concurrency.user-client.enabled=true",
+        "concurrency.inbound.initial-limit=10",
+        "concurrency.user-client.initial-limit=10"
+})
+@AutoConfigureMockMvc
+public class ConcurrencyLimitTest {
+
+    @Autowired
+    MockMvc mockMvc;
+
+    @Autowired
+    @Qualifier("inboundLimiter")
+    AdaptiveConcurrencyLimiter inboundLimiter;
+
+    @Autowired
+    @Qualifier("userClientLimiter")
+    AdaptiveConcurrencyLimiter userClientLimiter;
+
+    @MockitoBean
+    UserClient userClient;
+
+    @Test
+    void inbound_ShedsReadsFirst() throws Exception {
+        List<Permit> permits = acquireReads(inboundLimiter);
+        try {
+            mockMvc.perform(get("/orders/all/{userId}", 1L))
+                    .andExpect(status().isServiceUnavailable())
+                    .andExpect(header().string(HttpHeaders.RETRY_AFTER, "1"));
+            mockMvc.perform(post("/orders/{userId}", 1L)
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content("{\"name\":\"Order\",\"count\":1}"))
+                    .andExpect(status().isOk());
+        } finally {
+            permits.forEach(Permit::release);
+        }
+    }
+
+    @Test
+    void userClient_RejectsWithRetryAfter() throws Exception {
+        List<Permit> permits = acquireReads(userClientLimiter);
+        try {
+            mockMvc.perform(get("/orders/all/{userId}", 1L))
+                    .andExpect(status().isServiceUnavailable())
+                    .andExpect(header().string(HttpHeaders.RETRY_AFTER, "1"))
+                    .andExpect(content().string("user-service is overloaded, retry later"));
+        } finally {
+            permits.forEach(Permit::release);
+        }
+        mockMvc.perform(get("/orders/all/{userId}", 1L))
+                .andExpect(status().isOk());
+    }
+
+    private static List<Permit> acquireReads(AdaptiveConcurrencyLimiter limiter) {
+        List<Permit> permits = new ArrayList<>();
+        Permit permit;
+        while ((permit = limiter.tryAcquire(Priority.READ)) != null) {
+            permits.add(permit);
+        }
+        return permits;
+    }
+}
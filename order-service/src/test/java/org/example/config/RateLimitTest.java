@@ -0,0 +1,82 @@
+package org.example.config;
+
+import org.example.model.UserClient;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest(properties = {
+        "rate-limit.enabled=true",
+        "rate-limit.groups.orders-write.rate=0.01",
+        "rate-limit.groups.orders-write.burst=2",
+        "rate-limit.client-keys=client-1,client-2",
+        "rate-limit.exempt-keys=internal-secret"
+})
+@AutoConfigureMockMvc
+public class RateLimitTest {
+
+    @Autowired
+    MockMvc mockMvc;
+
+    @MockitoBean
+    UserClient userClient;
+
+    @Test
+    void createOrder_LimitedPerClient() throws Exception {
+        createOrder("client-1")
+                .andExpect(status().isOk())
+                .andExpect(header().string(RateLimitFilter.LIMIT, "2"))
+                .andExpect(header().string(RateLimitFilter.REMAINING, "1"))
+                .andExpect(header().string(RateLimitFilter.RESET, "100"));
+        createOrder("client-1")
+                .andExpect(status().isOk())
+                .andExpect(header().string(RateLimitFilter.REMAINING, "0"));
+        createOrder("client-1")
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().string(RateLimitFilter.REMAINING, "0"))
+                .andExpect(header().string(HttpHeaders.RETRY_AFTER, "100"))
+                .andExpect(content().string("rate limit of orders-write exceeded"));
+
+        createOrder("client-2")
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/orders/all/{userId}", 1L).header("X-API-Key", "client-1"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(RateLimitFilter.LIMIT, "400"));
+    }
+
+    @Test
+    void createOrder_UnknownKeysShareAddressBucket() throws Exception {
+        createOrder("random-1", "10.0.0.1").andExpect(status().isOk());
+        createOrder("random-2", "10.0.0.1").andExpect(status().isOk());
+        createOrder("random-3", "10.0.0.1").andExpect(status().isTooManyRequests());
+
+        createOrder("internal-secret", "10.0.0.1")
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(RateLimitFilter.LIMIT));
+    }
+
+    private ResultActions createOrder(String client) throws Exception {
+        return createOrder(client, "127.0.0.1");
+    }
+
+    private ResultActions createOrder(String client, String address) throws Exception {
+        return mockMvc.perform(post("/orders/{userId}", 1L)
+                .header("X-API-Key", client)
+                .with(request -> {
+                    request.setRemoteAddr(address);
+                    return request;
+                })
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"name\":\"Order\",\"count\":1}"));
+    }
+}
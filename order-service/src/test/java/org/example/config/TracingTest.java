@@ -0,0 +1,93 @@
+package org.example.config;
+
+import feign.RequestInterceptor;
+import feign.RequestTemplate;
+import org.example.model.Order;
+import org.example.model.OrderRepository;
+import org.example.model.UserClient;
+import org.example.util.RequestTrace;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest(properties = "tracing.sample-rate=1")
+@AutoConfigureMockMvc
+public class TracingTest {
+    private static final String TRACE_ID = "4bf92f3577b34da6a3ce929d0e0e4736";
+
+    @Autowired
+    MockMvc mockMvc;
+
+    @Autowired
+    OrderRepository repository;
+
+    @Autowired
+    RequestInterceptor traceparentInterceptor;
+
+    @MockitoBean
+    UserClient userClient;
+
+    @Test
+    void serverTiming_ContainsCategories() throws Exception {
+        Order order = repository.save(new Order("Order", 1L, 1L));
+
+        MvcResult result = mockMvc.perform(get("/orders/order/{orderId}", order.getId()))
+                .andExpect(status().isOk())
+                .andExpect(header().exists(TracingFilter.TRACE_ID))
+                .andReturn();
+
+        String timing = result.getResponse().getHeader(TracingFilter.SERVER_TIMING);
+        assertNotNull(timing);
+        assertTrue(timing.matches("controller;dur=[0-9.]+, service;dur=[0-9.]+, db;dur=[0-9.]+, total;dur=[0-9.]+"), timing);
+    }
+
+    @Test
+    void traceparent_ContinuesTraceAndIsRecorded() throws Exception {
+        mockMvc.perform(post("/orders/{userId}", 1L)
+                        .header(TracingFilter.TRACEPARENT, "00-" + TRACE_ID + "-00f067aa0ba902b7-01")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"Order\",\"count\":1}"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(TracingFilter.TRACE_ID, TRACE_ID))
+                .andExpect(header().string(TracingFilter.SERVER_TIMING, containsString("service;dur=")));
+
+        mockMvc.perform(get("/actuator/traces/{traceId}", TRACE_ID))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].parentSpanId").value("00f067aa0ba902b7"))
+                .andExpect(jsonPath("$[0].request").value("POST /orders/1"))
+                .andExpect(jsonPath("$[0].timings.serialization").exists())
+                .andExpect(jsonPath("$[0].spans[*].name", hasItems(
+                        "orderController.createOrder", "orderService.createOrder", "orderRepository.save")));
+        mockMvc.perform(get("/actuator/traces"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[*].traceId", hasItem(TRACE_ID)));
+    }
+
+    @Test
+    void traceparentInterceptor_PropagatesCurrentTrace() {
+        RequestTemplate template = new RequestTemplate();
+        traceparentInterceptor.apply(template);
+        assertFalse(template.headers().containsKey(TracingFilter.TRACEPARENT));
+
+        RequestTrace trace = RequestTrace.start("00-" + TRACE_ID + "-00f067aa0ba902b7-01", 0);
+        try {
+            traceparentInterceptor.apply(template);
+        } finally {
+            RequestTrace.clear();
+        }
+        String traceparent = template.headers().get(TracingFilter.TRACEPARENT).iterator().next();
+        assertEquals("00-" + TRACE_ID + "-" + trace.getSpanId() + "-01", traceparent);
+    }
+}
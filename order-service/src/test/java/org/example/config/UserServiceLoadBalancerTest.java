@@ -0,0 +1,123 @@
+package org.example.config;
+
+import com.sun.net.httpserver.HttpServer;
+import feign.FeignException;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.example.model.UserClient;
+import org.example.util.LoadBalancer;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = "user.client.balancer.ejection-failures=2")
+public class UserServiceLoadBalancerTest {
+
+    private static final AtomicInteger firstCalls = new AtomicInteger();
+    private static final AtomicInteger secondCalls = new AtomicInteger();
+    private static HttpServer first;
+    private static HttpServer second;
+    private static String dead;
+
+    @Autowired
+    UserClient userClient;
+
+    @Autowired
+    UserServiceLoadBalancer loadBalancer;
+
+    @Autowired
+    MeterRegistry meterRegistry;
+
+    @DynamicPropertySource
+    static void instances(DynamicPropertyRegistry registry) throws IOException {
+        first = start(firstCalls);
+        second = start(secondCalls);
+        try (ServerSocket socket = new ServerSocket(0, 1, InetAddress.getLoopbackAddress())) {
+            dead = "http://127.0.0.1:" + socket.getLocalPort();
+        }
+        registry.add("user.service.instances", () -> String.join(",", url(first), url(second), dead));
+    }
+
+    @AfterAll
+    static void stop() {
+        first.stop(0);
+        second.stop(0);
+    }
+
+    @Test
+    void getUserById_SpreadsOverLiveInstances() {
+        for (int i = 0; i < 200; i++) {
+            userClient.getUserById(1L);
+        }
+        assertThrows(FeignException.NotFound.class, () -> userClient.getUserById(404L));
+
+        assertTrue(firstCalls.get() > 20, "first instance got " + firstCalls.get());
+        assertTrue(secondCalls.get() > 20, "second instance got " + secondCalls.get());
+        // a failure doubles the latency estimate, so the dead instance loses every choice or gets ejected
+        long deadCalls = meterRegistry.get("load-balancer.calls").tag("instance", dead).tag("outcome", "failure").timer().count();
+        assertTrue(deadCalls >= 1 && deadCalls <= 2, "dead instance got " + deadCalls);
+        assertEquals(0, meterRegistry.get("load-balancer.calls").tag("instance", url(first)).tag("outcome", "failure").timer().count());
+    }
+
+    @Test
+    void discoveryFile_ReplacesInstances() throws IOException {
+        Path file = Files.createTempFile("user-service", ".txt");
+        try {
+            Files.writeString(file, "# user-service instances\n" + url(second) + "/\n\n");
+            ReflectionTestUtils.setField(loadBalancer, "discoveryFile", file.toString());
+            loadBalancer.refreshDiscovery();
+            assertEquals(List.of(url(second)), urls());
+
+            int calls = secondCalls.get();
+            userClient.getUserById(1L);
+            assertEquals(calls + 1, secondCalls.get());
+
+            Files.writeString(file, "");
+            loadBalancer.refreshDiscovery();
+            assertEquals(List.of(url(second)), urls());
+        } finally {
+            ReflectionTestUtils.setField(loadBalancer, "discoveryFile", "");
+            loadBalancer.getBalancer().setInstances(List.of(url(first), url(second), dead));
+            Files.delete(file);
+        }
+    }
+
+    private LoadBalancer.Instance instance(String url) {
+        return loadBalancer.getBalancer().getInstances().stream()
+                .filter(instance -> instance.getUrl().equals(url))
+                .findFirst().orElseThrow();
+    }
+
+    private List<String> urls() {
+        return loadBalancer.getBalancer().getInstances().stream().map(LoadBalancer.Instance::getUrl).toList();
+    }
+
+    private static HttpServer start(AtomicInteger calls) throws IOException {
+        HttpServer server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/users/", exchange -> {
+            calls.incrementAndGet();
+            exchange.sendResponseHeaders(exchange.getRequestURI().getPath().endsWith("/404") ? 404 : 200, -1);
+            exchange.close();
+        });
+        server.start();
+        return server;
+    }
+
+    private static String url(HttpServer server) {
+        return "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+}
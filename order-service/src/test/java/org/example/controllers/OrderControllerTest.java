@@ -5,27 +5,43 @@ import feign.FeignException;
 import org.example.model.Order;
 import org.example.model.OrderRepository;
 import org.example.model.UserClient;
+import org.example.services.OrderAnalytics;
+import org.example.services.OrderExporter;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.util.ReflectionTestUtils;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.MvcResult;
 
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+import java.util.concurrent.Semaphore;
+import java.util.zip.GZIPInputStream;
+
 import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.startsWith;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
-@SpringBootTest
+@SpringBootTest(properties = "orders.analytics.enabled=true")
 @AutoConfigureMockMvc
 public class OrderControllerTest {
 
@@ -35,6 +51,12 @@ public class OrderControllerTest {
     @Autowired
     OrderRepository repository;
 
+    @Autowired
+    OrderExporter exporter;
+
+    @Autowired
+    OrderAnalytics analytics;
+
     @MockitoBean
     UserClient userClient;
 
@@ -106,6 +128,39 @@ public class OrderControllerTest {
         assertTrue(repository.findById(order2.getId()).isPresent());
     }
 
+    @Test
+    void getOrderByOrderId_Fields() throws Exception {
+        mockMvc.perform(get("/orders/order/{orderId}", order.getId()).param("fields", "name,id"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value(order.getId()))
+                .andExpect(jsonPath("$.name").value(order.getName()))
+                .andExpect(jsonPath("$.count").doesNotExist())
+                .andExpect(jsonPath("$.userId").doesNotExist())
+                .andExpect(jsonPath("$.creationDate").doesNotExist());
+        mockMvc.perform(get("/orders/order/{orderId}", 5L).param("fields", "id"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void getAllOrdersByUserId_Fields() throws Exception {
+        Order order1 = repository.save(new Order("name1", count, userId));
+
+        mockMvc.perform(get("/orders/all/{userId}", userId).param("fields", "id"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[0].id").value(order.getId()))
+                .andExpect(jsonPath("$[0].name").doesNotExist())
+                .andExpect(jsonPath("$[1].id").value(order1.getId()));
+    }
+
+    @Test
+    void fields_Invalid() throws Exception {
+        mockMvc.perform(get("/orders/order/{orderId}", order.getId()).param("fields", "id,password"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/orders/all/{userId}", userId).param("fields", ""))
+                .andExpect(status().isBadRequest());
+    }
+
     @Test
     void getAllOrdersByUserId_OK_EmptyList() throws Exception {
         repository.deleteById(order.getId());
@@ -117,7 +172,7 @@ public class OrderControllerTest {
 
     @Test
     void getAllOrdersByUserId_UserNotFound() throws Exception {
-        doThrow(FeignException.FeignClientException.class).when(userClient).getUserById(any(Long.class));
+        doThrow(FeignException.NotFound.class).when(userClient).getUserById(any(Long.class));
 
         mockMvc.perform(get("/orders/all/{userId}", 10L))
                 .andExpect(status().isBadRequest());
@@ -152,6 +207,52 @@ public class OrderControllerTest {
                 .andExpect(status().isBadRequest());
     }
 
+    @Test
+    void deleteOrdersByIds_OK() throws Exception {
+        Order other = repository.save(new Order(name, count, 2L));
+        Order kept = repository.save(new Order(name, count, 2L));
+        mockMvc.perform(delete("/orders").param("ids", order.getId() + "," + other.getId() + ",12345"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.deleted").value(2));
+        assertFalse(repository.existsById(order.getId()));
+        assertFalse(repository.existsById(other.getId()));
+        assertTrue(repository.existsById(kept.getId()));
+
+        mockMvc.perform(delete("/orders").param("ids", "1,0"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void deleteAllOrdersByUserId_OK() throws Exception {
+        for (int i = 0; i < 5; i++) {
+            repository.save(new Order(name + i, count, userId));
+        }
+        Order other = repository.save(new Order(name, count, 2L));
+        mockMvc.perform(delete("/orders/all/{userId}", userId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.deleted").value(6));
+        assertTrue(repository.findAllByUserId(userId).isEmpty());
+        assertTrue(repository.existsById(other.getId()));
+
+        mockMvc.perform(delete("/orders/all/{userId}", 0L))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void deleteOrdersCreatedBefore_OK() throws Exception {
+        Order old = new Order(name, count, userId);
+        old.setCreationDate(new Date(1_000_000L));
+        repository.save(old);
+        mockMvc.perform(delete("/orders").param("createdBefore", "1970-01-02T00:00:00Z"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.deleted").value(1));
+        assertFalse(repository.existsById(old.getId()));
+        assertTrue(repository.existsById(order.getId()));
+
+        mockMvc.perform(delete("/orders").param("createdBefore", "yesterday"))
+                .andExpect(status().isBadRequest());
+    }
+
     @Test
     void createOrder_OK() throws Exception {
         doNothing().when(userClient).getUserById(any(Long.class));
@@ -164,9 +265,9 @@ public class OrderControllerTest {
                 .andExpect(jsonPath("$.count").value(count))
                 .andReturn();
 
-        int orderIdTest = JsonPath.read(mvcResult.getResponse().getContentAsString(), "$.id");
+        long orderIdTest = ((Number) JsonPath.read(mvcResult.getResponse().getContentAsString(), "$.id")).longValue();
 
-        assertTrue(repository.findById((long) orderIdTest).isPresent());
+        assertTrue(repository.findById(orderIdTest).isPresent());
     }
 
     @Test
@@ -184,11 +285,200 @@ public class OrderControllerTest {
 
     @Test
     void createOrder_UserNotFound() throws Exception {
-        doThrow(FeignException.FeignClientException.class).when(userClient).getUserById(any(Long.class));
+        doThrow(FeignException.NotFound.class).when(userClient).getUserById(any(Long.class));
 
         mockMvc.perform(post("/orders/{userId}", 5L)
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(String.format("{\"name\":\"%s\",\"count\":\"%d\"}", name, count)))
                 .andExpect(status().isBadRequest());
     }
+
+    @Test
+    void analytics_UpdatedOnCreateAndDelete() throws Exception {
+        Instant now = Instant.now();
+        mockMvc.perform(post("/orders/analytics/recompute")
+                        .param("from", now.minus(Duration.ofDays(2)).toString())
+                        .param("to", now.plus(Duration.ofHours(1)).toString()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.orders").value(1));
+
+        doNothing().when(userClient).getUserById(any(Long.class));
+        long lastId = 0;
+        for (int i = 0; i < 3; i++) {
+            MvcResult result = mockMvc.perform(post("/orders/{userId}", userId)
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content("{\"name\":\"Popular\",\"count\":2}"))
+                    .andExpect(status().isOk())
+                    .andReturn();
+            lastId = ((Number) JsonPath.read(result.getResponse().getContentAsString(), "$.id")).longValue();
+        }
+        mockMvc.perform(delete("/orders/{orderId}", lastId))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/orders/analytics").param("window", "hour").param("last", "2").param("top", "5"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.windows", hasSize(2)))
+                .andExpect(jsonPath("$.windows[0].orders").value(3))
+                .andExpect(jsonPath("$.windows[0].units").value(count + 4))
+                .andExpect(jsonPath("$.top", hasSize(2)))
+                .andExpect(jsonPath("$.top[0].name").value("Popular"))
+                .andExpect(jsonPath("$.top[0].orders").value(2))
+                .andExpect(jsonPath("$.top[1].name").value(name));
+        mockMvc.perform(get("/orders/analytics").param("window", "day").param("last", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.windows[0].orders").value(3));
+    }
+
+    @Test
+    void analytics_UpdatedOnBulkDelete() throws Exception {
+        Instant now = Instant.now();
+        mockMvc.perform(post("/orders/analytics/recompute")
+                        .param("from", now.minus(Duration.ofDays(2)).toString())
+                        .param("to", now.plus(Duration.ofHours(1)).toString()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.orders").value(1));
+
+        mockMvc.perform(delete("/orders/all/{userId}", userId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.deleted").value(1));
+
+        mockMvc.perform(get("/orders/analytics").param("window", "day").param("last", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.windows[0].orders").value(0))
+                .andExpect(jsonPath("$.top", hasSize(0)));
+    }
+
+    @Test
+    void analytics_RecomputedAtStartup() throws Exception {
+        analytics.init();
+
+        mockMvc.perform(get("/orders/analytics").param("window", "day").param("last", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.windows[0].orders").value(1))
+                .andExpect(jsonPath("$.top[0].name").value(name));
+    }
+
+    @Test
+    void analytics_InvalidParameters() throws Exception {
+        mockMvc.perform(get("/orders/analytics").param("window", "week"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/orders/analytics").param("last", "49"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/orders/analytics").param("top", "0"))
+                .andExpect(status().isBadRequest());
+        Instant now = Instant.now();
+        mockMvc.perform(post("/orders/analytics/recompute").param("from", now.toString()).param("to", now.toString()))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void exportOrders_Ndjson() throws Exception {
+        Order other = new Order("Second, \"quoted\"", 2L, 2L);
+        repository.save(other);
+
+        String body = mockMvc.perform(get("/orders/export"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Type", startsWith("application/x-ndjson")))
+                .andReturn().getResponse().getContentAsString();
+        String[] lines = body.split("\n");
+        assertEquals(2, lines.length);
+        assertEquals(order.getId().longValue(), ((Number) JsonPath.read(lines[0], "$.id")).longValue());
+        assertEquals(name, JsonPath.read(lines[0], "$.name"));
+        assertEquals("Second, \"quoted\"", JsonPath.read(lines[1], "$.name"));
+    }
+
+    @Test
+    void exportOrders_CsvGzipInRange() throws Exception {
+        Order old = new Order("Old", 1L, userId);
+        old.setCreationDate(Date.from(Instant.now().minus(Duration.ofDays(2))));
+        repository.save(old);
+        Order quoted = repository.save(new Order("a,b", 3L, userId));
+
+        MvcResult result = mockMvc.perform(get("/orders/export").param("format", "csv")
+                        .param("from", Instant.now().minus(Duration.ofDays(1)).toString())
+                        .header("Accept-Encoding", "gzip, deflate"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Encoding", "gzip"))
+                .andExpect(header().string("Content-Type", startsWith("text/csv")))
+                .andReturn();
+        byte[] compressed = result.getResponse().getContentAsByteArray();
+        String csv = new String(new GZIPInputStream(new ByteArrayInputStream(compressed)).readAllBytes(), StandardCharsets.UTF_8);
+        String[] lines = csv.split("\n");
+        assertEquals(3, lines.length);
+        assertEquals("id,name,count,userId,creationDate,status", lines[0]);
+        assertTrue(lines[1].startsWith(order.getId() + ",Order,5,1,"));
+        assertTrue(lines[2].startsWith(quoted.getId() + ",\"a,b\",3,1,"));
+        assertTrue(lines[2].endsWith(",CONFIRMED"));
+    }
+
+    @Test
+    void exportOrders_GzipOnlyWhenAccepted() throws Exception {
+        mockMvc.perform(get("/orders/export").header("Accept-Encoding", "gzip;q=0, deflate"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist("Content-Encoding"));
+        mockMvc.perform(get("/orders/export").header("Accept-Encoding", "x-gzipped-foo"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist("Content-Encoding"));
+        mockMvc.perform(get("/orders/export").header("Accept-Encoding", "br, *;q=0.5"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Encoding", "gzip"));
+    }
+
+    @Test
+    void exportOrders_TooManyExports() throws Exception {
+        Semaphore running = (Semaphore) ReflectionTestUtils.getField(exporter, "running");
+        int permits = running.drainPermits();
+        try {
+            mockMvc.perform(get("/orders/export"))
+                    .andExpect(status().isServiceUnavailable())
+                    .andExpect(header().exists(HttpHeaders.RETRY_AFTER));
+        } finally {
+            running.release(permits);
+        }
+        mockMvc.perform(get("/orders/export"))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void exportOrders_InvalidParameters() throws Exception {
+        mockMvc.perform(get("/orders/export").param("format", "xml"))
+                .andExpect(status().isBadRequest())
+                .andExpect(header().doesNotExist("Content-Encoding"));
+        Instant now = Instant.now();
+        mockMvc.perform(get("/orders/export").param("from", now.toString()).param("to", now.toString()))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void streamEvents_OK() throws Exception {
+        doNothing().when(userClient).getUserById(any(Long.class));
+
+        MvcResult events = mockMvc.perform(get("/orders/events").accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        MvcResult created = mockMvc.perform(post("/orders/{userId}", userId)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(String.format("{\"name\":\"%s\",\"count\":\"%d\"}", name, count)))
+                .andExpect(status().isOk())
+                .andReturn();
+        long orderIdTest = ((Number) JsonPath.read(created.getResponse().getContentAsString(), "$.id")).longValue();
+
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!events.getResponse().getContentAsString().contains("\"orderId\":" + orderIdTest)
+                && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        String content = events.getResponse().getContentAsString();
+        assertTrue(content.contains("event:ORDER_CREATED"));
+        assertTrue(content.contains("\"orderId\":" + orderIdTest));
+    }
+
+    @Test
+    void streamEvents_InvalidParameters() throws Exception {
+        mockMvc.perform(get("/orders/events").accept(MediaType.TEXT_EVENT_STREAM).param("overflow", "block"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/orders/events").accept(MediaType.TEXT_EVENT_STREAM).header("Last-Event-ID", -1))
+                .andExpect(status().isBadRequest());
+    }
 }
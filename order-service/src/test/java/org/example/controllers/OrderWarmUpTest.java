@@ -0,0 +1,65 @@
+package org.example.controllers;
+
+import org.example.model.OrderRepository;
+import org.example.model.WarmUpReport;
+import org.example.services.OrderAnalytics;
+import org.example.services.OrderEventBus;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:warm-up-test",
+        "orders.warm-up.enabled=true",
+        "orders.analytics.enabled=true",
+        "orders.warm-up.round-size=20",
+        "orders.warm-up.max-duration=2s",
+        "user.service.url=http://127.0.0.1:9"
+})
+@AutoConfigureMockMvc
+public class OrderWarmUpTest {
+
+    @Autowired
+    MockMvc mockMvc;
+
+    @Autowired
+    OrderWarmUp warmUp;
+
+    @Autowired
+    OrderRepository repository;
+
+    @Autowired
+    OrderEventBus eventBus;
+
+    @Autowired
+    OrderAnalytics analytics;
+
+    @Test
+    void warmUp_LeavesNoTraceAndReports() throws Exception {
+        // user-service is unreachable, so the warm-up only succeeds if the stub answered the user checks
+        WarmUpReport report = warmUp.getReport();
+        assertNotNull(report);
+        assertTrue(report.rounds() >= 2);
+        assertEquals(Set.of("create", "get", "get-fields", "list", "list-fields", "delete"), report.operations().keySet());
+
+        assertEquals(0, repository.count());
+        assertEquals(0, eventBus.getPublishedSequence());
+        assertEquals(0, analytics.report("day", 1, 10).windows().get(0).orders());
+
+        mockMvc.perform(get("/actuator/health/readiness"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("UP"));
+        mockMvc.perform(get("/actuator/warmup"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.operations.create.before.p99Micros").exists());
+    }
+}
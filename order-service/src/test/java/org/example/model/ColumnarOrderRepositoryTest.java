@@ -0,0 +1,231 @@
+package org.example.model;
+
+import com.jayway.jsonpath.JsonPath;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.hamcrest.Matchers.hasSize;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {"orders.storage.columnar.stripes=4", "orders.export.fetch-size=2"})
+@ActiveProfiles("columnar")
+@AutoConfigureMockMvc
+public class ColumnarOrderRepositoryTest {
+
+    @Autowired
+    MockMvc mockMvc;
+
+    @Autowired
+    OrderRepository repository;
+
+    @MockitoBean
+    UserClient userClient;
+
+    @BeforeEach
+    void setUp() {
+        repository.deleteAll();
+    }
+
+    @Test
+    void profile_SelectsColumnarRepository() throws Exception {
+        assertInstanceOf(ColumnarOrderRepository.class, repository);
+
+        String body = mockMvc.perform(post("/orders/{userId}", 7L)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"Order\",\"count\":3}"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        long orderId = ((Number) JsonPath.read(body, "$.id")).longValue();
+
+        mockMvc.perform(get("/orders/order/{orderId}", orderId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.name").value("Order"))
+                .andExpect(jsonPath("$.count").value(3))
+                .andExpect(jsonPath("$.userId").value(7));
+        mockMvc.perform(get("/orders/all/{userId}", 7L))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)));
+        mockMvc.perform(delete("/orders/{orderId}", orderId))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/orders/order/{orderId}", orderId))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void crud_OK() {
+        Order first = repository.save(new Order("name", 5L, 1L));
+        Order second = repository.save(new Order("name", 6L, 1L));
+        Order other = repository.save(new Order(null, null, 2L));
+
+        assertNotNull(first.getId());
+        assertEquals(3, repository.count());
+        Order found = repository.findById(first.getId()).orElseThrow();
+        assertEquals(first, found);
+        assertNotSame(first, found);
+        assertEquals(List.of(first, second), repository.findAllByUserId(1L));
+        assertEquals(other, repository.findById(other.getId()).orElseThrow());
+        assertTrue(repository.findAllByUserId(3L).isEmpty());
+        assertFalse(repository.existsById(-1L));
+
+        first.setCount(10L);
+        first.setUserId(3L);
+        first.setCreationDate(new Date(1000));
+        first.setStatus(OrderStatus.REJECTED);
+        repository.save(first);
+        assertEquals(3, repository.count());
+        assertEquals(List.of(second), repository.findAllByUserId(1L));
+        assertEquals(List.of(first), repository.findAllByUserId(3L));
+        assertEquals(10L, repository.findById(first.getId()).orElseThrow().getCount());
+        assertEquals(Map.of("status", OrderStatus.REJECTED), repository.findProjectedById(first.getId(), List.of("status")).orElseThrow());
+        assertEquals(List.of(first), repository.findAllByStatus(OrderStatus.REJECTED));
+
+        assertEquals(1, repository.deleteOrderById(second.getId()));
+        assertEquals(0, repository.deleteOrderById(second.getId()));
+        assertEquals(0, repository.updateStatus(second.getId(), OrderStatus.CONFIRMED, OrderStatus.REJECTED));
+        assertEquals(0, repository.updateStatus(other.getId(), OrderStatus.PENDING, OrderStatus.REJECTED));
+        assertEquals(1, repository.updateStatus(other.getId(), OrderStatus.CONFIRMED, OrderStatus.REJECTED));
+        assertEquals(OrderStatus.REJECTED, repository.findById(other.getId()).orElseThrow().getStatus());
+        other.setStatus(OrderStatus.REJECTED);
+        assertTrue(repository.findById(second.getId()).isEmpty());
+        assertTrue(repository.findAllByUserId(1L).isEmpty());
+        assertEquals(2, repository.findAll().size());
+        assertEquals(List.of(other), repository.findAllById(List.of(other.getId(), second.getId())));
+
+        Order reused = repository.save(new Order("new", 1L, 1L));
+        assertEquals(List.of(reused), repository.findAllByUserId(1L));
+        repository.deleteAll();
+        assertEquals(0, repository.count());
+    }
+
+    @Test
+    void projections_OK() {
+        Order first = repository.save(new Order("first", 1L, 5L));
+        Order second = repository.save(new Order(null, 2L, 5L));
+
+        assertEquals(Map.of("id", first.getId(), "name", "first"),
+                repository.findProjectedById(first.getId(), List.of("id", "name")).orElseThrow());
+        assertTrue(repository.findProjectedById(-1L, List.of("id")).isEmpty());
+        List<Map<String, Object>> rows = repository.findAllProjectedByUserId(5L, List.of("name", "count"));
+        assertEquals(2, rows.size());
+        assertEquals(Map.of("name", "first", "count", 1L), rows.get(0));
+        assertNull(rows.get(1).get("name"));
+        assertEquals(second.getCount(), rows.get(1).get("count"));
+    }
+
+    @Test
+    void bulkDelete_OK() {
+        Order old = new Order("old", 1L, 1L);
+        old.setCreationDate(new Date(1000));
+        repository.saveAll(List.of(old, new Order("first", 1L, 1L), new Order("second", 1L, 2L), new Order("third", 1L, 3L)));
+        List<Order> deleted = new ArrayList<>();
+
+        assertEquals(1, repository.bulkDeleteCreatedBefore(new Date(2000), deleted::addAll));
+        assertEquals(List.of(old), deleted);
+        assertEquals(1, repository.bulkDeleteByUserId(1L, deleted::addAll));
+        assertTrue(repository.findAllByUserId(1L).isEmpty());
+        List<Long> rest = repository.findAll().stream().map(Order::getId).toList();
+        assertEquals(2, repository.bulkDeleteByIds(List.of(rest.get(0), rest.get(1), rest.get(0), 42L), deleted::addAll));
+        assertEquals(0, repository.count());
+        assertEquals(4, deleted.size());
+    }
+
+    @Test
+    void export_PagesEveryStripe() {
+        Order old = new Order("old", 1L, 1L);
+        old.setCreationDate(new Date(1000));
+        List<Order> orders = new ArrayList<>(List.of(old));
+        for (long userId = 1; userId <= 20; userId++) {
+            orders.add(new Order("order", 1L, userId));
+        }
+        repository.saveAll(orders);
+        List<Long> exported = new ArrayList<>();
+
+        assertEquals(21, repository.exportCreatedBetween(null, null, order -> exported.add(order.getId())));
+        assertEquals(orders.stream().map(Order::getId).sorted().toList(), exported.stream().sorted().toList());
+        exported.clear();
+        assertEquals(20, repository.exportCreatedBetween(new Date(2000), null, order -> exported.add(order.getId())));
+        assertFalse(exported.contains(old.getId()));
+        assertEquals(1, repository.exportCreatedBetween(null, new Date(2000), order -> assertEquals(old, order)));
+    }
+
+    @Test
+    void saveAll_ManyUsers() {
+        List<Order> orders = new ArrayList<>();
+        for (long userId = 1; userId <= 100; userId++) {
+            for (int i = 0; i < 10; i++) {
+                orders.add(new Order("order-" + i, (long) i, userId));
+            }
+        }
+        repository.saveAll(orders);
+
+        assertEquals(1000, repository.count());
+        for (long userId = 1; userId <= 100; userId++) {
+            List<Order> userOrders = repository.findAllByUserId(userId);
+            assertEquals(orders.subList((int) (userId - 1) * 10, (int) userId * 10), userOrders);
+        }
+        repository.deleteAll(orders.subList(0, 500));
+        assertEquals(500, repository.count());
+        assertTrue(repository.findAllByUserId(50L).isEmpty());
+        assertEquals(10, repository.findAllByUserId(51L).size());
+    }
+
+    @Test
+    void concurrentReads_SeeConsistentRows() throws Exception {
+        List<Order> stable = new ArrayList<>();
+        for (long userId = 1; userId <= 50; userId++) {
+            stable.add(repository.save(new Order("stable", userId, userId)));
+        }
+        AtomicBoolean running = new AtomicBoolean(true);
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        Thread writer = new Thread(() -> {
+            long n = 0;
+            while (running.get()) {
+                Order order = repository.save(new Order("churn-" + (n % 100), n, 1 + n % 50));
+                repository.deleteById(order.getId());
+                n++;
+            }
+        });
+        writer.start();
+        List<Thread> readers = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            Thread reader = new Thread(() -> {
+                try {
+                    for (int i = 0; i < 20_000; i++) {
+                        Order order = stable.get(i % stable.size());
+                        assertEquals(order, repository.findById(order.getId()).orElseThrow());
+                        assertTrue(repository.findAllByUserId(order.getUserId()).contains(order));
+                    }
+                } catch (Throwable e) {
+                    failure.compareAndSet(null, e);
+                }
+            });
+            reader.start();
+            readers.add(reader);
+        }
+        for (Thread reader : readers) {
+            reader.join();
+        }
+        running.set(false);
+        writer.join();
+
+        assertNull(failure.get());
+        assertEquals(50, repository.count());
+    }
+}
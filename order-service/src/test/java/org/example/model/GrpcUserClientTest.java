@@ -0,0 +1,192 @@
+package org.example.model;
+
+import io.grpc.ConnectivityState;
+import io.grpc.ManagedChannel;
+import io.grpc.Server;
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
+import io.grpc.netty.shaded.io.grpc.netty.NettyChannelBuilder;
+import io.grpc.netty.shaded.io.grpc.netty.NettyServerBuilder;
+import io.grpc.stub.StreamObserver;
+import org.example.grpc.UserExistsReply;
+import org.example.grpc.UserIdRequest;
+import org.example.grpc.UserIdsReply;
+import org.example.grpc.UserIdsRequest;
+import org.example.grpc.UserLookupGrpc;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class GrpcUserClientTest {
+    private static final long FAILING_USER_ID = 1_000_001L;
+
+    private Server server;
+    private ManagedChannel channel;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        InetAddress loopback = InetAddress.getLoopbackAddress();
+        server = NettyServerBuilder.forAddress(new InetSocketAddress(loopback, 0))
+                .addService(new EvenUsersLookup())
+                .build()
+                .start();
+        channel = NettyChannelBuilder.forAddress(loopback.getHostAddress(), server.getPort())
+                .usePlaintext()
+                .build();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        channel.shutdownNow().awaitTermination(5, TimeUnit.SECONDS);
+        server.shutdownNow().awaitTermination(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    void getUserById_Unary() {
+        GrpcUserClient client = new GrpcUserClient(channel, false, Duration.ofSeconds(2));
+
+        assertDoesNotThrow(() -> client.getUserById(2L));
+        assertThrows(NotFoundException.class, () -> client.getUserById(3L));
+    }
+
+    @Test
+    void getExistingUserIds_OneCall() {
+        GrpcUserClient client = new GrpcUserClient(channel, false, Duration.ofSeconds(2));
+
+        assertEquals(List.of(2L, 4L), client.getExistingUserIds(List.of(1L, 2L, 3L, 4L)));
+    }
+
+    @Test
+    void getUserById_Streaming() {
+        GrpcUserClient client = new GrpcUserClient(channel, true, Duration.ofSeconds(2));
+
+        assertDoesNotThrow(() -> client.getUserById(2L));
+        assertThrows(NotFoundException.class, () -> client.getUserById(3L));
+        client.close();
+    }
+
+    @Test
+    void getUserById_StreamingLookupError() {
+        GrpcUserClient client = new GrpcUserClient(channel, true, Duration.ofSeconds(2));
+
+        StatusRuntimeException error = assertThrows(StatusRuntimeException.class, () -> client.getUserById(FAILING_USER_ID));
+        assertEquals(Status.Code.UNAVAILABLE, error.getStatus().getCode());
+        assertDoesNotThrow(() -> client.getUserById(2L));
+        client.close();
+    }
+
+    @Test
+    void getUserById_StreamingConcurrent() {
+        GrpcUserClient client = new GrpcUserClient(channel, true, Duration.ofSeconds(5));
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<CompletableFuture<Boolean>> results = new ArrayList<>();
+            for (long userId = 1; userId <= 1000; userId++) {
+                long id = userId;
+                results.add(CompletableFuture.supplyAsync(() -> {
+                    try {
+                        client.getUserById(id);
+                        return true;
+                    } catch (NotFoundException e) {
+                        return false;
+                    }
+                }, executor));
+            }
+            for (int i = 0; i < results.size(); i++) {
+                assertEquals((i + 1) % 2 == 0, results.get(i).join());
+            }
+        } finally {
+            executor.shutdownNow();
+            client.close();
+        }
+    }
+
+    @Test
+    void getUserById_StreamingReconnectsAfterServerRestart() throws Exception {
+        GrpcUserClient client = new GrpcUserClient(channel, true, Duration.ofSeconds(2));
+        assertDoesNotThrow(() -> client.getUserById(2L));
+
+        int port = server.getPort();
+        server.shutdownNow().awaitTermination(5, TimeUnit.SECONDS);
+        assertThrows(RuntimeException.class, () -> client.getUserById(2L));
+
+        server = NettyServerBuilder.forAddress(new InetSocketAddress(InetAddress.getLoopbackAddress(), port))
+                .addService(new EvenUsersLookup())
+                .build()
+                .start();
+        awaitReady();
+        assertDoesNotThrow(() -> client.getUserById(2L));
+        client.close();
+    }
+
+    private void awaitReady() throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        channel.resetConnectBackoff();
+        while (channel.getState(true) != ConnectivityState.READY && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        assertEquals(ConnectivityState.READY, channel.getState(false));
+    }
+
+    private static class EvenUsersLookup extends UserLookupGrpc.UserLookupImplBase {
+        @Override
+        public void exists(UserIdRequest request, StreamObserver<UserExistsReply> responseObserver) {
+            responseObserver.onNext(reply(request));
+            responseObserver.onCompleted();
+        }
+
+        @Override
+        public void existingIds(UserIdsRequest request, StreamObserver<UserIdsReply> responseObserver) {
+            responseObserver.onNext(UserIdsReply.newBuilder()
+                    .addAllUserIds(request.getUserIdsList().stream().filter(userId -> userId % 2 == 0).toList())
+                    .build());
+            responseObserver.onCompleted();
+        }
+
+        @Override
+        public StreamObserver<UserIdRequest> existsStream(StreamObserver<UserExistsReply> responseObserver) {
+            return new StreamObserver<>() {
+                @Override
+                public void onNext(UserIdRequest request) {
+                    if (request.getUserId() == FAILING_USER_ID) {
+                        responseObserver.onNext(UserExistsReply.newBuilder()
+                                .setRequestId(request.getRequestId())
+                                .setError("user lookup failed")
+                                .build());
+                        return;
+                    }
+                    responseObserver.onNext(reply(request));
+                }
+
+                @Override
+                public void onError(Throwable t) {
+                }
+
+                @Override
+                public void onCompleted() {
+                    responseObserver.onCompleted();
+                }
+            };
+        }
+
+        private static UserExistsReply reply(UserIdRequest request) {
+            return UserExistsReply.newBuilder()
+                    .setRequestId(request.getRequestId())
+                    .setUserId(request.getUserId())
+                    .setExists(request.getUserId() % 2 == 0)
+                    .build();
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package org.example.model;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "orders.storage.fast-path=find-by-id,save,delete-by-id")
+@AutoConfigureMockMvc
+public class OrderJdbcRepositoryTest {
+
+    @Autowired
+    MockMvc mockMvc;
+
+    @Autowired
+    OrderRepository repository;
+
+    @Autowired
+    OrderJdbcRepository jdbcRepository;
+
+    @Autowired
+    TransactionTemplate transactionTemplate;
+
+    @MockitoBean
+    UserClient userClient;
+
+    @BeforeEach
+    void setUp() {
+        repository.deleteAll();
+    }
+
+    @Test
+    void insert_ReadableByJpaAndBack() {
+        Order order = new Order("name", 5L, 3L);
+        order.setStatus(OrderStatus.PENDING);
+        jdbcRepository.insert(order);
+
+        Order viaJpa = repository.findById(order.getId()).orElseThrow();
+        assertEquals("name", viaJpa.getName());
+        assertEquals(5L, viaJpa.getCount());
+        assertEquals(3L, viaJpa.getUserId());
+        assertEquals(OrderStatus.PENDING, viaJpa.getStatus());
+        assertEquals(order.getCreationDate().getTime(), viaJpa.getCreationDate().getTime());
+
+        Order saved = repository.save(new Order("other", 1L, 4L));
+        Order viaJdbc = jdbcRepository.findById(saved.getId()).orElseThrow();
+        assertEquals(saved.getName(), viaJdbc.getName());
+        assertEquals(saved.getStatus(), viaJdbc.getStatus());
+        assertEquals(saved.getCreationDate().getTime(), viaJdbc.getCreationDate().getTime());
+
+        assertTrue(jdbcRepository.deleteById(saved.getId()));
+        assertFalse(jdbcRepository.deleteById(saved.getId()));
+        assertTrue(jdbcRepository.findById(saved.getId()).isEmpty());
+    }
+
+    @Test
+    void insert_JoinsJpaTransaction() {
+        Order order = new Order("name", 5L, 3L);
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcRepository.insert(order);
+            assertTrue(repository.existsById(order.getId()));
+            status.setRollbackOnly();
+        });
+        assertTrue(jdbcRepository.findById(order.getId()).isEmpty());
+    }
+
+    @Test
+    void fastPath_ServesEndpoints() throws Exception {
+        Order order = repository.save(new Order("name", 5L, 3L));
+        mockMvc.perform(get("/orders/order/{orderId}", order.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.name").value("name"))
+                .andExpect(jsonPath("$.status").value("CONFIRMED"));
+        mockMvc.perform(delete("/orders/{orderId}", order.getId()))
+                .andExpect(status().isOk());
+        assertFalse(repository.existsById(order.getId()));
+    }
+}
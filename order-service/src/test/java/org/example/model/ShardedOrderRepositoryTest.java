@@ -0,0 +1,227 @@
+package org.example.model;
+
+import org.example.config.ShardRoutingDataSource;
+import org.example.controllers.OrderWarmUp;
+import org.example.services.OrderShardRebalancer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.InvalidDataAccessApiUsageException;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.LongStream;
+
+import static org.hamcrest.Matchers.hasSize;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+        "orders.sharding.enabled=true",
+        "orders.sharding.shards=jdbc:h2:mem:shard0;DB_CLOSE_DELAY=-1,jdbc:h2:mem:shard1;DB_CLOSE_DELAY=-1,jdbc:h2:mem:shard2;DB_CLOSE_DELAY=-1",
+        "orders.sharding.active-shards=0,1",
+        "orders.sharding.rebalance-batch-size=7",
+        "orders.bulk-delete.chunk-size=3",
+        "orders.warm-up.enabled=true",
+        "orders.warm-up.round-size=20",
+        "orders.warm-up.max-duration=2s",
+        "user.service.url=http://127.0.0.1:9"
+})
+@AutoConfigureMockMvc
+public class ShardedOrderRepositoryTest {
+
+    @Autowired
+    MockMvc mockMvc;
+
+    @Autowired
+    OrderRepository repository;
+
+    @Autowired
+    ShardedOrderRepository shardedRepository;
+
+    @Autowired
+    OrderShardRebalancer rebalancer;
+
+    @Autowired
+    ShardRoutingDataSource dataSource;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    @Autowired
+    OrderWarmUp warmUp;
+
+    @BeforeEach
+    void setUp() {
+        repository.deleteAll();
+    }
+
+    @Test
+    void save_RoutesUserToSingleShard() {
+        List<Order> orders = createOrders(20, 3);
+
+        assertSame(shardedRepository, repository);
+        assertEquals(60, repository.count());
+        for (long userId = 1; userId <= 20; userId++) {
+            int shard = shardedRepository.shardFor(userId);
+            assertTrue(Set.of(0, 1).contains(shard));
+            assertEquals(3, countOnShard(shard, userId));
+            assertEquals(3, repository.findAllByUserId(userId).size());
+        }
+        assertEquals(0, countOnShard(2, null));
+
+        Order order = orders.get(0);
+        assertEquals(order.getName(), repository.findById(order.getId()).orElseThrow().getName());
+        assertEquals(1, repository.deleteOrderById(order.getId()));
+        assertEquals(0, repository.deleteOrderById(order.getId()));
+        assertFalse(repository.findById(order.getId()).isPresent());
+        assertFalse(repository.existsById(order.getId()));
+    }
+
+    @Test
+    void saveAll_SplitsBatchByShard() {
+        List<Order> orders = new ArrayList<>();
+        for (long userId = 1; userId <= 10; userId++) {
+            orders.add(new Order("Order", 1L, userId));
+        }
+
+        repository.saveAll(orders);
+
+        assertEquals(10, repository.count());
+        orders.forEach(order -> assertEquals(1, countOnShard(shardedRepository.shardFor(order.getUserId()), order.getUserId())));
+    }
+
+    @Test
+    void rebalance_MovesOrdersToNewOwners() {
+        List<Order> orders = createOrders(50, 2);
+
+        long moved = rebalancer.rebalance(List.of(0, 1, 2));
+
+        assertTrue(moved > 0);
+        assertFalse(shardedRepository.isRebalancing());
+        assertEquals(moved, countOnShard(2, null));
+        assertEquals(100, repository.count());
+        for (long userId = 1; userId <= 50; userId++) {
+            assertEquals(2, countOnShard(shardedRepository.shardFor(userId), userId));
+            assertEquals(2, repository.findAllByUserId(userId).size());
+        }
+        orders.forEach(order -> assertTrue(repository.findById(order.getId()).isPresent()));
+
+        assertEquals(moved, rebalancer.rebalance(List.of(0, 1)));
+        assertEquals(0, countOnShard(2, null));
+        assertEquals(100, repository.count());
+    }
+
+    @Test
+    void rebalance_UnknownShard() {
+        assertThrows(InvalidParametersException.class, () -> rebalancer.rebalance(List.of(0, 5)));
+        assertFalse(shardedRepository.isRebalancing());
+    }
+
+    @Test
+    void shardingEndpoint_OK() throws Exception {
+        createOrders(10, 1);
+
+        mockMvc.perform(get("/actuator/sharding"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.activeShards", hasSize(2)))
+                .andExpect(jsonPath("$.orders", hasSize(3)))
+                .andExpect(jsonPath("$.rebalancing").value(false));
+
+        mockMvc.perform(post("/actuator/sharding")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"shards\":\"0,1\"}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.moved").value(0));
+    }
+
+    @Test
+    void bulkDelete_ChunksOnEveryShard() {
+        List<Order> orders = createOrders(10, 4);
+        List<List<Order>> chunks = new CopyOnWriteArrayList<>();
+
+        assertEquals(4, repository.bulkDeleteByUserId(1L, chunks::add));
+        assertTrue(repository.findAllByUserId(1L).isEmpty());
+        assertEquals(List.of(3, 1), chunks.stream().map(List::size).toList());
+
+        List<Long> ids = orders.subList(4, 12).stream().map(Order::getId).toList();
+        assertEquals(8, repository.bulkDeleteByIds(ids, chunks::add));
+        assertEquals(28, repository.count());
+
+        Date cutoff = new Date(System.currentTimeMillis() + 60_000);
+        assertEquals(28, repository.bulkDeleteCreatedBefore(cutoff, chunks::add));
+        assertEquals(0, repository.count());
+        assertEquals(40, chunks.stream().mapToInt(List::size).sum());
+        assertTrue(chunks.stream().allMatch(chunk -> chunk.size() <= 3));
+    }
+
+    @Test
+    void export_ReadsEveryShard() {
+        List<Order> orders = createOrders(10, 2);
+        List<Long> exported = new ArrayList<>();
+
+        assertEquals(20, repository.exportCreatedBetween(null, null, order -> exported.add(order.getId())));
+        assertEquals(orders.stream().map(Order::getId).sorted().toList(), exported.stream().sorted().toList());
+        assertEquals(0, repository.exportCreatedBetween(new Date(System.currentTimeMillis() + 60_000), null, order -> fail()));
+    }
+
+    @Test
+    void transaction_JoinedOnItsShard() {
+        long userId = 7;
+        int shard = shardedRepository.shardFor(userId);
+        long otherUserId = LongStream.range(1, 100).filter(id -> shardedRepository.shardFor(id) != shard).findFirst().orElseThrow();
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+
+        ShardRoutingDataSource.onShard(shard, () -> transaction.execute(status -> {
+            Order order = repository.save(new Order("Order", 1L, userId));
+            assertEquals(List.of(order), repository.findAllByUserId(userId));
+            assertTrue(repository.findById(order.getId()).isPresent());
+            assertThrows(InvalidDataAccessApiUsageException.class, () -> repository.save(new Order("Order", 1L, otherUserId)));
+            status.setRollbackOnly();
+            return null;
+        }));
+
+        assertEquals(0, repository.count());
+    }
+
+    @Test
+    void warmUp_RolledBackOnEveryShard() {
+        ReflectionTestUtils.setField(warmUp, "report", null);
+
+        warmUp.run(null);
+
+        assertNotNull(warmUp.getReport());
+        assertEquals(0, repository.count());
+    }
+
+    private List<Order> createOrders(int users, int perUser) {
+        List<Order> orders = new ArrayList<>();
+        for (long userId = 1; userId <= users; userId++) {
+            for (int i = 0; i < perUser; i++) {
+                orders.add(repository.save(new Order("Order" + i, 1L, userId)));
+            }
+        }
+        return orders;
+    }
+
+    private long countOnShard(int shard, Long userId) {
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource.getShard(shard));
+        return userId == null
+                ? jdbc.queryForObject("SELECT COUNT(*) FROM orders", Long.class)
+                : jdbc.queryForObject("SELECT COUNT(*) FROM orders WHERE user_id = ?", Long.class, userId);
+    }
+}
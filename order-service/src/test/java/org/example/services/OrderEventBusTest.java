@@ -0,0 +1,234 @@
+package org.example.services;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.model.*;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class OrderEventBusTest {
+
+    private OrderEventBus bus;
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        bus = new OrderEventBus();
+        ReflectionTestUtils.setField(bus, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.setField(bus, "bufferSize", 8);
+        ReflectionTestUtils.setField(bus, "batchSize", 4);
+        ReflectionTestUtils.setField(bus, "maxSubscribers", 2);
+        ReflectionTestUtils.setField(bus, "heartbeatInterval", Duration.ofSeconds(30));
+        ReflectionTestUtils.setField(bus, "defaultOverflowPolicy", OrderEventBus.OverflowPolicy.DROP);
+        bus.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        bus.stop();
+    }
+
+    @Test
+    void subscribe_ReceivesLiveEventsInOrder() throws Exception {
+        bus.orderCreated(order(1L));
+        RecordingSink sink = new RecordingSink();
+        bus.subscribe(null, null, sink);
+
+        bus.orderCreated(order(2L));
+        bus.orderDeleted(2L);
+
+        await(() -> sink.events().size() == 2);
+        List<OrderEvent> events = sink.events();
+        assertEquals(2L, events.get(0).getSequence());
+        assertEquals(OrderEventType.ORDER_CREATED, events.get(0).getType());
+        assertEquals(2L, events.get(0).getOrderId());
+        assertEquals(3L, events.get(1).getSequence());
+        assertEquals(OrderEventType.ORDER_DELETED, events.get(1).getType());
+    }
+
+    @Test
+    void subscribe_ResumesAfterLastEventId() throws Exception {
+        for (long id = 1; id <= 5; id++) {
+            bus.orderCreated(order(id));
+        }
+        RecordingSink sink = new RecordingSink();
+        bus.subscribe(bus.getEpoch() + "-3", null, sink);
+
+        await(() -> sink.events().size() == 2);
+        assertEquals(4L, sink.events().get(0).getSequence());
+        assertEquals(5L, sink.events().get(1).getSequence());
+        assertEquals(bus.getEpoch() + "-5", sink.events().get(1).getId());
+        assertNull(sink.resetId);
+    }
+
+    @Test
+    void subscribe_IdOfEarlierRunResetsStream() throws Exception {
+        for (long id = 1; id <= 10; id++) {
+            bus.orderCreated(order(id));
+        }
+        RecordingSink sink = new RecordingSink();
+        // a larger sequence of the previous run must not skip the events of this one
+        bus.subscribe((bus.getEpoch() - 1) + "-100", "disconnect", sink);
+
+        await(() -> sink.events().size() == 8);
+        assertEquals(bus.getEpoch() + "-0", sink.resetId);
+        assertEquals(3L, sink.events().get(0).getSequence());
+        assertEquals(10L, sink.events().get(7).getSequence());
+        assertEquals(0, sink.dropped);
+        assertFalse(sink.closed);
+
+        RecordingSink legacy = new RecordingSink();
+        bus.subscribe("7", null, legacy);
+        await(() -> legacy.events().size() == 8);
+        assertEquals(bus.getEpoch() + "-0", legacy.resetId);
+    }
+
+    @Test
+    void slowSubscriber_DropPolicySkipsToOldestEvent() throws Exception {
+        RecordingSink sink = new RecordingSink();
+        sink.block();
+        bus.subscribe(null, "drop", sink);
+        bus.orderCreated(order(1L));
+        await(sink::isBlocked);
+
+        for (long id = 2; id <= 20; id++) {
+            bus.orderCreated(order(id));
+        }
+        sink.unblock();
+
+        await(() -> !sink.events().isEmpty() && sink.events().get(sink.events().size() - 1).getSequence() == 20L);
+        assertEquals(1L, sink.events().get(0).getSequence());
+        assertTrue(sink.dropped > 0);
+        assertEquals(13L, sink.events().get(1).getSequence());
+        assertEquals(sink.dropped, meterRegistry.get("orders.events.dropped").counter().count());
+        assertFalse(sink.closed);
+    }
+
+    @Test
+    void slowSubscriber_DisconnectPolicyClosesStream() throws Exception {
+        RecordingSink sink = new RecordingSink();
+        sink.block();
+        bus.subscribe(null, "disconnect", sink);
+        bus.orderCreated(order(1L));
+        await(sink::isBlocked);
+
+        for (long id = 2; id <= 20; id++) {
+            bus.orderCreated(order(id));
+        }
+        sink.unblock();
+
+        await(() -> sink.closed);
+        assertEquals(0, bus.getSubscriberCount());
+        assertEquals(1.0, meterRegistry.get("orders.events.disconnected").counter().count());
+    }
+
+    @Test
+    void subscribe_TooManySubscribers() {
+        bus.subscribe(null, null, new RecordingSink());
+        bus.subscribe(null, null, new RecordingSink());
+
+        assertThrows(ServiceUnavailableException.class, () -> bus.subscribe(null, null, new RecordingSink()));
+    }
+
+    @Test
+    void subscribe_InvalidParameters() {
+        assertThrows(InvalidParametersException.class, () -> bus.subscribe("-1", null, new RecordingSink()));
+        assertThrows(InvalidParametersException.class, () -> bus.subscribe(bus.getEpoch() + "-x", null, new RecordingSink()));
+        assertThrows(InvalidParametersException.class, () -> bus.subscribe(null, "block", new RecordingSink()));
+    }
+
+    @Test
+    void unsubscribe_ClosesSink() {
+        RecordingSink sink = new RecordingSink();
+        bus.subscribe(null, null, sink);
+
+        bus.unsubscribe(sink);
+
+        assertTrue(sink.closed);
+        assertEquals(0, bus.getSubscriberCount());
+    }
+
+    private Order order(Long id) {
+        Order order = new Order("Order", 1L, 1L);
+        order.setId(id);
+        return order;
+    }
+
+    private void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.currentTimeMillis() < deadline, "condition not met in time");
+            Thread.sleep(10);
+        }
+    }
+
+    private static class RecordingSink implements OrderEventSink {
+        private final List<OrderEvent> events = new ArrayList<>();
+        private volatile CountDownLatch gate = new CountDownLatch(0);
+        private volatile boolean blocked;
+        volatile long dropped;
+        volatile String resetId;
+        volatile boolean closed;
+
+        void block() {
+            gate = new CountDownLatch(1);
+        }
+
+        void unblock() {
+            gate.countDown();
+        }
+
+        boolean isBlocked() {
+            return blocked;
+        }
+
+        synchronized List<OrderEvent> events() {
+            return new ArrayList<>(events);
+        }
+
+        @Override
+        public void send(List<OrderEvent> batch) throws IOException {
+            synchronized (this) {
+                events.addAll(batch);
+            }
+            blocked = true;
+            try {
+                gate.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                throw new IOException(e);
+            }
+            blocked = false;
+        }
+
+        @Override
+        public void dropped(long count, String lastDroppedId) {
+            dropped += count;
+        }
+
+        @Override
+        public void reset(String resetId) {
+            this.resetId = resetId;
+        }
+
+        @Override
+        public void heartbeat() {
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package org.example.services;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.model.Order;
+import org.example.model.OrderRepository;
+import org.example.model.ServiceUnavailableException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class OrderGroupCommitterTest {
+
+    @Mock
+    OrderRepository repository;
+
+    @InjectMocks
+    OrderGroupCommitter committer;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(committer, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.setField(committer, "maxBatchSize", 64);
+        ReflectionTestUtils.setField(committer, "maxWait", Duration.ofMillis(20));
+        ReflectionTestUtils.setField(committer, "timeout", Duration.ofSeconds(5));
+        committer.start();
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        committer.stop();
+    }
+
+    @Test
+    void save_ConcurrentCallsShareCommits() {
+        AtomicLong ids = new AtomicLong();
+        when(repository.saveAll(anyList())).thenAnswer(invocation -> {
+            List<Order> orders = invocation.getArgument(0);
+            orders.forEach(order -> order.setId(ids.incrementAndGet()));
+            return orders;
+        });
+        ExecutorService executor = Executors.newFixedThreadPool(32);
+        try {
+            List<CompletableFuture<Order>> results = new ArrayList<>();
+            for (long userId = 1; userId <= 200; userId++) {
+                Order order = new Order("Order", 1L, userId);
+                results.add(CompletableFuture.supplyAsync(() -> committer.save(order), executor));
+            }
+            for (CompletableFuture<Order> result : results) {
+                assertNotNull(result.join().getId());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(200, ids.get());
+        long commits = meterRegistry.get("orders.group-commit.batch-size").summary().count();
+        assertTrue(commits < 200, "expected batched commits, got " + commits);
+        verify(repository, times((int) commits)).saveAll(anyList());
+    }
+
+    @Test
+    void save_FailedCommitFailsCaller() {
+        when(repository.saveAll(anyList())).thenThrow(new DataIntegrityViolationException("constraint"));
+
+        assertThrows(DataIntegrityViolationException.class, () -> committer.save(new Order("Order", 1L, 1L)));
+    }
+
+    @Test
+    void save_FailedOrderDoesNotFailItsBatch() {
+        when(repository.saveAll(anyList())).thenAnswer(invocation -> {
+            List<Order> orders = invocation.getArgument(0);
+            if (orders.stream().anyMatch(order -> order.getName().equals("Bad"))) {
+                throw new DataIntegrityViolationException("constraint");
+            }
+            return orders;
+        });
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<CompletableFuture<Order>> results = new ArrayList<>();
+            for (long userId = 1; userId <= 8; userId++) {
+                Order order = new Order(userId == 4 ? "Bad" : "Order", 1L, userId);
+                results.add(CompletableFuture.supplyAsync(() -> committer.save(order), executor));
+            }
+            for (int i = 0; i < results.size(); i++) {
+                CompletableFuture<Order> result = results.get(i);
+                if (i == 3) {
+                    CompletionException error = assertThrows(CompletionException.class, result::join);
+                    assertInstanceOf(DataIntegrityViolationException.class, error.getCause());
+                } else {
+                    assertEquals("Order", result.join().getName());
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void save_TimeoutWithdrawsQueuedOrderButWaitsForTakenOne() throws Exception {
+        ReflectionTestUtils.setField(committer, "timeout", Duration.ofMillis(100));
+        CountDownLatch writing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(repository.saveAll(anyList())).thenAnswer(invocation -> {
+            writing.countDown();
+            release.await();
+            return invocation.getArgument(0);
+        });
+        Order taken = new Order("Taken", 1L, 1L);
+        CompletableFuture<Order> result = CompletableFuture.supplyAsync(() -> committer.save(taken));
+        assertTrue(writing.await(2, TimeUnit.SECONDS));
+
+        assertThrows(ServiceUnavailableException.class, () -> committer.save(new Order("Queued", 1L, 2L)));
+        Thread.sleep(200);
+        assertFalse(result.isDone());
+        release.countDown();
+
+        assertSame(taken, result.get(2, TimeUnit.SECONDS));
+        verify(repository, after(200).times(1)).saveAll(anyList());
+        verify(repository).saveAll(List.of(taken));
+    }
+
+    @Test
+    void save_ErrorInWriterDoesNotBlockCallers() {
+        when(repository.saveAll(anyList())).thenThrow(new StackOverflowError());
+
+        assertTimeoutPreemptively(Duration.ofSeconds(2), () -> {
+            IllegalStateException error = assertThrows(IllegalStateException.class,
+                    () -> committer.save(new Order("Order", 1L, 1L)));
+            assertInstanceOf(StackOverflowError.class, error.getCause());
+        });
+    }
+}
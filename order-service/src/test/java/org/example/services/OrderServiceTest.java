@@ -1,16 +1,26 @@
 package org.example.services;
 
+import feign.FeignException;
+import io.grpc.Status;
 import org.example.model.*;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.Mockito.*;
 
@@ -23,9 +33,23 @@ public class OrderServiceTest {
     @Mock
     UserClient userClient;
 
+    @Mock
+    UserReplica userReplica;
+
+    @Mock
+    OrderEventBus eventBus;
+
+    @Mock
+    PlatformTransactionManager transactionManager;
+
     @InjectMocks
     OrderService service;
 
+    @BeforeEach
+    void setUp() {
+        service.init();
+    }
+
     private final String name = "Name";
     private final Long count = 5L;
     private final Long userId = 1L;
@@ -79,6 +103,113 @@ public class OrderServiceTest {
                 orderArg.getCount().equals(count) && orderArg.getUserId().equals(userIdTest)));
     }
 
+    @Test
+    void validateUserId_ReplicaHit() {
+        when(userReplica.contains(userId)).thenReturn(true);
+        assertDoesNotThrow(() -> service.createOrder(userId, new OrderDTO(name, count)));
+        verifyNoInteractions(userClient);
+        verify(repository).save(argThat(orderArg -> orderArg.getUserId().equals(userId)));
+    }
+
+    @Test
+    void createOrder_GroupCommit() {
+        OrderGroupCommitter groupCommitter = mock(OrderGroupCommitter.class);
+        ReflectionTestUtils.setField(service, "groupCommitter", groupCommitter);
+        doNothing().when(userClient).getUserById(anyLong());
+
+        Order order = assertDoesNotThrow(() -> service.createOrder(userId, new OrderDTO(name, count)));
+
+        verify(groupCommitter).save(order);
+        verify(repository, never()).save(any());
+        verify(eventBus).orderCreated(order);
+    }
+
+    @Test
+    void createOrder_DeferredValidation() {
+        OrderValidator validator = mock(OrderValidator.class);
+        ReflectionTestUtils.setField(service, "validator", validator);
+
+        Order order = assertDoesNotThrow(() -> service.createOrder(userId, new OrderDTO(name, count)));
+
+        assertEquals(OrderStatus.PENDING, order.getStatus());
+        verifyNoInteractions(userClient);
+        verify(repository).save(order);
+        verify(validator).submit(order);
+
+        when(userReplica.contains(userId)).thenReturn(true);
+        Order known = assertDoesNotThrow(() -> service.createOrder(userId, new OrderDTO(name, count)));
+        assertEquals(OrderStatus.CONFIRMED, known.getStatus());
+        verify(validator, never()).submit(known);
+    }
+
+    @Test
+    void fastPath_SelectedPerOperation() {
+        OrderJdbcRepository jdbcRepository = mock(OrderJdbcRepository.class);
+        ReflectionTestUtils.setField(service, "jdbcRepository", jdbcRepository);
+        ReflectionTestUtils.setField(service, "fastPath", Set.of("find-by-id", "delete-by-id"));
+        Order stored = new Order(name, count, userId);
+        when(jdbcRepository.findById(10L)).thenReturn(Optional.of(stored));
+        when(jdbcRepository.deleteById(10L)).thenReturn(true);
+
+        assertSame(stored, service.getOrderByOrderId(10L));
+        service.deleteOrderByOrderId(10L);
+        Order created = service.createOrder(userId, new OrderDTO(name, count));
+
+        verify(jdbcRepository).deleteById(10L);
+        verify(repository).save(created);
+        verify(repository, never()).findById(anyLong());
+        verify(repository, never()).deleteOrderById(anyLong());
+        verify(eventBus).orderDeleted(10L);
+        verify(jdbcRepository, never()).insert(any());
+    }
+
+    @Test
+    void fastPath_WritesCommitInTransaction() {
+        OrderJdbcRepository jdbcRepository = mock(OrderJdbcRepository.class);
+        ReflectionTestUtils.setField(service, "jdbcRepository", jdbcRepository);
+        ReflectionTestUtils.setField(service, "fastPath", Set.of("save", "delete-by-id"));
+        when(jdbcRepository.deleteById(10L)).thenReturn(true);
+
+        Order created = service.createOrder(userId, new OrderDTO(name, count));
+        service.deleteOrderByOrderId(10L);
+
+        verify(jdbcRepository).insert(created);
+        verify(eventBus).orderDeleted(10L);
+        verify(transactionManager, times(2)).getTransaction(argThat(definition -> !definition.isReadOnly()));
+        verify(transactionManager, times(2)).commit(any());
+        verifyNoInteractions(repository);
+    }
+
+    @Test
+    void validateUserId_ReplicaMissFallsBackToUserClient() {
+        when(userReplica.contains(userId)).thenReturn(false);
+        doThrow(FeignException.NotFound.class).when(userClient).getUserById(userId);
+        assertThrows(InvalidParametersException.class, () -> service.createOrder(userId, new OrderDTO(name, count)));
+        verify(userClient).getUserById(userId);
+        verifyNoInteractions(repository);
+    }
+
+    @Test
+    void validateUserId_TooManyRequests() {
+        doThrow(FeignException.TooManyRequests.class).when(userClient).getUserById(userId);
+        assertThrows(ServiceUnavailableException.class, () -> service.createOrder(userId, new OrderDTO(name, count)));
+        verifyNoInteractions(repository);
+    }
+
+    @Test
+    void validateUserId_ServerError() {
+        doThrow(FeignException.FeignServerException.class).when(userClient).getUserById(userId);
+        assertThrows(ServiceUnavailableException.class, () -> service.createOrder(userId, new OrderDTO(name, count)));
+        verifyNoInteractions(repository);
+    }
+
+    @Test
+    void validateUserId_GrpcUnavailable() {
+        doThrow(Status.DEADLINE_EXCEEDED.asRuntimeException()).when(userClient).getUserById(userId);
+        assertThrows(ServiceUnavailableException.class, () -> service.createOrder(userId, new OrderDTO(name, count)));
+        verifyNoInteractions(repository);
+    }
+
     void validateUserIdFabric_Error_createOrder(Long userIdTest) {
         assertThrows(InvalidParametersException.class, () -> service.createOrder(userIdTest, new OrderDTO(name, count)));
         verifyNoInteractions(repository);
@@ -87,9 +218,34 @@ public class OrderServiceTest {
     @Test
     void deleteOrderById_OK() {
         Long orderId = 1L;
-        doNothing().when(repository).deleteById(orderId);
+        when(repository.deleteOrderById(orderId)).thenReturn(1);
+        assertDoesNotThrow(() -> service.deleteOrderByOrderId(orderId));
+        verify(repository).deleteOrderById(orderId);
+        verify(eventBus).orderDeleted(orderId);
+    }
+
+    @Test
+    void deleteOrderById_PublishesAfterCommit() {
+        Long orderId = 3L;
+        when(repository.deleteOrderById(orderId)).thenReturn(1);
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            service.deleteOrderByOrderId(orderId);
+            verifyNoInteractions(eventBus);
+
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+            verify(eventBus).orderDeleted(orderId);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void deleteOrderById_Unknown() {
+        Long orderId = 2L;
+        when(repository.deleteOrderById(orderId)).thenReturn(0);
         assertDoesNotThrow(() -> service.deleteOrderByOrderId(orderId));
-        verify(repository).deleteById(orderId);
+        verifyNoInteractions(eventBus);
     }
 
     @Test
@@ -110,7 +266,10 @@ public class OrderServiceTest {
         doNothing().when(userClient).getUserById(anyLong());
         when(repository.findAllByUserId(userIdTest)).thenReturn(List.of(order1, order2));
         List<Order> orderList = assertDoesNotThrow(() -> service.getAllOrdersByUserId(userIdTest));
-        verify(repository).findAllByUserId(userIdTest);
+        InOrder inOrder = inOrder(userClient, transactionManager, repository);
+        inOrder.verify(userClient).getUserById(userIdTest);
+        inOrder.verify(transactionManager).getTransaction(argThat(definition -> definition.isReadOnly()));
+        inOrder.verify(repository).findAllByUserId(userIdTest);
         assertEquals(orderList.get(0), order1);
         assertEquals(orderList.get(1), order2);
     }
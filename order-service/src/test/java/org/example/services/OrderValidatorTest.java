@@ -0,0 +1,168 @@
+package org.example.services;
+
+import feign.FeignException;
+import feign.Request;
+import feign.RetryableException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.model.*;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class OrderValidatorTest {
+
+    @Mock
+    OrderRepository repository;
+
+    @Mock
+    UserClient userClient;
+
+    @Mock
+    OrderEventBus eventBus;
+
+    @InjectMocks
+    OrderValidator validator;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final Map<Long, Order> orders = new HashMap<>();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(validator, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.setField(validator, "batchSize", 64);
+        ReflectionTestUtils.setField(validator, "interval", Duration.ofMillis(10));
+        ReflectionTestUtils.setField(validator, "retryInterval", Duration.ofMillis(20));
+        ReflectionTestUtils.setField(validator, "maxQueue", 4);
+        lenient().when(repository.updateStatus(anyLong(), any(), any())).thenAnswer(this::update);
+        lenient().when(userClient.getExistingUserIds(any())).thenAnswer(invocation -> List.copyOf(invocation.getArgument(0)));
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        validator.stop();
+    }
+
+    @Test
+    void validate_ChecksAllUsersWithOneLookup() {
+        doReturn(List.of(1L)).when(userClient).getExistingUserIds(any());
+        Order first = pending(1L, 1L);
+        Order second = pending(2L, 1L);
+        Order rejected = pending(3L, 2L);
+        Order third = pending(4L, 1L);
+        assertEquals(4, validator.getQueueDepth());
+        assertThrows(ServiceUnavailableException.class, validator::checkCapacity);
+
+        validator.start();
+
+        verify(eventBus, timeout(2000).times(4)).orderValidated(any());
+        verify(userClient).getExistingUserIds(List.of(1L, 2L));
+        verify(userClient, never()).getUserById(anyLong());
+        assertEquals(OrderStatus.CONFIRMED, first.getStatus());
+        assertEquals(OrderStatus.CONFIRMED, second.getStatus());
+        assertEquals(OrderStatus.CONFIRMED, third.getStatus());
+        assertEquals(OrderStatus.REJECTED, rejected.getStatus());
+        assertEquals(0, validator.getQueueDepth());
+        assertEquals(1, meterRegistry.get("orders.validation.results").tag("result", "rejected").counter().count());
+    }
+
+    @Test
+    void validate_RetriesWhileUserServiceIsUnavailable() {
+        Request request = Request.create(Request.HttpMethod.GET, "/users/exists", Map.of(), null, null, null);
+        doThrow(new RetryableException(-1, "connection refused", Request.HttpMethod.GET, (Long) null, request))
+                .doThrow(FeignException.errorStatus("getExistingUserIds", feign.Response.builder()
+                        .status(503).request(request).headers(Map.of()).build()))
+                .doThrow(FeignException.errorStatus("getExistingUserIds", feign.Response.builder()
+                        .status(429).request(request).headers(Map.of()).build()))
+                .doReturn(List.of(1L))
+                .when(userClient).getExistingUserIds(any());
+        Order order = pending(1L, 1L);
+
+        validator.start();
+
+        verify(eventBus, timeout(2000)).orderValidated(order);
+        verify(userClient, times(4)).getExistingUserIds(any());
+        assertEquals(OrderStatus.CONFIRMED, order.getStatus());
+        assertEquals(3, meterRegistry.get("orders.validation.results").tag("result", "retried").counter().count());
+    }
+
+    @Test
+    void start_QueuesPendingOrdersFromDatabase() {
+        Order order = new Order("Order", 1L, 1L);
+        order.setId(1L);
+        order.setStatus(OrderStatus.PENDING);
+        orders.put(1L, order);
+        when(repository.findAllByStatus(OrderStatus.PENDING)).thenReturn(List.of(order));
+
+        validator.start();
+
+        verify(eventBus, timeout(2000)).orderValidated(order);
+        assertEquals(OrderStatus.CONFIRMED, order.getStatus());
+    }
+
+    @Test
+    void validate_SkipsOrdersDeletedWhilePending() {
+        Order deleted = pending(1L, 1L);
+        Order order = pending(2L, 1L);
+        orders.remove(deleted.getId());
+
+        validator.start();
+
+        verify(eventBus, timeout(2000)).orderValidated(order);
+        verify(eventBus, never()).orderValidated(deleted);
+        verify(repository, never()).save(any());
+        assertFalse(orders.containsKey(deleted.getId()));
+        assertEquals(OrderStatus.CONFIRMED, order.getStatus());
+        assertEquals(1, meterRegistry.get("orders.validation.results").tag("result", "confirmed").counter().count());
+    }
+
+    @Test
+    void validate_RetriesOrderWhoseUpdateFailed() {
+        Order failing = pending(1L, 1L);
+        Order order = pending(2L, 1L);
+        when(repository.updateStatus(anyLong(), any(), any()))
+                .thenThrow(new IllegalStateException("connection lost"))
+                .thenAnswer(this::update);
+
+        validator.start();
+
+        verify(eventBus, timeout(2000)).orderValidated(failing);
+        verify(eventBus, timeout(2000)).orderValidated(order);
+        assertEquals(OrderStatus.CONFIRMED, failing.getStatus());
+        assertEquals(OrderStatus.CONFIRMED, order.getStatus());
+        assertEquals(1, meterRegistry.get("orders.validation.results").tag("result", "retried").counter().count());
+    }
+
+    private int update(InvocationOnMock invocation) {
+        Order order = orders.get(invocation.<Long>getArgument(0));
+        if (order == null || order.getStatus() != invocation.getArgument(1)) {
+            return 0;
+        }
+        order.setStatus(invocation.getArgument(2));
+        return 1;
+    }
+
+    private Order pending(Long id, Long userId) {
+        Order order = new Order("Order", 1L, userId);
+        order.setId(id);
+        order.setStatus(OrderStatus.PENDING);
+        orders.put(id, order);
+        validator.submit(order);
+        return order;
+    }
+}
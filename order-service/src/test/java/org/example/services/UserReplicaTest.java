@@ -0,0 +1,94 @@
+package org.example.services;
+
+import feign.FeignException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.model.UserChange;
+import org.example.model.UserChangesClient;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class UserReplicaTest {
+
+    @Mock
+    UserChangesClient changesClient;
+
+    @Spy
+    MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @InjectMocks
+    UserReplica replica;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(replica, "batchSize", 2);
+        ReflectionTestUtils.setField(replica, "maxLag", Duration.ofSeconds(5));
+        replica.registerMetrics();
+    }
+
+    @Test
+    void sync_AppliesChangesInBatches() {
+        when(changesClient.getChanges(0L, 2)).thenReturn(List.of(
+                new UserChange(1L, 10L, "CREATED"),
+                new UserChange(2L, 11L, "CREATED")));
+        when(changesClient.getChanges(2L, 2)).thenReturn(List.of(
+                new UserChange(3L, 10L, "DELETED")));
+
+        replica.sync();
+
+        assertEquals(3L, replica.getLastSequence());
+        assertEquals(1, replica.size());
+        assertFalse(replica.contains(10L));
+        assertTrue(replica.contains(11L));
+        assertEquals(1.0, meterRegistry.get("user.replica.lookups").tag("result", "hit").counter().count());
+        assertEquals(1.0, meterRegistry.get("user.replica.lookups").tag("result", "fallback").counter().count());
+    }
+
+    @Test
+    void sync_ResumesFromLastSequence() {
+        when(changesClient.getChanges(0L, 2)).thenReturn(List.of(new UserChange(1L, 10L, "CREATED")));
+        when(changesClient.getChanges(1L, 2)).thenReturn(List.of(new UserChange(2L, 12L, "CREATED")));
+
+        replica.sync();
+        replica.sync();
+
+        assertEquals(2L, replica.getLastSequence());
+        assertTrue(replica.contains(10L));
+        assertTrue(replica.contains(12L));
+    }
+
+    @Test
+    void contains_FallsBackBeforeFirstSync() {
+        assertFalse(replica.contains(10L));
+        verifyNoInteractions(changesClient);
+    }
+
+    @Test
+    void contains_FallsBackWhenReplicaLags() {
+        when(changesClient.getChanges(0L, 2)).thenReturn(List.of(new UserChange(1L, 10L, "CREATED")));
+        replica.sync();
+        assertTrue(replica.contains(10L));
+
+        ReflectionTestUtils.setField(replica, "lastSyncMillis", System.currentTimeMillis() - 10_000);
+        when(changesClient.getChanges(anyLong(), anyInt())).thenThrow(FeignException.ServiceUnavailable.class);
+        replica.sync();
+
+        assertFalse(replica.contains(10L));
+        assertTrue(replica.getLag().compareTo(Duration.ofSeconds(5)) > 0);
+    }
+}
@@ -0,0 +1,98 @@
+package org.example.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ConcurrentLongHashSetTest {
+
+    @Test
+    void addContainsRemove_OK() {
+        ConcurrentLongHashSet set = new ConcurrentLongHashSet();
+
+        assertTrue(set.add(1L));
+        assertTrue(set.add(-5L));
+        assertTrue(set.add(Long.MAX_VALUE));
+        assertFalse(set.add(1L));
+        assertEquals(3, set.size());
+
+        assertTrue(set.contains(1L));
+        assertTrue(set.contains(-5L));
+        assertTrue(set.contains(Long.MAX_VALUE));
+        assertFalse(set.contains(2L));
+
+        assertTrue(set.remove(1L));
+        assertFalse(set.remove(1L));
+        assertFalse(set.contains(1L));
+        assertEquals(2, set.size());
+
+        assertTrue(set.add(1L));
+        assertTrue(set.contains(1L));
+    }
+
+    @Test
+    void reservedKeys_Error() {
+        ConcurrentLongHashSet set = new ConcurrentLongHashSet();
+
+        assertThrows(IllegalArgumentException.class, () -> set.add(0L));
+        assertThrows(IllegalArgumentException.class, () -> set.add(Long.MIN_VALUE));
+        assertFalse(set.contains(0L));
+        assertFalse(set.contains(Long.MIN_VALUE));
+    }
+
+    @Test
+    void randomOperations_MatchHashSet() {
+        ConcurrentLongHashSet set = new ConcurrentLongHashSet();
+        Set<Long> expected = new HashSet<>();
+        Random random = new Random(42);
+
+        for (int i = 0; i < 200_000; i++) {
+            long key = 1 + random.nextInt(20_000);
+            if (random.nextInt(3) == 0) {
+                assertEquals(expected.remove(key), set.remove(key));
+            } else {
+                assertEquals(expected.add(key), set.add(key));
+            }
+        }
+
+        assertEquals(expected.size(), set.size());
+        for (long key = 1; key <= 20_000; key++) {
+            assertEquals(expected.contains(key), set.contains(key));
+        }
+    }
+
+    @Test
+    void concurrentReaders_SeeStableKeysDuringResize() throws Exception {
+        ConcurrentLongHashSet set = new ConcurrentLongHashSet();
+        for (long key = 1; key <= 1000; key++) {
+            set.add(key);
+        }
+
+        AtomicBoolean done = new AtomicBoolean();
+        AtomicReference<Long> missing = new AtomicReference<>();
+        Thread reader = new Thread(() -> {
+            while (!done.get()) {
+                for (long key = 1; key <= 1000; key++) {
+                    if (!set.contains(key)) {
+                        missing.set(key);
+                    }
+                }
+            }
+        });
+        reader.start();
+        for (long key = 1001; key <= 500_000; key++) {
+            set.add(key);
+        }
+        done.set(true);
+        reader.join();
+
+        assertNull(missing.get());
+        assertEquals(500_000, set.size());
+    }
+}
@@ -0,0 +1,63 @@
+package org.example.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ConsistentHashRingTest {
+
+    @Test
+    void shardFor_SpreadsKeysEvenly() {
+        ConsistentHashRing ring = new ConsistentHashRing(List.of(0, 1, 2, 3), 128);
+        int[] counts = new int[4];
+        for (long key = 1; key <= 100_000; key++) {
+            counts[ring.shardFor(key)]++;
+        }
+        for (int count : counts) {
+            assertTrue(count > 20_000 && count < 30_000, "unbalanced shard: " + count);
+        }
+    }
+
+    @Test
+    void shardFor_SmallKeysDoNotCollideWithVirtualNodes() {
+        ConsistentHashRing ring = new ConsistentHashRing(List.of(0, 1, 2), 128);
+        int[] counts = new int[3];
+        for (long key = 1; key <= 300; key++) {
+            counts[ring.shardFor(key)]++;
+        }
+        for (int count : counts) {
+            assertTrue(count > 50, "unbalanced shard: " + count);
+        }
+    }
+
+    @Test
+    void shardFor_AddingShardMovesOnlyItsShare() {
+        ConsistentHashRing before = new ConsistentHashRing(List.of(0, 1, 2), 128);
+        ConsistentHashRing after = new ConsistentHashRing(List.of(0, 1, 2, 3), 128);
+        int moved = 0;
+        for (long key = 1; key <= 100_000; key++) {
+            int shard = after.shardFor(key);
+            if (before.shardFor(key) != shard) {
+                assertEquals(3, shard);
+                moved++;
+            }
+        }
+        assertTrue(moved > 15_000 && moved < 35_000, "moved " + moved);
+    }
+
+    @Test
+    void shardFor_SingleShard() {
+        ConsistentHashRing ring = new ConsistentHashRing(Set.of(5), 1);
+        assertEquals(5, ring.shardFor(42L));
+        assertEquals(Set.of(5), ring.getShards());
+    }
+
+    @Test
+    void constructor_InvalidArguments() {
+        assertThrows(IllegalArgumentException.class, () -> new ConsistentHashRing(List.of(), 128));
+        assertThrows(IllegalArgumentException.class, () -> new ConsistentHashRing(List.of(0), 0));
+    }
+}
@@ -0,0 +1,59 @@
+package org.example.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class HeavyHittersTest {
+
+    @Test
+    void top_FindsHeavyKeysAmongNoise() {
+        HeavyHitters hitters = new HeavyHitters(10, 4, 1024);
+        Random random = new Random(42);
+        for (int i = 0; i < 100_000; i++) {
+            hitters.add("noise-" + random.nextInt(50_000), 1);
+            if (i % 10 == 0) {
+                hitters.add("heavy-" + (i / 10) % 3, 1);
+            }
+        }
+        List<Map.Entry<String, Long>> top = hitters.top(3);
+        assertEquals(3, top.size());
+        for (Map.Entry<String, Long> entry : top) {
+            assertTrue(entry.getKey().startsWith("heavy-"), entry.getKey());
+            assertTrue(entry.getValue() >= 3333, "estimate " + entry.getValue());
+        }
+    }
+
+    @Test
+    void add_NegativeDeltaRemovesCandidate() {
+        HeavyHitters hitters = new HeavyHitters(2, 4, 256);
+        hitters.add("a", 3);
+        hitters.add("b", 2);
+        hitters.add("c", 1);
+        assertEquals(List.of(Map.entry("a", 3L), Map.entry("b", 2L)), hitters.top(5));
+
+        hitters.add("a", -3);
+        assertEquals(List.of(Map.entry("b", 2L)), hitters.top(5));
+        hitters.add("c", 2);
+        assertEquals(List.of(Map.entry("c", 3L), Map.entry("b", 2L)), hitters.top(5));
+    }
+
+    @Test
+    void merge_SumsSketchesAndCandidates() {
+        HeavyHitters left = new HeavyHitters(2, 4, 256);
+        HeavyHitters right = new HeavyHitters(2, 4, 256);
+        left.add("a", 5);
+        left.add("b", 1);
+        right.add("b", 6);
+        right.add("c", 2);
+
+        left.merge(right);
+
+        assertEquals(List.of(Map.entry("b", 7L), Map.entry("a", 5L)), left.top(2));
+        assertEquals(2, left.estimate("c"));
+    }
+}
@@ -0,0 +1,112 @@
+package org.example.util;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LoadBalancerTest {
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void choose_PrefersFasterAndLessBusyInstance() {
+        LoadBalancer balancer = balancer(Duration.ofMinutes(1), 0.5);
+        balancer.setInstances(List.of("http://a", "http://b"));
+        LoadBalancer.Instance a = instance(balancer, "http://a");
+        LoadBalancer.Instance b = instance(balancer, "http://b");
+
+        a.complete(a.start() - 50_000_000, true);
+        b.complete(b.start() - 1_000_000, true);
+        for (int i = 0; i < 100; i++) {
+            assertSame(b, balancer.choose(null));
+        }
+
+        for (int i = 0; i < 100; i++) {
+            b.start();
+        }
+        assertSame(a, balancer.choose(null));
+        assertEquals(100, meterRegistry.get("load-balancer.outstanding").tag("instance", "http://b").gauge().value());
+    }
+
+    @Test
+    void choose_SpreadsOverEqualInstances() {
+        LoadBalancer balancer = balancer(Duration.ofMinutes(1), 0.5);
+        balancer.setInstances(List.of("http://a", "http://b", "http://c"));
+        Map<String, Integer> chosen = new HashMap<>();
+        for (int i = 0; i < 3000; i++) {
+            chosen.merge(balancer.choose(null).getUrl(), 1, Integer::sum);
+        }
+        assertEquals(3, chosen.size());
+        chosen.values().forEach(count -> assertTrue(count > 500, chosen.toString()));
+    }
+
+    @Test
+    void complete_EjectsAfterConsecutiveFailures() {
+        LoadBalancer balancer = balancer(Duration.ofMinutes(1), 0.5);
+        balancer.setInstances(List.of("http://a", "http://b", "http://c"));
+        LoadBalancer.Instance a = instance(balancer, "http://a");
+        LoadBalancer.Instance b = instance(balancer, "http://b");
+
+        fail(a, 2);
+        a.complete(a.start(), true);
+        fail(a, 2);
+        assertFalse(a.isEjected(System.nanoTime()));
+        fail(a, 1);
+        assertTrue(a.isEjected(System.nanoTime()));
+        for (int i = 0; i < 100; i++) {
+            assertNotSame(a, balancer.choose(null));
+        }
+
+        // a second ejection would leave less than half of the instances
+        fail(b, 3);
+        assertFalse(b.isEjected(System.nanoTime()));
+        assertEquals(1, meterRegistry.get("load-balancer.ejections").tag("instance", "http://a").counter().count());
+        assertEquals(5, meterRegistry.get("load-balancer.calls").tag("instance", "http://a").tag("outcome", "failure").timer().count());
+    }
+
+    @Test
+    void choose_ReturnsEjectedInstanceAfterEjectionTime() throws InterruptedException {
+        LoadBalancer balancer = new LoadBalancer("test", Duration.ofMinutes(1), 1, Duration.ofMillis(50), 0.5, meterRegistry);
+        balancer.setInstances(List.of("http://a", "http://b"));
+        LoadBalancer.Instance a = instance(balancer, "http://a");
+        fail(a, 1);
+        assertTrue(a.isEjected(System.nanoTime()));
+        Thread.sleep(60);
+        assertFalse(a.isEjected(System.nanoTime()));
+        assertSame(a, balancer.choose(instance(balancer, "http://b")));
+    }
+
+    @Test
+    void setInstances_KeepsStatisticsOfRemainingInstances() {
+        LoadBalancer balancer = balancer(Duration.ofMinutes(1), 0.5);
+        balancer.setInstances(List.of("http://a", "http://b"));
+        LoadBalancer.Instance a = instance(balancer, "http://a");
+        a.start();
+
+        balancer.setInstances(List.of("http://a", "http://c"));
+        assertSame(a, instance(balancer, "http://a"));
+        assertEquals(1, a.getOutstanding());
+        assertEquals(List.of("http://a", "http://c"), balancer.getInstances().stream().map(LoadBalancer.Instance::getUrl).toList());
+        assertTrue(meterRegistry.find("load-balancer.outstanding").tag("instance", "http://b").gauges().isEmpty());
+        assertThrows(IllegalArgumentException.class, () -> balancer.setInstances(List.of()));
+    }
+
+    private LoadBalancer balancer(Duration decay, double maxEjectedShare) {
+        return new LoadBalancer("test", decay, 3, Duration.ofMinutes(1), maxEjectedShare, meterRegistry);
+    }
+
+    private static LoadBalancer.Instance instance(LoadBalancer balancer, String url) {
+        return balancer.getInstances().stream().filter(instance -> instance.getUrl().equals(url)).findFirst().orElseThrow();
+    }
+
+    private static void fail(LoadBalancer.Instance instance, int times) {
+        for (int i = 0; i < times; i++) {
+            instance.complete(instance.start(), false);
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package org.example.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.example.util.AdaptiveConcurrencyLimiter;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import java.time.Duration;
+
+@Configuration
+public class ConcurrencyLimitConfig {
+
+    @Bean
+    @ConditionalOnProperty(name = "concurrency.inbound.enabled", havingValue = "true")
+    public AdaptiveConcurrencyLimiter inboundLimiter(Environment environment, MeterRegistry meterRegistry) {
+        return limiter("inbound", environment, meterRegistry);
+    }
+
+    private static AdaptiveConcurrencyLimiter limiter(String name, Environment environment, MeterRegistry meterRegistry) {
+        String prefix = "concurrency." + name + ".";
+        return new AdaptiveConcurrencyLimiter(name,
+                environment.getRequiredProperty(prefix + "initial-limit", Integer.class),
+                environment.getRequiredProperty(prefix + "min-limit", Integer.class),
+                environment.getRequiredProperty(prefix + "max-limit", Integer.class),
+                environment.getRequiredProperty(prefix + "target-latency", Duration.class),
+                environment.getRequiredProperty(prefix + "read-share", Double.class),
+                meterRegistry);
+    }
+}
@@ -0,0 +1,67 @@
+package org.example.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.example.util.AdaptiveConcurrencyLimiter;
+import org.example.util.AdaptiveConcurrencyLimiter.Priority;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+
+/**
+ * Rejects requests over the adaptive limit with 503 and {@code Retry-After} before they reach the
+ * controllers. GET and HEAD are reads, everything else is a write.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 2)
+@ConditionalOnProperty(name = "concurrency.inbound.enabled", havingValue = "true")
+public class ConcurrencyLimitFilter extends OncePerRequestFilter {
+
+    @Autowired
+    @Qualifier("inboundLimiter")
+    private AdaptiveConcurrencyLimiter limiter;
+
+    @Value("${concurrency.retry-after}")
+    private Duration retryAfter;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return request.getRequestURI().startsWith("/actuator");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String method = request.getMethod();
+        Priority priority = method.equals("GET") || method.equals("HEAD") ? Priority.READ : Priority.WRITE;
+        AdaptiveConcurrencyLimiter.Permit permit = limiter.tryAcquire(priority);
+        if (permit == null) {
+            response.setStatus(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+            response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1, retryAfter.toSeconds())));
+            response.getOutputStream().write("server is overloaded, retry later".getBytes());
+            return;
+        }
+        boolean overloaded = true;
+        try {
+            chain.doFilter(request, response);
+            overloaded = response.getStatus() == HttpServletResponse.SC_SERVICE_UNAVAILABLE;
+        } finally {
+            if (overloaded) {
+                permit.drop();
+            } else {
+                permit.release();
+            }
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package org.example.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+
+/**
+ * Returns the primary position to clients after writes and routes their reads that carry it
+ * to replicas that have caught up with it.
+ */
+@Component
+@ConditionalOnProperty(name = "datasource.replicas.enabled", havingValue = "true")
+public class ConsistencyTokenFilter extends OncePerRequestFilter {
+    public static final String HEADER = "X-Consistency-Token";
+
+    @Autowired
+    private ReplicaRoutingDataSource dataSource;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String token = request.getHeader(HEADER);
+        Long required = null;
+        if (token != null) {
+            try {
+                required = Long.parseLong(token.trim());
+            } catch (NumberFormatException e) {
+                response.sendError(HttpServletResponse.SC_BAD_REQUEST, HEADER + " must be a number");
+                return;
+            }
+        }
+        boolean write = !"GET".equals(request.getMethod()) && !"HEAD".equals(request.getMethod());
+        TokenResponse tokenResponse = write ? new TokenResponse(response) : null;
+        ReplicaRoutingDataSource.requirePosition(required);
+        try {
+            chain.doFilter(request, write ? tokenResponse : response);
+        } finally {
+            ReplicaRoutingDataSource.requirePosition(null);
+        }
+        if (write) {
+            tokenResponse.setToken();
+        }
+    }
+
+    private class TokenResponse extends HttpServletResponseWrapper {
+        private boolean tokenSet;
+
+        TokenResponse(HttpServletResponse response) {
+            super(response);
+        }
+
+        void setToken() {
+            if (!tokenSet && !isCommitted()) {
+                setHeader(HEADER, Long.toString(dataSource.getPrimaryPosition()));
+                tokenSet = true;
+            }
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            setToken();
+            return super.getOutputStream();
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            setToken();
+            return super.getWriter();
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            setToken();
+            super.flushBuffer();
+        }
+    }
+}
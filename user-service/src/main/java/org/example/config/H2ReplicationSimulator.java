@@ -0,0 +1,82 @@
+package org.example.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Stand-in for database replication between local H2 instances: periodically copies every table
+ * of the primary into each replica in one transaction and records the primary position it copied.
+ */
+@Slf4j
+@Component
+@ConditionalOnExpression("${datasource.replicas.enabled:false} and ${datasource.replicas.simulate-replication:false}")
+public class H2ReplicationSimulator {
+
+    @Autowired
+    private ReplicaRoutingDataSource dataSource;
+
+    @Scheduled(fixedDelayString = "${datasource.replicas.replication-interval}")
+    public synchronized void replicate() {
+        long position = dataSource.getPrimaryPosition();
+        JdbcTemplate primary = new JdbcTemplate(dataSource.getPrimary());
+        List<String> tables = primary.queryForList("SELECT TABLE_NAME FROM INFORMATION_SCHEMA.TABLES "
+                + "WHERE TABLE_SCHEMA = 'PUBLIC' AND TABLE_TYPE = 'BASE TABLE'", String.class);
+        Map<String, List<Map<String, Object>>> snapshot = new LinkedHashMap<>();
+        for (String table : tables) {
+            snapshot.put(table, primary.queryForList("SELECT * FROM \"" + table + "\""));
+        }
+        for (ReplicaRoutingDataSource.Replica replica : dataSource.getReplicas()) {
+            try {
+                copy(primary, snapshot, replica);
+                replica.applied(position);
+            } catch (RuntimeException e) {
+                log.warn("replication to {} failed: {}", replica.getName(), e.getMessage());
+            }
+        }
+    }
+
+    private void copy(JdbcTemplate primary, Map<String, List<Map<String, Object>>> snapshot,
+                      ReplicaRoutingDataSource.Replica replica) {
+        JdbcTemplate target = new JdbcTemplate(replica.getDataSource());
+        List<String> existing = target.queryForList("SELECT TABLE_NAME FROM INFORMATION_SCHEMA.TABLES "
+                + "WHERE TABLE_SCHEMA = 'PUBLIC'", String.class);
+        if (!existing.containsAll(snapshot.keySet())) {
+            primary.queryForList("SCRIPT NODATA", String.class).stream()
+                    .filter(sql -> (sql.startsWith("CREATE") && !sql.startsWith("CREATE USER")) || sql.startsWith("ALTER TABLE"))
+                    .forEach(sql -> {
+                        try {
+                            target.execute(sql);
+                        } catch (DataAccessException e) {
+                            log.debug("skipping schema statement on {}: {}", replica.getName(), e.getMessage());
+                        }
+                    });
+        }
+        new TransactionTemplate(new DataSourceTransactionManager(replica.getDataSource())).executeWithoutResult(status -> {
+            snapshot.forEach((table, rows) -> {
+                target.update("DELETE FROM \"" + table + "\"");
+                if (rows.isEmpty()) {
+                    return;
+                }
+                List<String> columns = new ArrayList<>(rows.get(0).keySet());
+                String sql = "INSERT INTO \"" + table + "\" ("
+                        + columns.stream().map(column -> "\"" + column + "\"").collect(Collectors.joining(", "))
+                        + ") VALUES (" + String.join(", ", Collections.nCopies(columns.size(), "?")) + ")";
+                target.batchUpdate(sql, rows.stream().map(row -> columns.stream().map(row::get).toArray()).toList());
+            });
+        });
+    }
+}
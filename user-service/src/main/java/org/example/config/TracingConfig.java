@@ -0,0 +1,15 @@
+package org.example.config;
+
+import org.example.util.TraceBuffer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class TracingConfig {
+
+    @Bean
+    public TraceBuffer traceBuffer(@Value("${tracing.buffer-size}") int bufferSize) {
+        return new TraceBuffer(bufferSize);
+    }
+}
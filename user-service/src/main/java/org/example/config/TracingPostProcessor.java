@@ -0,0 +1,67 @@
+package org.example.config;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.example.util.RequestTrace;
+import org.springframework.aop.framework.Advised;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.data.repository.Repository;
+import org.springframework.stereotype.Component;
+import org.springframework.stereotype.Service;
+import org.springframework.util.ClassUtils;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.lang.reflect.Proxy;
+
+/**
+ * Records a span for every call to a controller, service or repository made while
+ * a {@link RequestTrace} is active.
+ */
+@Component
+public class TracingPostProcessor implements BeanPostProcessor {
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        String category = categoryOf(bean);
+        if (category == null) {
+            return bean;
+        }
+        String name = beanName.substring(beanName.lastIndexOf('.') + 1);
+        MethodInterceptor interceptor = invocation -> {
+            RequestTrace trace = RequestTrace.current();
+            if (trace == null) {
+                return invocation.proceed();
+            }
+            long start = trace.enter(category);
+            try {
+                return invocation.proceed();
+            } finally {
+                trace.exit(category, name + "." + invocation.getMethod().getName(), start);
+            }
+        };
+        if (bean instanceof Advised advised && !advised.isFrozen()) {
+            advised.addAdvice(0, interceptor);
+            return bean;
+        }
+        ProxyFactory proxyFactory = new ProxyFactory(bean);
+        proxyFactory.setProxyTargetClass(!Proxy.isProxyClass(bean.getClass()));
+        proxyFactory.addAdvice(interceptor);
+        return proxyFactory.getProxy(bean.getClass().getClassLoader());
+    }
+
+    private static String categoryOf(Object bean) {
+        Class<?> type = ClassUtils.getUserClass(AopUtils.getTargetClass(bean));
+        if (AnnotatedElementUtils.hasAnnotation(type, RestController.class)) {
+            return RequestTrace.CONTROLLER;
+        }
+        if (AnnotatedElementUtils.hasAnnotation(type, Service.class)) {
+            return RequestTrace.SERVICE;
+        }
+        if (bean instanceof Repository<?, ?>) {
+            return RequestTrace.REPOSITORY;
+        }
+        return null;
+    }
+}
@@ -1,6 +1,7 @@
 package org.example.controllers;
 
 import jakarta.servlet.http.HttpServletResponse;
+import org.example.model.ConflictException;
 import org.example.model.InvalidParametersException;
 import org.example.model.NotFoundException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
@@ -21,6 +22,11 @@ public class ExceptionController {
         setResponse(response, HttpServletResponse.SC_NOT_FOUND, exception);
     }
 
+    @ExceptionHandler(ConflictException.class)
+    void handleConflict(HttpServletResponse response, Exception exception) throws IOException {
+        setResponse(response, HttpServletResponse.SC_CONFLICT, exception);
+    }
+
     private void setResponse(HttpServletResponse response, int status, Exception exception) throws IOException {
         response.setStatus(status);
         try (BufferedWriter bw = new BufferedWriter(new OutputStreamWriter(response.getOutputStream()))) {
@@ -1,12 +1,15 @@
 package org.example.controllers;
 
 import org.example.model.User;
+import org.example.model.UserChange;
 import org.example.model.UserDTO;
+import org.example.services.UserChangeLog;
 import org.example.services.UserService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/users")
@@ -15,11 +18,24 @@ public class UserController extends ExceptionController {
     @Autowired
     private UserService service;
 
+    @Autowired
+    private UserChangeLog changeLog;
+
     @GetMapping("/{userId}")
     public User getUserByUserId(@PathVariable Long userId) {
         return service.getUserByUserId(userId);
     }
 
+    @GetMapping("/exists")
+    public List<Long> getExistingUserIds(@RequestParam List<Long> ids) {
+        return service.getExistingUserIds(ids);
+    }
+
+    @GetMapping(value = "/{userId}", params = "fields")
+    public Map<String, Object> getUserByUserId(@PathVariable Long userId, @RequestParam String fields) {
+        return service.getUserByUserId(userId, fields);
+    }
+
     @PostMapping
     public User createUser(@RequestBody UserDTO userDTO) {
         return service.createUser(userDTO);
@@ -34,4 +50,23 @@ public class UserController extends ExceptionController {
     public List<User> getAllUsers() {
         return service.getAllUsers();
     }
+
+    @GetMapping(params = "fields")
+    public List<Map<String, Object>> getAllUsers(@RequestParam String fields) {
+        return service.getAllUsers(fields);
+    }
+
+    @GetMapping("/search")
+    public List<User> searchUsers(@RequestParam(required = false) String email,
+                                  @RequestParam(required = false) String prefix,
+                                  @RequestParam(defaultValue = "name") String by,
+                                  @RequestParam(defaultValue = "20") Integer limit) {
+        return service.searchUsers(email, prefix, by, limit);
+    }
+
+    @GetMapping("/changes")
+    public List<UserChange> getChanges(@RequestParam(defaultValue = "0") Long after,
+                                       @RequestParam(defaultValue = "1000") Integer limit) {
+        return changeLog.getChanges(after, limit);
+    }
 }
@@ -0,0 +1,108 @@
+package org.example.controllers;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.example.model.User;
+import org.example.model.UserDTO;
+import org.example.model.WarmUpReport;
+import org.example.util.JitWarmUp;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Warms up the user endpoints before the service accepts traffic. Application runners finish before
+ * the readiness state becomes ACCEPTING_TRAFFIC, so {@code /actuator/health/readiness} stays DOWN
+ * while the cycles run. Every cycle calls {@link UserController} the way a request would (JSON body in,
+ * JSON out) for a synthetic user in a transaction that is always rolled back, together with its
+ * entries in the change log.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "users.warm-up.enabled", havingValue = "true")
+public class UserWarmUp implements ApplicationRunner {
+
+    @Autowired
+    private UserController controller;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${users.warm-up.round-size}")
+    private int roundSize;
+
+    @Value("${users.warm-up.max-duration}")
+    private Duration maxDuration;
+
+    @Value("${users.warm-up.settle-threshold}")
+    private double settleThreshold;
+
+    private volatile WarmUpReport report;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        try {
+            report = new JitWarmUp(roundSize, maxDuration, settleThreshold).run(recorder ->
+                    transaction.executeWithoutResult(status -> {
+                        status.setRollbackOnly();
+                        cycle(recorder);
+                    }));
+            log.info("warm-up finished in {} ms, {} rounds, settled: {}, p99 before/after (us): {}", report.durationMillis(),
+                    report.rounds(), report.settled(), JitWarmUp.summary(report));
+        } catch (RuntimeException e) {
+            log.warn("warm-up failed, accepting traffic with cold code", e);
+        }
+    }
+
+    public WarmUpReport getReport() {
+        return report;
+    }
+
+    private void cycle(JitWarmUp.Recorder recorder) {
+        String name = "warm-up " + Long.toString(ThreadLocalRandom.current().nextLong(Long.MAX_VALUE), 36);
+        String email = name.replace(' ', '.') + "@warmup.local";
+        byte[] body = write(new UserDTO(name, email));
+
+        User user = recorder.time("create", () -> {
+            User created = controller.createUser(read(body));
+            write(created);
+            return created;
+        });
+        recorder.time("get", () -> write(controller.getUserByUserId(user.getId())));
+        recorder.time("get-fields", () -> write(controller.getUserByUserId(user.getId(), "id,name")));
+        recorder.time("search-email", () -> write(controller.searchUsers(email, null, "name", 20)));
+        recorder.time("search-prefix", () -> write(controller.searchUsers(null, name.substring(0, 10), "name", 20)));
+        recorder.time("delete", () -> controller.deleteUserByUserId(user.getId()));
+    }
+
+    private UserDTO read(byte[] body) {
+        try {
+            return objectMapper.readValue(body, UserDTO.class);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private byte[] write(Object value) {
+        try {
+            return objectMapper.writeValueAsBytes(value);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
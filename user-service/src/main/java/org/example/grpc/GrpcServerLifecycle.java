@@ -0,0 +1,65 @@
+package org.example.grpc;
+
+import io.grpc.Server;
+import io.grpc.netty.shaded.io.grpc.netty.NettyServerBuilder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.concurrent.TimeUnit;
+
+@Component
+@ConditionalOnProperty(name = "grpc.server.enabled", havingValue = "true", matchIfMissing = true)
+public class GrpcServerLifecycle implements SmartLifecycle {
+
+    @Autowired
+    private UserLookupService userLookupService;
+
+    @Value("${grpc.server.port}")
+    private int port;
+
+    private volatile Server server;
+
+    @Override
+    public void start() {
+        try {
+            server = NettyServerBuilder.forPort(port)
+                    .addService(userLookupService)
+                    .build()
+                    .start();
+        } catch (IOException e) {
+            throw new UncheckedIOException("can't start gRPC server on port " + port, e);
+        }
+    }
+
+    @Override
+    public void stop() {
+        Server current = server;
+        if (current == null) {
+            return;
+        }
+        current.shutdown();
+        try {
+            if (!current.awaitTermination(5, TimeUnit.SECONDS)) {
+                current.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            current.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+        server = null;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return server != null;
+    }
+
+    public int getPort() {
+        return server != null ? server.getPort() : port;
+    }
+}
@@ -0,0 +1,175 @@
+package org.example.grpc;
+
+import io.grpc.Status;
+import io.grpc.stub.StreamObserver;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.example.model.InvalidParametersException;
+import org.example.model.NotFoundException;
+import org.example.model.User;
+import org.example.services.UserService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Slf4j
+@Component
+public class UserLookupService extends UserLookupGrpc.UserLookupImplBase {
+
+    @Autowired
+    private UserService service;
+
+    @Value("${grpc.server.lookup-threads}")
+    private int lookupThreads;
+
+    private ExecutorService lookupExecutor;
+
+    @PostConstruct
+    void init() {
+        lookupExecutor = Executors.newFixedThreadPool(lookupThreads, runnable -> {
+            Thread thread = new Thread(runnable, "user-lookup-stream");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    void shutdown() {
+        lookupExecutor.shutdownNow();
+    }
+
+    @Override
+    public void exists(UserIdRequest request, StreamObserver<UserExistsReply> responseObserver) {
+        try {
+            responseObserver.onNext(lookup(request));
+            responseObserver.onCompleted();
+        } catch (InvalidParametersException e) {
+            responseObserver.onError(Status.INVALID_ARGUMENT.withDescription(e.getMessage()).asRuntimeException());
+        }
+    }
+
+    @Override
+    public void existingIds(UserIdsRequest request, StreamObserver<UserIdsReply> responseObserver) {
+        try {
+            responseObserver.onNext(UserIdsReply.newBuilder()
+                    .addAllUserIds(service.getExistingUserIds(request.getUserIdsList()))
+                    .build());
+            responseObserver.onCompleted();
+        } catch (InvalidParametersException e) {
+            responseObserver.onError(Status.INVALID_ARGUMENT.withDescription(e.getMessage()).asRuntimeException());
+        }
+    }
+
+    @Override
+    public void getUser(UserIdRequest request, StreamObserver<UserReply> responseObserver) {
+        try {
+            User user = service.getUserByUserId(request.getUserId());
+            responseObserver.onNext(UserReply.newBuilder()
+                    .setId(user.getId())
+                    .setName(user.getName())
+                    .setEmail(user.getEmail())
+                    .setCreationDate(user.getCreationDate().getTime())
+                    .build());
+            responseObserver.onCompleted();
+        } catch (InvalidParametersException e) {
+            responseObserver.onError(Status.INVALID_ARGUMENT.withDescription(e.getMessage()).asRuntimeException());
+        } catch (NotFoundException e) {
+            responseObserver.onError(Status.NOT_FOUND.withDescription(e.getMessage()).asRuntimeException());
+        }
+    }
+
+    /**
+     * Looks the users of a stream up on the lookup executor, so a slow lookup does not hold back the
+     * checks queued behind it; replies may therefore come out of order and only sending them is
+     * serialized. A lookup that fails is answered with {@code error} instead of failing the stream.
+     * The stream is completed once the client has completed it and every lookup has been answered.
+     */
+    @Override
+    public StreamObserver<UserIdRequest> existsStream(StreamObserver<UserExistsReply> responseObserver) {
+        return new StreamObserver<>() {
+            // lookups in flight plus one while the client may still send
+            private final AtomicInteger open = new AtomicInteger(1);
+            private volatile boolean cancelled;
+
+            @Override
+            public void onNext(UserIdRequest request) {
+                open.incrementAndGet();
+                try {
+                    lookupExecutor.execute(() -> {
+                        reply(streamLookup(request));
+                        finish();
+                    });
+                } catch (RejectedExecutionException e) {
+                    reply(failed(request, "user-service is shutting down"));
+                    finish();
+                }
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                cancelled = true;
+                log.debug("user lookup stream cancelled: {}", t.getMessage());
+            }
+
+            @Override
+            public void onCompleted() {
+                finish();
+            }
+
+            private void reply(UserExistsReply reply) {
+                synchronized (responseObserver) {
+                    if (!cancelled) {
+                        responseObserver.onNext(reply);
+                    }
+                }
+            }
+
+            private void finish() {
+                if (open.decrementAndGet() == 0) {
+                    synchronized (responseObserver) {
+                        if (!cancelled) {
+                            responseObserver.onCompleted();
+                        }
+                    }
+                }
+            }
+        };
+    }
+
+    private UserExistsReply streamLookup(UserIdRequest request) {
+        try {
+            return lookup(request);
+        } catch (InvalidParametersException e) {
+            return UserExistsReply.newBuilder()
+                    .setRequestId(request.getRequestId())
+                    .setUserId(request.getUserId())
+                    .setExists(false)
+                    .build();
+        } catch (RuntimeException e) {
+            log.warn("user {} could not be looked up: {}", request.getUserId(), e.getMessage());
+            return failed(request, "user lookup failed");
+        }
+    }
+
+    private static UserExistsReply failed(UserIdRequest request, String error) {
+        return UserExistsReply.newBuilder()
+                .setRequestId(request.getRequestId())
+                .setUserId(request.getUserId())
+                .setError(error)
+                .build();
+    }
+
+    private UserExistsReply lookup(UserIdRequest request) {
+        return UserExistsReply.newBuilder()
+                .setRequestId(request.getRequestId())
+                .setUserId(request.getUserId())
+                .setExists(service.userExists(request.getUserId()))
+                .build();
+    }
+}
@@ -0,0 +1,7 @@
+package org.example.model;
+
+public class ConflictException extends ModelException {
+    public ConflictException(String message) {
+        super(message);
+    }
+}
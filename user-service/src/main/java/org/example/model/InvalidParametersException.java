@@ -1,7 +0,0 @@
-package org.example.model;
-
-public class InvalidParametersException extends ModelException {
-    public InvalidParametersException(String message) {
-        super(message);
-    }
-}
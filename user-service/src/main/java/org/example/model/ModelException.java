@@ -1,7 +0,0 @@
-package org.example.model;
-
-public class ModelException extends RuntimeException {
-    public ModelException(String message) {
-        super(message);
-    }
-}
@@ -1,7 +0,0 @@
-package org.example.model;
-
-public class NotFoundException extends ModelException {
-    public NotFoundException(String message) {
-        super(message);
-    }
-}
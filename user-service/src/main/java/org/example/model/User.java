@@ -1,21 +1,24 @@
 package org.example.model;
 
-import jakarta.persistence.Entity;
-import jakarta.persistence.GeneratedValue;
-import jakarta.persistence.Id;
-import jakarta.persistence.Table;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.persistence.*;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.example.util.SnowflakeId;
 
 import java.util.Date;
+import java.util.Locale;
 
 @Data
 @Entity
-@Table(name = "users")
+@Table(name = "users", indexes = {
+        @Index(name = "users_normalized_email", columnList = "normalized_email", unique = true),
+        @Index(name = "users_normalized_name", columnList = "normalized_name")
+})
 @NoArgsConstructor
 public class User {
     @Id
-    @GeneratedValue
+    @SnowflakeId
     private Long id;
 
     private String name;
@@ -23,9 +26,29 @@ public class User {
 
     private Date creationDate;
 
+    @JsonIgnore
+    @Column(name = "normalized_name")
+    private String normalizedName;
+
+    @JsonIgnore
+    @Column(name = "normalized_email")
+    private String normalizedEmail;
+
     public User(String name, String email) {
         this.name = name;
         this.email = email;
         this.creationDate = new Date();
+        normalize();
+    }
+
+    @PrePersist
+    @PreUpdate
+    void normalize() {
+        normalizedName = normalize(name);
+        normalizedEmail = normalize(email);
+    }
+
+    public static String normalize(String value) {
+        return value == null ? null : value.trim().toLowerCase(Locale.ROOT);
     }
 }
@@ -0,0 +1,31 @@
+package org.example.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Date;
+
+@Data
+@Entity
+@Table(name = "user_changes")
+@NoArgsConstructor
+public class UserChange {
+    @Id
+    private Long sequence;
+
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Enumerated(EnumType.STRING)
+    private UserChangeType type;
+
+    private Date creationDate;
+
+    public UserChange(Long sequence, Long userId, UserChangeType type) {
+        this.sequence = sequence;
+        this.userId = userId;
+        this.type = type;
+        this.creationDate = new Date();
+    }
+}
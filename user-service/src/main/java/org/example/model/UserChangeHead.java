@@ -0,0 +1,20 @@
+package org.example.model;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Entity
+@Table(name = "user_change_head")
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserChangeHead {
+    @Id
+    private Long id;
+
+    private Long lastSequence;
+}
@@ -0,0 +1,14 @@
+package org.example.model;
+
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.Optional;
+
+public interface UserChangeHeadRepository extends JpaRepository<UserChangeHead, Long> {
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select h from UserChangeHead h where h.id = :id")
+    Optional<UserChangeHead> findByIdForUpdate(Long id);
+}
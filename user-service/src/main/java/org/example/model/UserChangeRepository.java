@@ -0,0 +1,10 @@
+package org.example.model;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.List;
+
+public interface UserChangeRepository extends JpaRepository<UserChange, Long> {
+    List<UserChange> findBySequenceGreaterThanOrderBySequenceAsc(Long sequence, Limit limit);
+}
@@ -0,0 +1,65 @@
+package org.example.model;
+
+import org.example.util.SnowflakeIdGenerator;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.util.Optional;
+
+/**
+ * Single-row operations on {@code users} in plain JDBC: rows are mapped straight into detached
+ * {@link User} objects, without the persistence context, snapshots or dirty checking. The template
+ * works on the same data source as JPA, so inside a {@code @Transactional} method it uses the
+ * connection of the current JPA transaction. The statements are constant strings, so H2 reuses
+ * the parsed command from its per-session statement cache instead of parsing the SQL again.
+ */
+@Repository
+public class UserJdbcRepository {
+    private static final String FIND_BY_ID = "SELECT id, name, email, creation_date FROM users WHERE id = ?";
+    private static final String EXISTS_BY_ID = "SELECT 1 FROM users WHERE id = ?";
+    private static final String INSERT = "INSERT INTO users (id, name, email, creation_date, normalized_name, "
+            + "normalized_email) VALUES (?, ?, ?, ?, ?, ?)";
+    private static final String DELETE_BY_ID = "DELETE FROM users WHERE id = ?";
+
+    private static final ResultSetExtractor<User> FIRST_ROW = rs -> {
+        if (!rs.next()) {
+            return null;
+        }
+        User user = new User();
+        user.setId(rs.getLong(1));
+        user.setName(rs.getString(2));
+        user.setEmail(rs.getString(3));
+        user.setCreationDate(rs.getTimestamp(4));
+        return user;
+    };
+
+    private static final ResultSetExtractor<Boolean> ANY_ROW = rs -> rs.next();
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    public Optional<User> findById(long id) {
+        return Optional.ofNullable(jdbcTemplate.query(FIND_BY_ID, FIRST_ROW, id));
+    }
+
+    public boolean existsById(long id) {
+        return Boolean.TRUE.equals(jdbcTemplate.query(EXISTS_BY_ID, ANY_ROW, id));
+    }
+
+    public User insert(User user) {
+        if (user.getId() == null) {
+            user.setId(SnowflakeIdGenerator.shared().nextId());
+        }
+        jdbcTemplate.update(INSERT, user.getId(), user.getName(), user.getEmail(),
+                user.getCreationDate() == null ? null : new Timestamp(user.getCreationDate().getTime()),
+                User.normalize(user.getName()), User.normalize(user.getEmail()));
+        return user;
+    }
+
+    public boolean deleteById(long id) {
+        return jdbcTemplate.update(DELETE_BY_ID, id) > 0;
+    }
+}
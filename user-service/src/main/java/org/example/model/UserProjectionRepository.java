@@ -0,0 +1,19 @@
+package org.example.model;
+
+import org.example.util.FieldSelection;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+public interface UserProjectionRepository {
+    FieldSelection<User> FIELDS = new FieldSelection<>(User.class)
+            .field("id", User::getId)
+            .field("name", User::getName)
+            .field("email", User::getEmail)
+            .field("creationDate", User::getCreationDate);
+
+    Optional<Map<String, Object>> findProjectedById(Long id, List<String> fields);
+
+    List<Map<String, Object>> findAllProjected(List<String> fields);
+}
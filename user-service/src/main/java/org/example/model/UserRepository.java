@@ -1,9 +1,30 @@
 package org.example.model;
 
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
-public interface UserRepository extends JpaRepository<User, Long> {
+public interface UserRepository extends JpaRepository<User, Long>, UserProjectionRepository {
     Optional<User> findById(Long id);
+
+    /**
+     * @return the number of deleted rows, 0 if there was no such user
+     */
+    @Modifying
+    @Query("delete from User u where u.id = :id")
+    int deleteUserById(Long id);
+
+    @Query("select u.id from User u where u.id in :ids")
+    List<Long> findExistingIds(Collection<Long> ids);
+
+    Optional<User> findByNormalizedEmail(String normalizedEmail);
+
+    List<User> findByNormalizedEmailStartingWithOrderByNormalizedEmailAsc(String prefix, Limit limit);
+
+    List<User> findByNormalizedNameStartingWithOrderByNormalizedNameAsc(String prefix, Limit limit);
 }
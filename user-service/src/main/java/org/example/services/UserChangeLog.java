@@ -0,0 +1,67 @@
+package org.example.services;
+
+import jakarta.annotation.PostConstruct;
+import org.example.model.*;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+@Service
+public class UserChangeLog {
+    private static final long HEAD_ID = 1L;
+    private static final int MAX_LIMIT = 10000;
+
+    @Autowired
+    private UserChangeRepository repository;
+
+    @Autowired
+    private UserChangeHeadRepository headRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @PostConstruct
+    void initHead() {
+        try {
+            new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+                if (!headRepository.existsById(HEAD_ID)) {
+                    headRepository.saveAndFlush(new UserChangeHead(HEAD_ID, 0L));
+                }
+            });
+        } catch (DataIntegrityViolationException e) {
+            // another instance created the head first
+        }
+    }
+
+    /**
+     * Takes the next sequence under a write lock on the single {@code user_change_head} row, held until
+     * the caller's transaction ends. All user writes are therefore serialized, which is what makes
+     * the sequence order equal the commit order: numbers from a database sequence could commit out
+     * of order, and a reader polling with {@code after} would skip the change committed late.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public UserChange append(UserChangeType type, Long userId) {
+        UserChangeHead head = headRepository.findByIdForUpdate(HEAD_ID)
+                .orElseThrow(() -> new IllegalStateException("user change head is missing"));
+        head.setLastSequence(head.getLastSequence() + 1);
+        return repository.save(new UserChange(head.getLastSequence(), userId, type));
+    }
+
+    @Transactional(readOnly = true)
+    public List<UserChange> getChanges(Long after, Integer limit) {
+        if (after == null || after < 0) {
+            throw new InvalidParametersException("after can't be null or less than 0");
+        }
+        if (limit == null || limit < 1 || limit > MAX_LIMIT) {
+            throw new InvalidParametersException("limit must be between 1 and " + MAX_LIMIT);
+        }
+        return repository.findBySequenceGreaterThanOrderBySequenceAsc(after, Limit.of(limit));
+    }
+}
@@ -2,9 +2,16 @@ package org.example.services;
 
 import org.example.model.*;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
 import java.util.regex.Pattern;
 
 @Service
@@ -13,29 +20,121 @@ public class UserService {
     @Autowired
     private UserRepository repository;
 
+    @Autowired
+    private UserJdbcRepository jdbcRepository;
+
+    @Autowired
+    private UserChangeLog changeLog;
+
+    @Value("${users.storage.fast-path:}")
+    private Set<String> fastPath;
+
+    @Value("${users.search.max-limit}")
+    private int maxSearchLimit;
+
+    @Value("${users.exists.max-ids}")
+    private int maxExistsIds;
+
+    @Transactional(readOnly = true)
     public User getUserByUserId(Long userId) {
         validateUserId(userId);
-        return repository.findById(userId).orElseThrow(() -> new NotFoundException(("user not found")));
+        Optional<User> user = fastPath("find-by-id") ? jdbcRepository.findById(userId) : repository.findById(userId);
+        return user.orElseThrow(() -> new NotFoundException(("user not found")));
     }
 
+    @Transactional(readOnly = true)
+    public Map<String, Object> getUserByUserId(Long userId, String fields) {
+        validateUserId(userId);
+        List<String> selected = UserRepository.FIELDS.parse(fields);
+        return repository.findProjectedById(userId, selected).orElseThrow(() -> new NotFoundException(("user not found")));
+    }
+
+    @Transactional(readOnly = true)
+    public boolean userExists(Long userId) {
+        validateUserId(userId);
+        return fastPath("find-by-id") ? jdbcRepository.existsById(userId) : repository.existsById(userId);
+    }
+
+    /**
+     * @return the given ids that belong to existing users
+     */
+    @Transactional(readOnly = true)
+    public List<Long> getExistingUserIds(List<Long> userIds) {
+        if (userIds == null || userIds.isEmpty() || userIds.size() > maxExistsIds) {
+            throw new InvalidParametersException("ids must contain from 1 to " + maxExistsIds + " ids");
+        }
+        userIds.forEach(this::validateUserId);
+        return repository.findExistingIds(userIds);
+    }
+
+    @Transactional
     public void deleteUserByUserId(Long userId) {
         validateUserId(userId);
-        repository.deleteById(userId);
+        boolean deleted = fastPath("delete-by-id") ? jdbcRepository.deleteById(userId) : repository.deleteUserById(userId) > 0;
+        if (deleted) {
+            changeLog.append(UserChangeType.DELETED, userId);
+        }
     }
 
+    @Transactional(readOnly = true)
     public List<User> getAllUsers() {
         return repository.findAll();
     }
 
+    @Transactional(readOnly = true)
+    public List<Map<String, Object>> getAllUsers(String fields) {
+        return repository.findAllProjected(UserRepository.FIELDS.parse(fields));
+    }
+
+    @Transactional(readOnly = true)
+    public List<User> searchUsers(String email, String prefix, String by, Integer limit) {
+        if ((email == null) == (prefix == null)) {
+            throw new InvalidParametersException("exactly one of email and prefix must be set");
+        }
+        if (email != null) {
+            return repository.findByNormalizedEmail(User.normalize(email)).stream().toList();
+        }
+        if (prefix.isBlank()) {
+            throw new InvalidParametersException("prefix can't be blank");
+        }
+        if (limit == null || limit < 1 || limit > maxSearchLimit) {
+            throw new InvalidParametersException("limit must be from 1 to " + maxSearchLimit);
+        }
+        String normalized = User.normalize(prefix);
+        return switch (by) {
+            case "name" -> repository.findByNormalizedNameStartingWithOrderByNormalizedNameAsc(normalized, Limit.of(limit));
+            case "email" -> repository.findByNormalizedEmailStartingWithOrderByNormalizedEmailAsc(normalized, Limit.of(limit));
+            default -> throw new InvalidParametersException("by must be name or email");
+        };
+    }
+
+    @Transactional
     public User createUser(UserDTO userDTO) {
         validateName(userDTO.getName());
         validateEmail(userDTO.getEmail());
 
         User user = new User(userDTO.getName(), userDTO.getEmail());
-        repository.save(user);
+        if (repository.findByNormalizedEmail(user.getNormalizedEmail()).isPresent()) {
+            throw new ConflictException("user with this email already exists");
+        }
+        try {
+            if (fastPath("save")) {
+                jdbcRepository.insert(user);
+            } else {
+                repository.save(user);
+                repository.flush();
+            }
+        } catch (DataIntegrityViolationException e) {
+            throw new ConflictException("user with this email already exists");
+        }
+        changeLog.append(UserChangeType.CREATED, user.getId());
         return user;
     }
 
+    private boolean fastPath(String operation) {
+        return fastPath.contains(operation);
+    }
+
     private void validateUserId(Long userId) {
         validateId(userId);
     }
@@ -0,0 +1,94 @@
+package org.example.benchmarks;
+
+import org.example.UserServiceApplication;
+import org.example.model.User;
+import org.example.services.UserService;
+import org.example.util.SnowflakeIdGenerator;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Exact email lookup and name/email prefix search through {@link UserService} on millions of users
+ * (H2 in memory, the users are inserted with plain JDBC batches to keep the setup short).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = "-Xmx3g")
+@Threads(1)
+public class UserSearchBenchmark {
+    private static final String[] SYLLABLES = {"al", "ba", "ce", "do", "ev", "fi", "ga", "ho", "ir", "ju", "ka", "lo",
+            "ma", "ne", "ol", "pa", "ri", "sa", "te", "vi"};
+
+    @Param({"1000000", "3000000"})
+    private int users;
+
+    private ConfigurableApplicationContext context;
+    private UserService service;
+
+    @Setup
+    public void setUp() {
+        context = new SpringApplicationBuilder(UserServiceApplication.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.datasource.url=jdbc:h2:mem:users-benchmark",
+                        "--spring.jpa.show-sql=false",
+                        "--grpc.server.enabled=false");
+        service = context.getBean(UserService.class);
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+
+        Timestamp now = new Timestamp(System.currentTimeMillis());
+        List<Object[]> batch = new ArrayList<>();
+        for (int i = 0; i < users; i++) {
+            String name = name(i);
+            String email = name + "." + i + "@example.com";
+            batch.add(new Object[]{SnowflakeIdGenerator.shared().nextId(), name, email, now,
+                    User.normalize(name), User.normalize(email)});
+            if (batch.size() == 10_000 || i == users - 1) {
+                jdbcTemplate.batchUpdate("INSERT INTO users (id, name, email, creation_date, normalized_name, "
+                        + "normalized_email) VALUES (?, ?, ?, ?, ?, ?)", batch);
+                batch.clear();
+            }
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<User> findByEmail() {
+        int i = ThreadLocalRandom.current().nextInt(users);
+        return service.searchUsers(name(i) + "." + i + "@example.com", null, "name", 20);
+    }
+
+    @Benchmark
+    public List<User> namePrefix() {
+        return service.searchUsers(null, name(ThreadLocalRandom.current().nextInt(users)).substring(0, 4), "name", 20);
+    }
+
+    @Benchmark
+    public List<User> emailPrefix() {
+        return service.searchUsers(null, name(ThreadLocalRandom.current().nextInt(users)), "email", 20);
+    }
+
+    private static String name(int i) {
+        StringBuilder name = new StringBuilder();
+        for (int j = 0; j < 4; j++) {
+            name.append(SYLLABLES[i % SYLLABLES.length]);
+            i /= SYLLABLES.length;
+        }
+        return name.toString();
+    }
+}
@@ -0,0 +1,107 @@
+package org.example.config;
+
+import com.jayway.jsonpath.JsonPath;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+        "grpc.server.enabled=false",
+        "datasource.replicas.enabled=true",
+        "datasource.replicas.urls=jdbc:h2:mem:replica-test0;DB_CLOSE_DELAY=-1,jdbc:h2:mem:replica-test1;DB_CLOSE_DELAY=-1",
+        "datasource.replicas.max-lag=1h",
+        "datasource.replicas.health-check-interval=1h",
+        "datasource.replicas.replication-interval=1h"
+})
+@AutoConfigureMockMvc
+public class ReadReplicaRoutingTest {
+
+    @Autowired
+    MockMvc mockMvc;
+
+    @Autowired
+    ReplicaRoutingDataSource dataSource;
+
+    @Autowired
+    H2ReplicationSimulator replication;
+
+    @Autowired
+    MeterRegistry meterRegistry;
+
+    @Test
+    void readYourWrites_TokenRoutesStaleReadsToPrimary() throws Exception {
+        MvcResult created = createUser("reader@example.com");
+        String token = created.getResponse().getHeader(ConsistencyTokenFilter.HEADER);
+        long userId = ((Number) JsonPath.read(created.getResponse().getContentAsString(), "$.id")).longValue();
+        assertNotNull(token);
+        assertEquals(dataSource.getPrimaryPosition(), Long.parseLong(token));
+
+        double primaryReads = routes("primary");
+        mockMvc.perform(get("/users/{userId}", userId).header(ConsistencyTokenFilter.HEADER, token))
+                .andExpect(status().isOk());
+        assertEquals(primaryReads + 1, routes("primary"));
+
+        mockMvc.perform(get("/users/{userId}", userId))
+                .andExpect(status().isNotFound());
+
+        replication.replicate();
+        double replicaReads = routes("replica-0") + routes("replica-1");
+        mockMvc.perform(get("/users/{userId}", userId).header(ConsistencyTokenFilter.HEADER, token))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/users/{userId}", userId))
+                .andExpect(status().isOk());
+        assertEquals(replicaReads + 2, routes("replica-0") + routes("replica-1"));
+    }
+
+    @Test
+    @DirtiesContext
+    void checkHealth_EjectsUnavailableReplica() throws Exception {
+        long userId = ((Number) JsonPath.read(createUser("ejected@example.com").getResponse().getContentAsString(), "$.id")).longValue();
+        replication.replicate();
+        ReplicaRoutingDataSource.Replica broken = dataSource.getReplicas().get(0);
+        ((HikariDataSource) broken.getDataSource()).close();
+
+        dataSource.checkHealth();
+
+        assertFalse(broken.isHealthy());
+        assertTrue(dataSource.getReplicas().get(1).isHealthy());
+        double brokenReads = routes("replica-0");
+        double healthyReads = routes("replica-1");
+        for (int i = 0; i < 4; i++) {
+            mockMvc.perform(get("/users/{userId}", userId))
+                    .andExpect(status().isOk());
+        }
+        assertEquals(brokenReads, routes("replica-0"));
+        assertEquals(healthyReads + 4, routes("replica-1"));
+    }
+
+    @Test
+    void invalidToken() throws Exception {
+        mockMvc.perform(get("/users").header(ConsistencyTokenFilter.HEADER, "abc"))
+                .andExpect(status().isBadRequest());
+    }
+
+    private MvcResult createUser(String email) throws Exception {
+        return mockMvc.perform(post("/users")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(String.format("{\"name\":\"%s\",\"email\":\"%s\"}", "User", email)))
+                .andExpect(status().isOk())
+                .andReturn();
+    }
+
+    private double routes(String route) {
+        return meterRegistry.get("datasource.routes").tag("route", route).counter().count();
+    }
+}
@@ -2,6 +2,8 @@ package org.example.controllers;
 
 import com.jayway.jsonpath.JsonPath;
 import org.example.model.User;
+import org.example.model.UserChange;
+import org.example.model.UserChangeRepository;
 import org.example.model.UserRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -13,6 +15,7 @@ import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.MvcResult;
 
 import static org.hamcrest.Matchers.hasSize;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
@@ -30,9 +33,13 @@ public class UserControllerTest {
     @Autowired
     UserRepository repository;
 
+    @Autowired
+    UserChangeRepository changeRepository;
+
     private User user;
     private final String name = "User";
     private final String email = "user@example.com";
+    private final String newEmail = "new.user@example.com";
 
     @BeforeEach
     void setUp() {
@@ -62,19 +69,29 @@ public class UserControllerTest {
                 .andExpect(status().isBadRequest());
     }
 
+    @Test
+    void getExistingUserIds_OK() throws Exception {
+        mockMvc.perform(get("/users/exists").param("ids", user.getId() + ",5"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0]").value(user.getId()));
+        mockMvc.perform(get("/users/exists").param("ids", "0"))
+                .andExpect(status().isBadRequest());
+    }
+
     @Test
     void createUser_OK() throws Exception {
         MvcResult mvcResult = mockMvc.perform(post("/users")
                         .contentType(MediaType.APPLICATION_JSON)
-                        .content(String.format("{\"name\":\"%s\",\"email\":\"%s\"}", name, email)))
+                        .content(String.format("{\"name\":\"%s\",\"email\":\"%s\"}", name, newEmail)))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.name").value(name))
-                .andExpect(jsonPath("$.email").value(email))
+                .andExpect(jsonPath("$.email").value(newEmail))
                 .andReturn();
 
-        int userIdTest = JsonPath.read(mvcResult.getResponse().getContentAsString(), "$.id");
+        long userIdTest = ((Number) JsonPath.read(mvcResult.getResponse().getContentAsString(), "$.id")).longValue();
 
-        assertTrue(repository.findById((long) userIdTest).isPresent());
+        assertTrue(repository.findById(userIdTest).isPresent());
     }
 
     @Test
@@ -117,8 +134,8 @@ public class UserControllerTest {
     void getAllUsers_OK() throws Exception {
         String name1 = "name1";
         String name2 = "name2";
-        User user1 = repository.save(new User(name1, email));
-        User user2 = repository.save(new User(name2, email));
+        User user1 = repository.save(new User(name1, "user1@example.com"));
+        User user2 = repository.save(new User(name2, "user2@example.com"));
 
         assertTrue(repository.findById(user.getId()).isPresent());
         assertTrue(repository.findById(user1.getId()).isPresent());
@@ -151,6 +168,35 @@ public class UserControllerTest {
                 .andExpect(jsonPath("$", hasSize(0)));
     }
 
+    @Test
+    void getUserByUserId_Fields() throws Exception {
+        mockMvc.perform(get("/users/{userId}", user.getId()).param("fields", "email"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.email").value(email))
+                .andExpect(jsonPath("$.id").doesNotExist())
+                .andExpect(jsonPath("$.name").doesNotExist())
+                .andExpect(jsonPath("$.creationDate").doesNotExist());
+        mockMvc.perform(get("/users/{userId}", 5L).param("fields", "id"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void getAllUsers_Fields() throws Exception {
+        User user1 = repository.save(new User("name1", "user1@example.com"));
+
+        mockMvc.perform(get("/users").param("fields", "name,id"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[0].id").value(user.getId()))
+                .andExpect(jsonPath("$[0].name").value(name))
+                .andExpect(jsonPath("$[0].email").doesNotExist())
+                .andExpect(jsonPath("$[1].id").value(user1.getId()));
+        mockMvc.perform(get("/users").param("fields", "id,password"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/users").param("fields", ""))
+                .andExpect(status().isBadRequest());
+    }
+
     @Test
     void deleteUserByUserId_OK() throws Exception {
         assertTrue(repository.findById(user.getId()).isPresent());
@@ -171,4 +217,80 @@ public class UserControllerTest {
         mockMvc.perform(delete("/users/{userId}", -1L))
                 .andExpect(status().isBadRequest());
     }
-}
+
+    @Test
+    void createUser_DuplicateEmail() throws Exception {
+        mockMvc.perform(post("/users")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(String.format("{\"name\":\"%s\",\"email\":\"%s\"}", "Other", " USER@example.com")))
+                .andExpect(status().isConflict());
+        assertEquals(1, repository.count());
+    }
+
+    @Test
+    void searchUsers_OK() throws Exception {
+        repository.save(new User("Alice", "alice@example.com"));
+        repository.save(new User("alex", "alex@example.org"));
+        repository.save(new User("Bob", "al@example.net"));
+
+        mockMvc.perform(get("/users/search").param("email", " Alice@Example.com"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].name").value("Alice"))
+                .andExpect(jsonPath("$[0].normalizedEmail").doesNotExist());
+        mockMvc.perform(get("/users/search").param("email", "nobody@example.com"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(0)));
+        mockMvc.perform(get("/users/search").param("prefix", "AL"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[0].name").value("alex"))
+                .andExpect(jsonPath("$[1].name").value("Alice"));
+        mockMvc.perform(get("/users/search").param("prefix", "al").param("by", "email").param("limit", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[0].email").value("al@example.net"))
+                .andExpect(jsonPath("$[1].email").value("alex@example.org"));
+        mockMvc.perform(get("/users/search").param("prefix", "al").param("limit", "0"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/users/search"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void getChanges_OK() throws Exception {
+        long after = changeRepository.findAll().stream().mapToLong(UserChange::getSequence).max().orElse(0L);
+
+        MvcResult mvcResult = mockMvc.perform(post("/users")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(String.format("{\"name\":\"%s\",\"email\":\"%s\"}", name, newEmail)))
+                .andExpect(status().isOk())
+                .andReturn();
+        long userIdTest = ((Number) JsonPath.read(mvcResult.getResponse().getContentAsString(), "$.id")).longValue();
+        mockMvc.perform(delete("/users/{userId}", userIdTest))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/users/changes").param("after", String.valueOf(after)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[0].sequence").value(after + 1))
+                .andExpect(jsonPath("$[0].userId").value(userIdTest))
+                .andExpect(jsonPath("$[0].type").value("CREATED"))
+                .andExpect(jsonPath("$[1].sequence").value(after + 2))
+                .andExpect(jsonPath("$[1].userId").value(userIdTest))
+                .andExpect(jsonPath("$[1].type").value("DELETED"));
+
+        mockMvc.perform(get("/users/changes").param("after", String.valueOf(after)).param("limit", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].type").value("CREATED"));
+    }
+
+    @Test
+    void getChanges_InvalidParameters() throws Exception {
+        mockMvc.perform(get("/users/changes").param("after", "-1"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/users/changes").param("limit", "0"))
+                .andExpect(status().isBadRequest());
+    }
+}
\ No newline at end of file
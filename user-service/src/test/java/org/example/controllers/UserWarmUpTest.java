@@ -0,0 +1,59 @@
+package org.example.controllers;
+
+import org.example.model.UserChangeRepository;
+import org.example.model.UserRepository;
+import org.example.model.WarmUpReport;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+        "grpc.server.enabled=false",
+        "spring.datasource.url=jdbc:h2:mem:warm-up-test",
+        "users.warm-up.enabled=true",
+        "users.warm-up.round-size=20",
+        "users.warm-up.max-duration=2s"
+})
+@AutoConfigureMockMvc
+public class UserWarmUpTest {
+
+    @Autowired
+    MockMvc mockMvc;
+
+    @Autowired
+    UserWarmUp warmUp;
+
+    @Autowired
+    UserRepository repository;
+
+    @Autowired
+    UserChangeRepository changeRepository;
+
+    @Test
+    void warmUp_RolledBackAndReported() throws Exception {
+        WarmUpReport report = warmUp.getReport();
+        assertNotNull(report);
+        assertTrue(report.rounds() >= 2);
+        assertEquals(Set.of("create", "get", "get-fields", "search-email", "search-prefix", "delete"),
+                report.operations().keySet());
+
+        assertEquals(0, repository.count());
+        assertEquals(0, changeRepository.count());
+
+        mockMvc.perform(get("/actuator/health/readiness"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("UP"));
+        mockMvc.perform(get("/actuator/warmup"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.operations.create.after.p50Micros").exists());
+    }
+}
@@ -0,0 +1,178 @@
+package org.example.grpc;
+
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
+import io.grpc.stub.StreamObserver;
+import org.example.model.InvalidParametersException;
+import org.example.model.NotFoundException;
+import org.example.model.User;
+import org.example.services.UserService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class UserLookupServiceTest {
+
+    @Mock
+    UserService userService;
+
+    @Mock
+    StreamObserver<UserExistsReply> existsObserver;
+
+    @Mock
+    StreamObserver<UserReply> userObserver;
+
+    @InjectMocks
+    UserLookupService lookupService;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(lookupService, "lookupThreads", 4);
+        lookupService.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        lookupService.shutdown();
+    }
+
+    @Test
+    void exists_OK() {
+        when(userService.userExists(1L)).thenReturn(true);
+
+        lookupService.exists(request(7L, 1L), existsObserver);
+
+        ArgumentCaptor<UserExistsReply> reply = ArgumentCaptor.forClass(UserExistsReply.class);
+        verify(existsObserver).onNext(reply.capture());
+        verify(existsObserver).onCompleted();
+        assertEquals(7L, reply.getValue().getRequestId());
+        assertEquals(1L, reply.getValue().getUserId());
+        assertTrue(reply.getValue().getExists());
+    }
+
+    @Test
+    void exists_InvalidId() {
+        when(userService.userExists(0L)).thenThrow(new InvalidParametersException("id can't be null or less than 1"));
+
+        lookupService.exists(request(1L, 0L), existsObserver);
+
+        assertStatus(existsObserver, Status.Code.INVALID_ARGUMENT);
+    }
+
+    @Test
+    void getUser_OK() {
+        User user = new User("User", "user@example.com");
+        user.setId(3L);
+        when(userService.getUserByUserId(3L)).thenReturn(user);
+
+        lookupService.getUser(request(1L, 3L), userObserver);
+
+        ArgumentCaptor<UserReply> reply = ArgumentCaptor.forClass(UserReply.class);
+        verify(userObserver).onNext(reply.capture());
+        assertEquals(3L, reply.getValue().getId());
+        assertEquals("User", reply.getValue().getName());
+        assertEquals("user@example.com", reply.getValue().getEmail());
+        assertEquals(user.getCreationDate().getTime(), reply.getValue().getCreationDate());
+    }
+
+    @Test
+    void getUser_NotFound() {
+        when(userService.getUserByUserId(5L)).thenThrow(new NotFoundException("user not found"));
+
+        lookupService.getUser(request(1L, 5L), userObserver);
+
+        assertStatus(userObserver, Status.Code.NOT_FOUND);
+    }
+
+    @Test
+    void existingIds_OK() {
+        @SuppressWarnings("unchecked")
+        StreamObserver<UserIdsReply> idsObserver = mock(StreamObserver.class);
+        when(userService.getExistingUserIds(List.of(1L, 2L))).thenReturn(List.of(2L));
+
+        lookupService.existingIds(UserIdsRequest.newBuilder().addUserIds(1L).addUserIds(2L).build(), idsObserver);
+
+        verify(idsObserver).onNext(UserIdsReply.newBuilder().addUserIds(2L).build());
+        verify(idsObserver).onCompleted();
+    }
+
+    @Test
+    void existsStream_RepliesPerRequest() {
+        when(userService.userExists(1L)).thenReturn(true);
+        when(userService.userExists(2L)).thenReturn(false);
+        when(userService.userExists(-1L)).thenThrow(new InvalidParametersException("id can't be null or less than 1"));
+        when(userService.userExists(3L)).thenThrow(new IllegalStateException("connection lost"));
+
+        StreamObserver<UserIdRequest> requests = lookupService.existsStream(existsObserver);
+        requests.onNext(request(10L, 1L));
+        requests.onNext(request(11L, 2L));
+        requests.onNext(request(12L, -1L));
+        requests.onNext(request(13L, 3L));
+        requests.onCompleted();
+
+        ArgumentCaptor<UserExistsReply> replies = ArgumentCaptor.forClass(UserExistsReply.class);
+        verify(existsObserver, timeout(1000)).onCompleted();
+        verify(existsObserver, times(4)).onNext(replies.capture());
+        verify(existsObserver, never()).onError(any());
+        List<UserExistsReply> values = replies.getAllValues().stream()
+                .sorted(Comparator.comparingLong(UserExistsReply::getRequestId))
+                .toList();
+        assertEquals(10L, values.get(0).getRequestId());
+        assertTrue(values.get(0).getExists());
+        assertEquals(11L, values.get(1).getRequestId());
+        assertFalse(values.get(1).getExists());
+        assertEquals(12L, values.get(2).getRequestId());
+        assertFalse(values.get(2).getExists());
+        assertEquals("", values.get(2).getError());
+        assertEquals(13L, values.get(3).getRequestId());
+        assertFalse(values.get(3).getError().isEmpty());
+    }
+
+    @Test
+    void existsStream_SlowLookupDoesNotBlockOthers() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        when(userService.userExists(1L)).thenAnswer(invocation -> release.await(5, TimeUnit.SECONDS));
+        when(userService.userExists(2L)).thenReturn(true);
+
+        StreamObserver<UserIdRequest> requests = lookupService.existsStream(existsObserver);
+        requests.onNext(request(1L, 1L));
+        requests.onNext(request(2L, 2L));
+        requests.onCompleted();
+
+        ArgumentCaptor<UserExistsReply> replies = ArgumentCaptor.forClass(UserExistsReply.class);
+        verify(existsObserver, timeout(1000)).onNext(replies.capture());
+        assertEquals(2L, replies.getValue().getRequestId());
+        verify(existsObserver, never()).onCompleted();
+
+        release.countDown();
+        verify(existsObserver, timeout(1000)).onCompleted();
+        verify(existsObserver, times(2)).onNext(any());
+    }
+
+    private UserIdRequest request(long requestId, long userId) {
+        return UserIdRequest.newBuilder().setRequestId(requestId).setUserId(userId).build();
+    }
+
+    private void assertStatus(StreamObserver<?> observer, Status.Code code) {
+        ArgumentCaptor<Throwable> error = ArgumentCaptor.forClass(Throwable.class);
+        verify(observer).onError(error.capture());
+        verify(observer, never()).onCompleted();
+        assertInstanceOf(StatusRuntimeException.class, error.getValue());
+        assertEquals(code, ((StatusRuntimeException) error.getValue()).getStatus().getCode());
+    }
+}
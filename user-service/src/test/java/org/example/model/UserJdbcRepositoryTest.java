@@ -0,0 +1,89 @@
+package org.example.model;
+
+import com.jayway.jsonpath.JsonPath;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+        "grpc.server.enabled=false",
+        "users.storage.fast-path=find-by-id,save,delete-by-id"
+})
+@AutoConfigureMockMvc
+public class UserJdbcRepositoryTest {
+
+    @Autowired
+    MockMvc mockMvc;
+
+    @Autowired
+    UserRepository repository;
+
+    @Autowired
+    UserJdbcRepository jdbcRepository;
+
+    @Autowired
+    TransactionTemplate transactionTemplate;
+
+    @BeforeEach
+    void setUp() {
+        repository.deleteAll();
+    }
+
+    @Test
+    void insert_ReadableByJpaAndBack() {
+        User user = jdbcRepository.insert(new User("name", "jdbc@example.com"));
+
+        User viaJpa = repository.findById(user.getId()).orElseThrow();
+        assertEquals("name", viaJpa.getName());
+        assertEquals("jdbc@example.com", viaJpa.getEmail());
+        assertEquals(user.getCreationDate().getTime(), viaJpa.getCreationDate().getTime());
+
+        User saved = repository.save(new User("other", "other@example.com"));
+        User viaJdbc = jdbcRepository.findById(saved.getId()).orElseThrow();
+        assertEquals(saved.getEmail(), viaJdbc.getEmail());
+        assertEquals(saved.getCreationDate().getTime(), viaJdbc.getCreationDate().getTime());
+
+        assertTrue(jdbcRepository.existsById(saved.getId()));
+        assertTrue(jdbcRepository.deleteById(saved.getId()));
+        assertFalse(jdbcRepository.existsById(saved.getId()));
+        assertTrue(jdbcRepository.findById(saved.getId()).isEmpty());
+    }
+
+    @Test
+    void insert_JoinsJpaTransaction() {
+        User user = new User("name", "jdbc@example.com");
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcRepository.insert(user);
+            assertTrue(repository.existsById(user.getId()));
+            status.setRollbackOnly();
+        });
+        assertFalse(jdbcRepository.existsById(user.getId()));
+    }
+
+    @Test
+    void fastPath_ServesEndpoints() throws Exception {
+        String body = mockMvc.perform(post("/users")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\": \"name\", \"email\": \"jdbc@example.com\"}"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        Long id = JsonPath.parse(body).read("$.id", Long.class);
+
+        mockMvc.perform(get("/users/{userId}", id))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.email").value("jdbc@example.com"));
+        mockMvc.perform(delete("/users/{userId}", id))
+                .andExpect(status().isOk());
+        assertFalse(repository.existsById(id));
+    }
+}
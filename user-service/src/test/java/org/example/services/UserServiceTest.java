@@ -1,18 +1,25 @@
 package org.example.services;
 
+import org.example.model.ConflictException;
 import org.example.model.InvalidParametersException;
 import org.example.model.User;
+import org.example.model.UserChangeType;
 import org.example.model.UserDTO;
+import org.example.model.UserJdbcRepository;
 import org.example.model.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import java.util.Optional;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.Mockito.*;
 
@@ -22,12 +29,20 @@ public class UserServiceTest {
     @Mock
     UserRepository repository;
 
+    @Mock
+    UserChangeLog changeLog;
+
     @InjectMocks
     UserService service;
 
     private final String name = "Alex";
     private final String email = "user@example.com";
 
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(service, "fastPath", Set.of());
+    }
+
     @Test
     void validateEmail_OK() {
         validateEmailFabric_OK_createUser("user@example.com");
@@ -152,9 +167,18 @@ public class UserServiceTest {
     @Test
     void deleteUserById_OK() {
         Long userId = 1L;
-        doNothing().when(repository).deleteById(userId);
+        when(repository.deleteUserById(userId)).thenReturn(1);
         assertDoesNotThrow(() -> service.deleteUserByUserId(userId));
-        verify(repository).deleteById(userId);
+        verify(repository).deleteUserById(userId);
+        verify(changeLog).append(UserChangeType.DELETED, userId);
+    }
+
+    @Test
+    void deleteUserById_Unknown() {
+        Long userId = 2L;
+        when(repository.deleteUserById(userId)).thenReturn(0);
+        assertDoesNotThrow(() -> service.deleteUserByUserId(userId));
+        verifyNoInteractions(changeLog);
     }
 
     @Test
@@ -162,6 +186,47 @@ public class UserServiceTest {
         Long userId = -1L;
         assertThrows(InvalidParametersException.class, () -> service.deleteUserByUserId(userId));
         verifyNoInteractions(repository);
+        verifyNoInteractions(changeLog);
+    }
+
+
+    @Test
+    void fastPath_SelectedPerOperation() {
+        UserJdbcRepository jdbcRepository = mock(UserJdbcRepository.class);
+        ReflectionTestUtils.setField(service, "jdbcRepository", jdbcRepository);
+        ReflectionTestUtils.setField(service, "fastPath", Set.of("find-by-id", "save"));
+        User stored = new User(name, email);
+        when(jdbcRepository.findById(10L)).thenReturn(Optional.of(stored));
+        when(jdbcRepository.existsById(10L)).thenReturn(true);
+
+        assertSame(stored, service.getUserByUserId(10L));
+        assertTrue(service.userExists(10L));
+        User created = service.createUser(new UserDTO(name, email));
+        service.deleteUserByUserId(10L);
+
+        verify(jdbcRepository).insert(created);
+        verify(repository).deleteUserById(10L);
+        verify(repository, never()).findById(any());
+        verify(repository, never()).existsById(any());
+        verify(repository, never()).save(any());
     }
 
+    @Test
+    void createUser_DuplicateEmail() {
+        when(repository.findByNormalizedEmail("user@example.com")).thenReturn(Optional.of(new User(name, email)));
+        assertThrows(ConflictException.class, () -> service.createUser(new UserDTO(name, " User@Example.com ")));
+        verify(repository, never()).save(any());
+        verifyNoInteractions(changeLog);
+    }
+
+    @Test
+    void searchUsers_InvalidParameters() {
+        ReflectionTestUtils.setField(service, "maxSearchLimit", 100);
+        assertThrows(InvalidParametersException.class, () -> service.searchUsers(null, null, "name", 20));
+        assertThrows(InvalidParametersException.class, () -> service.searchUsers(email, "us", "name", 20));
+        assertThrows(InvalidParametersException.class, () -> service.searchUsers(null, " ", "name", 20));
+        assertThrows(InvalidParametersException.class, () -> service.searchUsers(null, "us", "name", 101));
+        assertThrows(InvalidParametersException.class, () -> service.searchUsers(null, "us", "phone", 20));
+        verifyNoInteractions(repository);
+    }
 }